@@ -36,8 +36,8 @@ export default function LoginScreen() {
   const onSubmit: SubmitHandler<FormData> = async (values) => {
     try {
       const res = await api.post<ApiResponse<LoginData>>("/auth/login", values);
-      const { token, user, hasProfile } = res.data.data; // <- matches your backend
-      await login(token, user, hasProfile);
+      const { token, refreshToken, user, hasProfile } = res.data.data; // <- matches your backend
+      await login(token, user, hasProfile, refreshToken);
       // If user has no profile yet, send to onboarding; else dashboard
       if (hasProfile) router.replace("/dashboard");
       else router.replace("/personal-info"); // or your first onboarding screen
@@ -50,9 +50,9 @@ export default function RegisterScreen() {
       };
 
       const res = await api.post<ApiResponse<LoginData>>("/auth/register", payload);
-      const { token, user, hasProfile } = res.data.data;
+      const { token, refreshToken, user, hasProfile } = res.data.data;
 
-      await login(token, user, hasProfile);
+      await login(token, user, hasProfile, refreshToken);
 
       if (hasProfile) router.replace("/dashboard");
       else router.replace("/personal-info"); // adjust to your first onboarding screen
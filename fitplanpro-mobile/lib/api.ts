@@ -1,3 +1,4 @@
+import AsyncStorage from "@react-native-async-storage/async-storage";
 import axios from "axios";
 import * as Haptics from "expo-haptics";
 import { router } from "expo-router";
@@ -16,11 +17,46 @@ export function setAuthToken(token?: string) {
   }
 }
 
+export const TOKEN_KEY = "fitplanpro.auth.token";
+export const REFRESH_TOKEN_KEY = "fitplanpro.auth.refreshToken";
+
+// Access tokens are short-lived: exchange the stored refresh token for a new pair
+let refreshing: Promise<string | null> | null = null;
+
+async function refreshAccessToken(): Promise<string | null> {
+  const refreshToken = await AsyncStorage.getItem(REFRESH_TOKEN_KEY);
+  if (!refreshToken) return null;
+  try {
+    const res = await axios.post(`${api.defaults.baseURL}/auth/refresh`, { refreshToken });
+    const { token, refreshToken: nextRefreshToken } = res.data.data;
+    await Promise.all([
+      AsyncStorage.setItem(TOKEN_KEY, token),
+      AsyncStorage.setItem(REFRESH_TOKEN_KEY, nextRefreshToken),
+    ]);
+    setAuthToken(token);
+    return token;
+  } catch {
+    return null;
+  }
+}
+
 // Interceptor: catch 401 globally
 api.interceptors.response.use(
   (res) => res,
   async (err) => {
     const status = err?.response?.status;
+    const config = err?.config;
+    if (status === 401 && config && !config._retry && !config.url?.startsWith("/auth/")) {
+      config._retry = true;
+      refreshing ??= refreshAccessToken().finally(() => {
+        refreshing = null;
+      });
+      const token = await refreshing;
+      if (token) {
+        config.headers.Authorization = `Bearer ${token}`;
+        return api(config);
+      }
+    }
     if (status === 401) {
       // Small vibration feedback
       try {
@@ -1,6 +1,6 @@
 import AsyncStorage from "@react-native-async-storage/async-storage";
 import React, { createContext, useContext, useEffect, useMemo, useState } from "react";
-import { api } from "./api";
+import { api, REFRESH_TOKEN_KEY, TOKEN_KEY } from "./api";
 import type { User } from "./types";
 
 type AuthCtx = {
@@ -8,7 +8,7 @@ type AuthCtx = {
   token: string | null;
   hasProfile: boolean;
   loading: boolean;
-  login: (token: string, user: User, hasProfile: boolean) => Promise<void>;
+  login: (token: string, user: User, hasProfile: boolean, refreshToken?: string) => Promise<void>;
   logout: () => Promise<void>;
   setUser: (u: User | null) => void;
   setHasProfile: (v: boolean) => void;
@@ -16,7 +16,6 @@ type AuthCtx = {
 
 const AuthContext = createContext<AuthCtx | undefined>(undefined);
 
-const TOKEN_KEY = "fitplanpro.auth.token";
 const USER_KEY = "fitplanpro.auth.user";
 const HAS_PROFILE_KEY = "fitplanpro.auth.hasProfile";
 
@@ -47,7 +46,7 @@ export function AuthProvider({ children }: { children: React.ReactNode }) {
     })();
   }, []);
 
-  const login = async (t: string, u: User, hp: boolean) => {
+  const login = async (t: string, u: User, hp: boolean, rt?: string) => {
     setToken(t);
     api.defaults.headers.common.Authorization = `Bearer ${t}`;
     setUser(u);
@@ -57,16 +56,22 @@ export function AuthProvider({ children }: { children: React.ReactNode }) {
       AsyncStorage.setItem(TOKEN_KEY, t),
       AsyncStorage.setItem(USER_KEY, JSON.stringify(u)),
       AsyncStorage.setItem(HAS_PROFILE_KEY, String(hp)),
+      rt ? AsyncStorage.setItem(REFRESH_TOKEN_KEY, rt) : AsyncStorage.removeItem(REFRESH_TOKEN_KEY),
     ]);
   };
 
   const logout = async () => {
+    const rt = await AsyncStorage.getItem(REFRESH_TOKEN_KEY);
+    if (rt) {
+      api.post("/auth/logout", { refreshToken: rt }).catch(() => {});
+    }
     setUser(null);
     setToken(null);
     setHasProfile(false);
     delete api.defaults.headers.common.Authorization;
     await Promise.all([
       AsyncStorage.removeItem(TOKEN_KEY),
+      AsyncStorage.removeItem(REFRESH_TOKEN_KEY),
       AsyncStorage.removeItem(USER_KEY),
       AsyncStorage.removeItem(HAS_PROFILE_KEY),
     ]);
@@ -94,6 +94,8 @@ export type User = {
 
 export type LoginData = {
   token: string;
+  refreshToken?: string;
+  expiresIn?: number;
   user: User;
   hasProfile: boolean;
 };
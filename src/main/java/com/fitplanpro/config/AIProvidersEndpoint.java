@@ -0,0 +1,33 @@
+package com.fitplanpro.config;
+
+import com.fitplanpro.dto.aiservice.AIProviderStatusDto;
+import com.fitplanpro.dto.aiservice.CircuitTransitionDto;
+import com.fitplanpro.service.AIProviderMonitor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Actuator endpoint exposing AI provider circuit breaker state, recent
+ * transitions and latency, at /actuator/aiproviders
+ */
+@Component
+@Endpoint(id = "aiproviders")
+@RequiredArgsConstructor
+public class AIProvidersEndpoint {
+
+    private final AIProviderMonitor providerMonitor;
+
+    @ReadOperation
+    public Map<String, Object> providers() {
+        List<AIProviderStatusDto> providers = providerMonitor.getProviderStatuses();
+        List<CircuitTransitionDto> transitions = providerMonitor.getRecentTransitions();
+        return Map.of(
+                "providers", providers,
+                "transitions", transitions);
+    }
+}
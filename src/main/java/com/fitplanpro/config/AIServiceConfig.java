@@ -5,18 +5,36 @@ import com.anthropic.client.okhttp.AnthropicOkHttpClient;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fitplanpro.enums.AIProvider;
+import com.fitplanpro.enums.AIProviderMode;
+import com.fitplanpro.service.*;
 import com.theokanning.openai.service.OpenAiService;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.util.StringUtils;
 
 import java.time.Duration;
+import java.util.function.Supplier;
 
 @Configuration
 public class AIServiceConfig {
 
+    // Live API clients, and their keys, are only needed when not replaying recorded responses
+    private static final String LIVE_PROVIDERS = "!'${fitplan.ai.provider.mode:LIVE}'.equalsIgnoreCase('replay')";
+
+    @Value("${fitplan.ai.provider.mode:LIVE}")
+    private AIProviderMode providerMode;
+
+    @Value("${fitplan.ai.openai.model}")
+    private String openAiModel;
+
+    @Value("${fitplan.ai.claude.model}")
+    private String claudeModel;
+
     @Value("${fitplan.ai.openai.api-key:}")
     private String openAiApiKey;
 
@@ -30,6 +48,7 @@ public class AIServiceConfig {
     private String claudeBaseUrl;
 
     @Bean
+    @ConditionalOnExpression(LIVE_PROVIDERS)
     public OpenAiService openAiService() {
         if (!StringUtils.hasText(openAiApiKey)) {
             throw new IllegalStateException("OpenAI API key is required");
@@ -39,6 +58,7 @@ public class AIServiceConfig {
     }
 
     @Bean
+    @ConditionalOnExpression(LIVE_PROVIDERS)
     public AnthropicClient anthropicClient() {
         if (!StringUtils.hasText(claudeApiKey)) {
             throw new IllegalStateException("Claude API key is required");
@@ -50,6 +70,22 @@ public class AIServiceConfig {
                 .build();
     }
 
+    @Bean
+    public AIProviderClient openAiProviderClient(ObjectProvider<OpenAiService> openAiService,
+                                                 AIRecordingStore recordingStore, AILatencyModel latencyModel) {
+        return providerClient(AIProvider.OPENAI, openAiModel,
+                () -> new OpenAIProviderClient(openAiService.getObject(), openAiModel),
+                recordingStore, latencyModel);
+    }
+
+    @Bean
+    public AIProviderClient claudeProviderClient(ObjectProvider<AnthropicClient> anthropicClient,
+                                                 AIRecordingStore recordingStore, AILatencyModel latencyModel) {
+        return providerClient(AIProvider.CLAUDE, claudeModel,
+                () -> new ClaudeProviderClient(anthropicClient.getObject(), claudeModel),
+                recordingStore, latencyModel);
+    }
+
     @Bean
     @Primary
     public ObjectMapper objectMapper() {
@@ -63,4 +99,13 @@ public class AIServiceConfig {
 
         return mapper;
     }
+
+    private AIProviderClient providerClient(AIProvider provider, String model, Supplier<AIProviderClient> liveClient,
+                                            AIRecordingStore recordingStore, AILatencyModel latencyModel) {
+        return switch (providerMode) {
+            case LIVE -> liveClient.get();
+            case RECORD -> new RecordingAIProviderClient(liveClient.get(), recordingStore);
+            case REPLAY -> new ReplayAIProviderClient(provider, model, recordingStore, latencyModel);
+        };
+    }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.fitplanpro.config;
+
+import com.fitplanpro.dto.aiservice.AIUsageMetricsDto;
+import com.fitplanpro.service.AIUsageRecorder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint exposing AI usage on this node since startup, at
+ * /actuator/aiusage. Historical usage is in the ai_usage_rollups table.
+ */
+@Component
+@Endpoint(id = "aiusage")
+@RequiredArgsConstructor
+public class AIUsageEndpoint {
+
+    private final AIUsageRecorder usageRecorder;
+
+    @ReadOperation
+    public AIUsageMetricsDto usage() {
+        return usageRecorder.getMetrics();
+    }
+}
@@ -1,7 +1,10 @@
 package com.fitplanpro.config;
 
+import com.fitplanpro.security.BoundedPasswordEncoder;
 import com.fitplanpro.security.JwtAuthenticationFilter;
 import com.fitplanpro.security.JwtTokenProvider;
+import com.fitplanpro.security.LastActivityTracker;
+import com.fitplanpro.security.PasswordHashingExecutor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -30,6 +33,7 @@ import java.util.List;
 public class SecurityConfig {
 
     private final JwtTokenProvider jwtTokenProvider;
+    private final LastActivityTracker lastActivityTracker;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -37,6 +41,9 @@ public class SecurityConfig {
                 .csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(auth -> auth
+                        // Operational endpoints: health is public, the rest expose internals
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         // Public endpoints
                         .requestMatchers("/**").permitAll()
                         .requestMatchers("/auth/**").permitAll()
@@ -48,7 +55,7 @@ public class SecurityConfig {
                         .anyRequest().authenticated()
                 )
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .addFilterBefore(new JwtAuthenticationFilter(jwtTokenProvider), UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(new JwtAuthenticationFilter(jwtTokenProvider, lastActivityTracker), UsernamePasswordAuthenticationFilter.class)
                 .build();
     }
 
@@ -58,8 +65,9 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingExecutor passwordHashingExecutor) {
+        // BCrypt runs on a dedicated bounded pool so login/signup bursts cannot starve request threads
+        return new BoundedPasswordEncoder(new BCryptPasswordEncoder(), passwordHashingExecutor);
     }
 
     @Bean
@@ -25,8 +25,11 @@ public class SimpleCacheConfig {
                 "mealPlans",
                 "workoutPlans",
                 "combinedPlans",
+                "mealPlanDays",
+                "workoutPlanDays",
+                "planVersions",
+                "activePlans",
                 "foods",
-                "exercises",
-                "aiResponses");
+                "exercises");
     }
 }
\ No newline at end of file
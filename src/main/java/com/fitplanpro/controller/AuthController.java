@@ -2,17 +2,22 @@ package com.fitplanpro.controller;
 
 import com.fitplanpro.dto.common.ApiResponseDto;
 import com.fitplanpro.dto.user.AuthResponseDto;
+import com.fitplanpro.dto.user.RefreshTokenRequestDto;
 import com.fitplanpro.dto.user.UserLoginDto;
 import com.fitplanpro.dto.user.UserRegistrationDto;
 import com.fitplanpro.security.AuthService;
+import com.fitplanpro.security.JwtTokenProvider;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Controller for authentication endpoints
  */
@@ -23,47 +28,91 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final AuthService authService;
+    private final JwtTokenProvider jwtTokenProvider;
 
     /**
      * Register a new user
      *
      * @param registrationDto the registration data
-     * @return authentication response with token and user data
+     * @return authentication response with token and user data, once the password is hashed
      */
     @PostMapping("/register")
     @Operation(summary = "Register a new user", description = "Creates a new user account and returns authentication token")
-    public ResponseEntity<ApiResponseDto<AuthResponseDto>> register(@Valid @RequestBody UserRegistrationDto registrationDto) {
-        AuthResponseDto authResponse = authService.register(registrationDto);
-
-        ApiResponseDto<AuthResponseDto> response = ApiResponseDto.<AuthResponseDto>builder()
-                .success(true)
-                .message("User registered successfully")
-                .data(authResponse)
-                .build();
+    public CompletableFuture<ResponseEntity<ApiResponseDto<AuthResponseDto>>> register(
+            @Valid @RequestBody UserRegistrationDto registrationDto) {
+        return authService.register(registrationDto).thenApply(authResponse -> {
+            ApiResponseDto<AuthResponseDto> response = ApiResponseDto.<AuthResponseDto>builder()
+                    .success(true)
+                    .message("User registered successfully")
+                    .data(authResponse)
+                    .build();
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        });
     }
 
     /**
      * Login a user
      *
      * @param loginDto the login data
-     * @return authentication response with token and user data
+     * @return authentication response with token and user data, once the password is verified
      */
     @PostMapping("/login")
     @Operation(summary = "Login user", description = "Authenticates user and returns authentication token")
-    public ResponseEntity<ApiResponseDto<AuthResponseDto>> login(@Valid @RequestBody UserLoginDto loginDto) {
-        AuthResponseDto authResponse = authService.login(loginDto);
+    public CompletableFuture<ResponseEntity<ApiResponseDto<AuthResponseDto>>> login(
+            @Valid @RequestBody UserLoginDto loginDto) {
+        return authService.login(loginDto).thenApply(authResponse -> {
+            ApiResponseDto<AuthResponseDto> response = ApiResponseDto.<AuthResponseDto>builder()
+                    .success(true)
+                    .message("Login successful")
+                    .data(authResponse)
+                    .build();
+
+            return ResponseEntity.ok(response);
+        });
+    }
+
+    /**
+     * Refresh access token
+     *
+     * @param refreshDto the refresh token data
+     * @return authentication response with new tokens and user data
+     */
+    @PostMapping("/refresh")
+    @Operation(summary = "Refresh token", description = "Exchanges a refresh token for a new access token and rotates the refresh token")
+    public ResponseEntity<ApiResponseDto<AuthResponseDto>> refresh(@Valid @RequestBody RefreshTokenRequestDto refreshDto) {
+        AuthResponseDto authResponse = authService.refresh(refreshDto);
 
         ApiResponseDto<AuthResponseDto> response = ApiResponseDto.<AuthResponseDto>builder()
                 .success(true)
-                .message("Login successful")
+                .message("Token refreshed")
                 .data(authResponse)
                 .build();
 
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Logout a user
+     *
+     * @param refreshDto the refresh token data
+     * @param request the HTTP request carrying the access token of the refresh token owner
+     * @return success response
+     */
+    @PostMapping("/logout")
+    @Operation(summary = "Logout user", description = "Revokes the refresh token and the current access token")
+    public ResponseEntity<ApiResponseDto<Void>> logout(@Valid @RequestBody RefreshTokenRequestDto refreshDto,
+                                                       HttpServletRequest request) {
+        authService.logout(refreshDto, jwtTokenProvider.resolveToken(request));
+
+        ApiResponseDto<Void> response = ApiResponseDto.<Void>builder()
+                .success(true)
+                .message("Logged out")
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Check authentication status
      *
@@ -3,7 +3,12 @@ package com.fitplanpro.controller;
 import com.fitplanpro.dto.common.ApiResponseDto;
 import com.fitplanpro.dto.common.ErrorResponseDto;
 import com.fitplanpro.dto.plan.*;
+import com.fitplanpro.enums.PlanType;
+import com.fitplanpro.exception.PlanNotFoundException;
+import com.fitplanpro.service.PlanGenerationJobService;
 import com.fitplanpro.service.PlanService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,10 +19,29 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Controller for plan operations
@@ -25,11 +49,14 @@ import java.util.List;
 @RestController
 @RequestMapping("/plans")
 @RequiredArgsConstructor
+@Slf4j
 @Tag(name = "Plans", description = "Plan management API")
 @SecurityRequirement(name = "bearerAuth")
 public class PlanController {
 
     private final PlanService planService;
+    private final PlanGenerationJobService planGenerationJobService;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Generate a new plan
@@ -62,10 +89,132 @@ public class PlanController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Generate a new plan, streaming each day of the plan as soon as it is generated
+     *
+     * @param requestDto the plan generation request
+     * @return a Server-Sent Event stream of plan sections followed by the generation result
+     */
+    @PostMapping(value = "/generate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Generate plan with streaming",
+            description = "Sends a daily_plans or weekly_schedule event for each entry as the AI produces it, "
+                    + "then a complete event with the saved plan, or an error event")
+    public Flux<ServerSentEvent<Object>> streamGeneratePlan(
+            @RequestBody @Valid PlanGenerationRequestDto requestDto) {
+        // Generation runs on a worker thread, so carry the caller's security context over
+        SecurityContext securityContext = SecurityContextHolder.getContext();
+
+        return Flux.create(sink -> {
+            Disposable generation = Mono.fromCallable(new DelegatingSecurityContextCallable<>(
+                            () -> planService.streamPlan(requestDto, (section, element) ->
+                                    sink.next(ServerSentEvent.builder((Object) element).event(section).build())),
+                            securityContext))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .subscribe(result -> {
+                        sink.next(ServerSentEvent.builder((Object) result).event("complete").build());
+                        sink.complete();
+                    }, error -> {
+                        // Exception messages may carry provider or SQL details, so the client gets a generic one
+                        log.error("Streaming plan generation failed", error);
+                        sink.next(ServerSentEvent.builder((Object) ApiResponseDto.builder()
+                                        .success(false)
+                                        .message("Plan generation failed, please try again")
+                                        .build())
+                                .event("error")
+                                .build());
+                        sink.complete();
+                    });
+
+            // Stop generating, and interrupt the AI call, when the client disconnects or the request times out
+            sink.onDispose(generation);
+        });
+    }
+
+    /**
+     * Submit an asynchronous plan generation job
+     *
+     * @param requestDto the plan generation request
+     * @return the pending job DTO
+     */
+    @PostMapping("/jobs")
+    @Operation(summary = "Submit plan generation job",
+            description = "Queues plan generation and returns a job ID to poll or subscribe to")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Job accepted",
+                    content = @Content(schema = @Schema(implementation = ApiResponseDto.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "404", description = "Profile not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "429", description = "Too many generation jobs in progress",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))
+    })
+    public ResponseEntity<ApiResponseDto<PlanGenerationJobDto>> submitGenerationJob(
+            @RequestBody @Valid PlanGenerationRequestDto requestDto) {
+        PlanGenerationJobDto job = planGenerationJobService.submitJob(requestDto);
+
+        ApiResponseDto<PlanGenerationJobDto> response = ApiResponseDto.<PlanGenerationJobDto>builder()
+                .success(true)
+                .message("Plan generation job accepted")
+                .data(job)
+                .build();
+
+        return ResponseEntity.accepted().body(response);
+    }
+
+    /**
+     * Get plan generation job status
+     *
+     * @param jobId the job ID
+     * @return the job DTO
+     */
+    @GetMapping("/jobs/{jobId}")
+    @Operation(summary = "Get plan generation job", description = "Retrieves the status of a plan generation job")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Job found",
+                    content = @Content(schema = @Schema(implementation = ApiResponseDto.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "404", description = "Job not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))
+    })
+    public ResponseEntity<ApiResponseDto<PlanGenerationJobDto>> getGenerationJob(
+            @Parameter(description = "Job ID", required = true) @PathVariable String jobId) {
+        PlanGenerationJobDto job = planGenerationJobService.getJob(jobId);
+
+        ApiResponseDto<PlanGenerationJobDto> response = ApiResponseDto.<PlanGenerationJobDto>builder()
+                .success(true)
+                .message("Job found")
+                .data(job)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Stream plan generation job status changes
+     *
+     * @param jobId the job ID
+     * @return a Server-Sent Event stream of job status changes
+     */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream plan generation job",
+            description = "Sends a Server-Sent Event on every status change until the job completes or fails")
+    public Flux<ServerSentEvent<PlanGenerationJobDto>> streamGenerationJob(
+            @Parameter(description = "Job ID", required = true) @PathVariable String jobId) {
+        return planGenerationJobService.streamJob(jobId)
+                .map(job -> ServerSentEvent.<PlanGenerationJobDto>builder()
+                        .id(job.getJobId())
+                        .event(job.getStatus().name().toLowerCase())
+                        .data(job)
+                        .build());
+    }
+
     /**
      * Get plan summary
      *
      * @param id the plan ID
+     * @param webRequest the current request, for If-None-Match
      * @return the plan summary DTO
      */
     @GetMapping("/{id}")
@@ -73,28 +222,23 @@ public class PlanController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Plan found",
                     content = @Content(schema = @Schema(implementation = ApiResponseDto.class))),
+            @ApiResponse(responseCode = "304", description = "Plan unchanged since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "401", description = "Unauthorized",
                     content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
             @ApiResponse(responseCode = "404", description = "Plan not found",
                     content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))
     })
     public ResponseEntity<ApiResponseDto<PlanSummaryDto>> getPlanSummary(
-            @Parameter(description = "Plan ID", required = true) @PathVariable Long id) {
-        PlanSummaryDto planSummary = planService.getPlanSummary(id);
-
-        ApiResponseDto<PlanSummaryDto> response = ApiResponseDto.<PlanSummaryDto>builder()
-                .success(true)
-                .message("Plan found")
-                .data(planSummary)
-                .build();
-
-        return ResponseEntity.ok(response);
+            @Parameter(description = "Plan ID", required = true) @PathVariable Long id,
+            WebRequest webRequest) {
+        return planResponse(id, webRequest, "Plan found", version -> true, () -> planService.getPlanSummary(id));
     }
 
     /**
      * Get meal plan
      *
      * @param id the plan ID
+     * @param webRequest the current request, for If-None-Match
      * @return the meal plan DTO
      */
     @GetMapping("/{id}/meal")
@@ -102,28 +246,24 @@ public class PlanController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Meal plan found",
                     content = @Content(schema = @Schema(implementation = ApiResponseDto.class))),
+            @ApiResponse(responseCode = "304", description = "Plan unchanged since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "401", description = "Unauthorized",
                     content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
             @ApiResponse(responseCode = "404", description = "Meal plan not found",
                     content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))
     })
     public ResponseEntity<ApiResponseDto<MealPlanDto>> getMealPlan(
-            @Parameter(description = "Plan ID", required = true) @PathVariable Long id) {
-        MealPlanDto mealPlan = planService.getMealPlan(id);
-
-        ApiResponseDto<MealPlanDto> response = ApiResponseDto.<MealPlanDto>builder()
-                .success(true)
-                .message("Meal plan found")
-                .data(mealPlan)
-                .build();
-
-        return ResponseEntity.ok(response);
+            @Parameter(description = "Plan ID", required = true) @PathVariable Long id,
+            WebRequest webRequest) {
+        return planResponse(id, webRequest, "Meal plan found", PlanVersionDto::hasMealPlan,
+                () -> planService.getMealPlan(id));
     }
 
     /**
      * Get workout plan
      *
      * @param id the plan ID
+     * @param webRequest the current request, for If-None-Match
      * @return the workout plan DTO
      */
     @GetMapping("/{id}/workout")
@@ -131,19 +271,136 @@ public class PlanController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Workout plan found",
                     content = @Content(schema = @Schema(implementation = ApiResponseDto.class))),
+            @ApiResponse(responseCode = "304", description = "Plan unchanged since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "401", description = "Unauthorized",
                     content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
             @ApiResponse(responseCode = "404", description = "Workout plan not found",
                     content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))
     })
     public ResponseEntity<ApiResponseDto<WorkoutPlanDto>> getWorkoutPlan(
-            @Parameter(description = "Plan ID", required = true) @PathVariable Long id) {
-        WorkoutPlanDto workoutPlan = planService.getWorkoutPlan(id);
+            @Parameter(description = "Plan ID", required = true) @PathVariable Long id,
+            WebRequest webRequest) {
+        return planResponse(id, webRequest, "Workout plan found", PlanVersionDto::hasWorkoutPlan,
+                () -> planService.getWorkoutPlan(id));
+    }
+
+    /**
+     * Get one day of a meal plan
+     *
+     * @param id the plan ID
+     * @param day the day number
+     * @param webRequest the current request, for If-None-Match
+     * @return the daily meal plan DTO
+     */
+    @GetMapping("/{id}/meal/days/{day}")
+    @Operation(summary = "Get meal plan day", description = "Retrieves one day of the meal plan with the specified ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Meal plan day found",
+                    content = @Content(schema = @Schema(implementation = ApiResponseDto.class))),
+            @ApiResponse(responseCode = "304", description = "Plan unchanged since the ETag in If-None-Match"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "404", description = "Meal plan day not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))
+    })
+    public ResponseEntity<ApiResponseDto<DailyMealPlanDto>> getMealPlanDay(
+            @Parameter(description = "Plan ID", required = true) @PathVariable Long id,
+            @Parameter(description = "Day number", required = true) @PathVariable int day,
+            WebRequest webRequest) {
+        return planResponse(id, webRequest, "Meal plan day found", version -> version.hasMealDay(day),
+                () -> planService.getMealPlanDay(id, day));
+    }
 
-        ApiResponseDto<WorkoutPlanDto> response = ApiResponseDto.<WorkoutPlanDto>builder()
+    /**
+     * Get today's meal plan day
+     *
+     * @param id the plan ID
+     * @param date the client's local date, defaults to the server date
+     * @return the daily meal plan DTO
+     */
+    @GetMapping("/{id}/meal/days/today")
+    @Operation(summary = "Get today's meal plan day",
+            description = "Retrieves the meal plan day for a date, counting from the date the plan was generated")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Meal plan day found",
+                    content = @Content(schema = @Schema(implementation = ApiResponseDto.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "404", description = "Meal plan not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))
+    })
+    public ResponseEntity<ApiResponseDto<DailyMealPlanDto>> getTodayMealPlanDay(
+            @Parameter(description = "Plan ID", required = true) @PathVariable Long id,
+            @Parameter(description = "Local date") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        int day = planService.getMealPlanDayFor(id, date != null ? date : LocalDate.now());
+        DailyMealPlanDto mealPlanDay = planService.getMealPlanDay(id, day);
+
+        ApiResponseDto<DailyMealPlanDto> response = ApiResponseDto.<DailyMealPlanDto>builder()
                 .success(true)
-                .message("Workout plan found")
-                .data(workoutPlan)
+                .message("Meal plan day found")
+                .data(mealPlanDay)
+                .build();
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get one day of a workout plan
+     *
+     * @param id the plan ID
+     * @param day the day number
+     * @param webRequest the current request, for If-None-Match
+     * @return the daily workout DTO
+     */
+    @GetMapping("/{id}/workout/days/{day}")
+    @Operation(summary = "Get workout plan day", description = "Retrieves one day of the workout plan with the specified ID")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Workout plan day found",
+                    content = @Content(schema = @Schema(implementation = ApiResponseDto.class))),
+            @ApiResponse(responseCode = "304", description = "Plan unchanged since the ETag in If-None-Match"),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "404", description = "Workout plan day not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))
+    })
+    public ResponseEntity<ApiResponseDto<DailyWorkoutDto>> getWorkoutPlanDay(
+            @Parameter(description = "Plan ID", required = true) @PathVariable Long id,
+            @Parameter(description = "Day number", required = true) @PathVariable int day,
+            WebRequest webRequest) {
+        return planResponse(id, webRequest, "Workout plan day found", version -> version.hasWorkoutDay(day),
+                () -> planService.getWorkoutPlanDay(id, day));
+    }
+
+    /**
+     * Get today's workout plan day
+     *
+     * @param id the plan ID
+     * @param date the client's local date, defaults to the server date
+     * @return the daily workout DTO, or no data on a rest day
+     */
+    @GetMapping("/{id}/workout/days/today")
+    @Operation(summary = "Get today's workout plan day",
+            description = "Retrieves the workout for a date, counting weeks from the date the plan was generated")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Workout plan day found, or rest day",
+                    content = @Content(schema = @Schema(implementation = ApiResponseDto.class))),
+            @ApiResponse(responseCode = "401", description = "Unauthorized",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
+            @ApiResponse(responseCode = "404", description = "Workout plan not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))
+    })
+    public ResponseEntity<ApiResponseDto<DailyWorkoutDto>> getTodayWorkoutPlanDay(
+            @Parameter(description = "Plan ID", required = true) @PathVariable Long id,
+            @Parameter(description = "Local date") @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        Integer day = planService.getWorkoutPlanDayFor(id, date != null ? date : LocalDate.now());
+        DailyWorkoutDto workoutDay = day != null ? planService.getWorkoutPlanDay(id, day) : null;
+
+        ApiResponseDto<DailyWorkoutDto> response = ApiResponseDto.<DailyWorkoutDto>builder()
+                .success(true)
+                .message(workoutDay != null ? "Workout plan day found" : "Rest day")
+                .data(workoutDay)
                 .build();
 
         return ResponseEntity.ok(response);
@@ -153,6 +410,7 @@ public class PlanController {
      * Get combined plan
      *
      * @param id the plan ID
+     * @param webRequest the current request, for If-None-Match
      * @return the combined plan DTO
      */
     @GetMapping("/{id}/combined")
@@ -160,22 +418,17 @@ public class PlanController {
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Combined plan found",
                     content = @Content(schema = @Schema(implementation = ApiResponseDto.class))),
+            @ApiResponse(responseCode = "304", description = "Plan unchanged since the ETag in If-None-Match"),
             @ApiResponse(responseCode = "401", description = "Unauthorized",
                     content = @Content(schema = @Schema(implementation = ErrorResponseDto.class))),
             @ApiResponse(responseCode = "404", description = "Combined plan not found",
                     content = @Content(schema = @Schema(implementation = ErrorResponseDto.class)))
     })
     public ResponseEntity<ApiResponseDto<CombinedPlanDto>> getCombinedPlan(
-            @Parameter(description = "Plan ID", required = true) @PathVariable Long id) {
-        CombinedPlanDto combinedPlan = planService.getCombinedPlan(id);
-
-        ApiResponseDto<CombinedPlanDto> response = ApiResponseDto.<CombinedPlanDto>builder()
-                .success(true)
-                .message("Combined plan found")
-                .data(combinedPlan)
-                .build();
-
-        return ResponseEntity.ok(response);
+            @Parameter(description = "Plan ID", required = true) @PathVariable Long id,
+            WebRequest webRequest) {
+        return planResponse(id, webRequest, "Combined plan found",
+                version -> version.getPlanType() == PlanType.COMBINED_PLAN, () -> planService.getCombinedPlan(id));
     }
 
     /**
@@ -230,4 +483,71 @@ public class PlanController {
 
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Respond with a plan resource, or 304 when If-None-Match already holds the
+     * plan's ETag. Existence is checked against the cached plan version, so a missing
+     * plan, plan type or day is a 404 rather than a 304, and a 304 neither loads nor
+     * maps the plan. Plans never change once saved, so clients may keep them without
+     * revalidating until they expire.
+     *
+     * @param id the plan ID
+     * @param webRequest the current request
+     * @param message the response message
+     * @param exists whether the requested part of the plan exists
+     * @param loader loads the response data
+     * @return the response entity
+     */
+    private <T> ResponseEntity<ApiResponseDto<T>> planResponse(Long id, WebRequest webRequest, String message,
+                                                               Predicate<PlanVersionDto> exists, Supplier<T> loader) {
+        PlanVersionDto version = planService.getPlanVersion(id);
+        if (!exists.test(version)) {
+            throw new PlanNotFoundException("Plan resource not found for plan ID: " + id);
+        }
+
+        String eTag = version.getETag();
+        CacheControl cacheControl = cacheControlUntil(version.getExpiryTime());
+
+        if (webRequest.checkNotModified(eTag)) {
+            recordPlanRead("not_modified");
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(cacheControl).build();
+        }
+
+        recordPlanRead("full");
+
+        ApiResponseDto<T> response = ApiResponseDto.<T>builder()
+                .success(true)
+                .message(message)
+                .data(loader.get())
+                .build();
+
+        return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl).body(response);
+    }
+
+    /**
+     * Cache an immutable plan privately until it expires
+     *
+     * @param expiryTime the plan's expiry time, or null
+     * @return the cache control
+     */
+    private CacheControl cacheControlUntil(LocalDateTime expiryTime) {
+        long maxAgeSeconds = expiryTime != null ? Duration.between(LocalDateTime.now(), expiryTime).getSeconds() : 0;
+        if (maxAgeSeconds <= 0) {
+            return CacheControl.noCache().cachePrivate();
+        }
+        return CacheControl.maxAge(Duration.ofSeconds(maxAgeSeconds)).cachePrivate().immutable();
+    }
+
+    /**
+     * Count how a plan read was served
+     *
+     * @param result not_modified or full
+     */
+    private void recordPlanRead(String result) {
+        Counter.builder("fitplan.plan.reads")
+                .description("Plan reads by whether they were answered with 304 Not Modified or a full body")
+                .tag("result", result)
+                .register(meterRegistry)
+                .increment();
+    }
 }
\ No newline at end of file
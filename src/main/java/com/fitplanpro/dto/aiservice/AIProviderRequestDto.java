@@ -0,0 +1,22 @@
+package com.fitplanpro.dto.aiservice;
+
+import com.fitplanpro.enums.PromptTemplateType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a rendered request to a single AI provider
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AIProviderRequestDto {
+    private PromptTemplateType templateType;
+    private String systemPrompt;
+    private String userPrompt;
+    private Integer maxTokens;
+    private Double temperature;
+}
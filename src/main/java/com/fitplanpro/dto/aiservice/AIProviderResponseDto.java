@@ -0,0 +1,22 @@
+package com.fitplanpro.dto.aiservice;
+
+import com.fitplanpro.enums.AIProvider;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for the raw completion returned by a single AI provider
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AIProviderResponseDto {
+    private AIProvider provider;
+    private String model;
+    private String content;
+    private Long promptTokens;
+    private Long completionTokens;
+}
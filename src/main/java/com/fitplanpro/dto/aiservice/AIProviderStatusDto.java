@@ -0,0 +1,25 @@
+package com.fitplanpro.dto.aiservice;
+
+import com.fitplanpro.enums.AIProvider;
+import com.fitplanpro.enums.CircuitState;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for AI provider circuit breaker and latency status
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AIProviderStatusDto {
+    private AIProvider provider;
+    private CircuitState state;
+    private Double failureRate;
+    private Double slowCallRate;
+    private Integer bufferedCalls;
+    private Long p50LatencyMs;
+    private Long p90LatencyMs;
+}
@@ -0,0 +1,23 @@
+package com.fitplanpro.dto.aiservice;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for a recorded AI provider exchange, stored as one JSON file per fingerprint
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AIRecordingDto {
+    private String fingerprint;
+    private AIProviderRequestDto request;
+    private AIProviderResponseDto response;
+    private Long latencyMs;
+    private LocalDateTime recordedAt;
+}
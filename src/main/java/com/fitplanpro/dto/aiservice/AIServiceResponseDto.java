@@ -20,4 +20,5 @@ public class AIServiceResponseDto {
     private Long processingTimeMs;
     private Boolean fromCache;
     private String cacheKey;
+    private Double estimatedCost;
 }
@@ -0,0 +1,23 @@
+package com.fitplanpro.dto.aiservice;
+
+import com.fitplanpro.enums.AIProvider;
+import com.fitplanpro.enums.CircuitState;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for an AI provider circuit breaker state transition
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CircuitTransitionDto {
+    private AIProvider provider;
+    private CircuitState state;
+    private LocalDateTime timestamp;
+}
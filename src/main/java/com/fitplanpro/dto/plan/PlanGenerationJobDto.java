@@ -0,0 +1,29 @@
+package com.fitplanpro.dto.plan;
+
+import com.fitplanpro.enums.PlanJobStatus;
+import com.fitplanpro.enums.PlanType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for asynchronous plan generation job status
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanGenerationJobDto {
+    private String jobId;
+    private PlanJobStatus status;
+    private PlanType planType;
+    private Long profileId;
+    private PlanGenerationResultDto result;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,63 @@
+package com.fitplanpro.dto.plan;
+
+import com.fitplanpro.enums.PlanType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for what a conditional plan read needs without loading the plan: its ETag,
+ * its type and expiry, and the number of meal and workout days it holds
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanVersionDto {
+    private String eTag;
+    private PlanType planType;
+    private LocalDateTime expiryTime;
+    private int mealDays;
+    private int workoutDays;
+
+    /**
+     * Check whether the plan has a meal plan
+     *
+     * @return true for meal and combined plans
+     */
+    public boolean hasMealPlan() {
+        return planType == PlanType.MEAL_PLAN || planType == PlanType.COMBINED_PLAN;
+    }
+
+    /**
+     * Check whether the plan has a workout plan
+     *
+     * @return true for workout and combined plans
+     */
+    public boolean hasWorkoutPlan() {
+        return planType == PlanType.WORKOUT_PLAN || planType == PlanType.COMBINED_PLAN;
+    }
+
+    /**
+     * Check whether the plan has a meal plan day. Days are numbered from 1.
+     *
+     * @param day the day number
+     * @return true if the day exists
+     */
+    public boolean hasMealDay(int day) {
+        return hasMealPlan() && day >= 1 && day <= mealDays;
+    }
+
+    /**
+     * Check whether the plan has a workout day. Days are numbered from 1.
+     *
+     * @param day the day number
+     * @return true if the day exists
+     */
+    public boolean hasWorkoutDay(int day) {
+        return hasWorkoutPlan() && day >= 1 && day <= workoutDays;
+    }
+}
@@ -0,0 +1,26 @@
+package com.fitplanpro.dto.plan;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO for the typed content of a plan, materialized once when the plan is saved
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlanViewDto {
+    private Integer dailyCalories;
+    private MacroSplitDto macros;
+    private List<DailyMealPlanDto> dailyPlans;
+    private String focus;
+    private String recommendedEquipment;
+    private List<DailyWorkoutDto> weeklySchedule;
+    private Map<String, Object> recommendations;
+}
@@ -14,6 +14,8 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class AuthResponseDto {
     private String token;
+    private String refreshToken;
+    private Long expiresIn;
     private UserDto user;
     private boolean hasProfile;
 }
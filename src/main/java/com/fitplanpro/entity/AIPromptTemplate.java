@@ -1,6 +1,7 @@
 package com.fitplanpro.entity;
 
 import com.fitplanpro.enums.PromptTemplateType;
+import com.fitplanpro.service.PromptTemplateChangeListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -11,6 +12,7 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "ai_prompt_templates")
+@EntityListeners(PromptTemplateChangeListener.class)
 @Data
 @Builder
 @NoArgsConstructor
@@ -0,0 +1,73 @@
+package com.fitplanpro.entity;
+
+import com.fitplanpro.enums.PromptTemplateType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "ai_usage_rollups")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AIUsageRollup {
+
+    // IDs come from the sequence in blocks, so the rollup writer's inserts can be batched
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ai_usage_rollups_id_seq")
+    @SequenceGenerator(name = "ai_usage_rollups_id_seq", sequenceName = "ai_usage_rollups_id_seq", allocationSize = 100)
+    private Long id;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDateTime periodStart;
+
+    @Column(name = "period_end", nullable = false)
+    private LocalDateTime periodEnd;
+
+    @Column(name = "model_name", nullable = false)
+    private String modelName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "template_type", nullable = false)
+    private PromptTemplateType templateType;
+
+    @Column(name = "request_count", nullable = false)
+    private Long requestCount;
+
+    @Column(name = "cache_hits", nullable = false)
+    private Long cacheHits;
+
+    @Column(name = "fallbacks", nullable = false)
+    private Long fallbacks;
+
+    @Column(name = "errors", nullable = false)
+    private Long errors;
+
+    @Column(name = "prompt_tokens", nullable = false)
+    private Long promptTokens;
+
+    @Column(name = "completion_tokens", nullable = false)
+    private Long completionTokens;
+
+    @Column(name = "total_latency_ms", nullable = false)
+    private Long totalLatencyMs;
+
+    @Column(name = "p50_latency_ms")
+    private Long p50LatencyMs;
+
+    @Column(name = "p95_latency_ms")
+    private Long p95LatencyMs;
+
+    @Column(name = "estimated_cost", nullable = false)
+    private Double estimatedCost;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    @CreationTimestamp
+    private LocalDateTime createdAt;
+}
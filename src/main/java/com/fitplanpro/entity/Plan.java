@@ -28,6 +28,9 @@ public class Plan {
     @Column(name = "profile_hash", nullable = false)
     private String profileHash;
 
+    @Column(name = "cohort_key", length = 64)
+    private String cohortKey;
+
     @Enumerated(EnumType.STRING)
     @Column(name = "plan_type", nullable = false)
     private PlanType planType;
@@ -36,6 +39,12 @@ public class Plan {
     @JdbcTypeCode(SqlTypes.JSON)
     private Map<String, Object> planData;
 
+    @Column(name = "plan_view")
+    private byte[] planView;
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
     @Column(name = "ai_model_used")
     private String aiModelUsed;
 
@@ -48,6 +57,13 @@ public class Plan {
     @Column(name = "similarity_score")
     private Float similarityScore;
 
+    @Column(name = "source_plan_id")
+    private Long sourcePlanId;
+
+    // Pre-generated for a profile cluster rather than requested by the profile's user
+    @Column(name = "seed", nullable = false)
+    private boolean seed;
+
     @PrePersist
     protected void onCreate() {
         generationTime = LocalDateTime.now();
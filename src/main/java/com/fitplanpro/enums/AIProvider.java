@@ -0,0 +1,11 @@
+package com.fitplanpro.enums;
+
+// AI providers
+public enum AIProvider {
+    OPENAI,
+    CLAUDE;
+
+    public AIProvider other() {
+        return this == OPENAI ? CLAUDE : OPENAI;
+    }
+}
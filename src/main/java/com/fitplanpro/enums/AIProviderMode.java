@@ -0,0 +1,8 @@
+package com.fitplanpro.enums;
+
+// AI provider modes
+public enum AIProviderMode {
+    LIVE,
+    RECORD,
+    REPLAY
+}
@@ -0,0 +1,8 @@
+package com.fitplanpro.enums;
+
+// Circuit breaker states
+public enum CircuitState {
+    CLOSED,
+    HALF_OPEN,
+    OPEN
+}
@@ -0,0 +1,10 @@
+package com.fitplanpro.enums;
+
+// Latency distributions injected by replayed AI providers
+public enum LatencyDistribution {
+    NONE,
+    FIXED,
+    UNIFORM,
+    LOG_NORMAL,
+    RECORDED
+}
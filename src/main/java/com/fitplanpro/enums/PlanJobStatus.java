@@ -0,0 +1,13 @@
+package com.fitplanpro.enums;
+
+// Plan generation job statuses
+public enum PlanJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED;
+
+    public boolean isTerminal() {
+        return this == COMPLETED || this == FAILED;
+    }
+}
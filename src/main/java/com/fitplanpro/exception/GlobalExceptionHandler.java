@@ -3,10 +3,12 @@ package com.fitplanpro.exception;
 import com.fitplanpro.dto.common.ApiResponseDto;
 import com.fitplanpro.dto.common.ErrorResponseDto;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -71,7 +73,8 @@ public class GlobalExceptionHandler {
     /**
      * Handle authentication exceptions
      */
-    @ExceptionHandler({AuthenticationException.class, BadCredentialsException.class})
+    @ExceptionHandler({AuthenticationException.class, BadCredentialsException.class,
+            com.fitplanpro.exception.AuthenticationException.class})
     @ResponseStatus(HttpStatus.UNAUTHORIZED)
     public ResponseEntity<ApiResponseDto<ErrorResponseDto>> handleAuthenticationException(
             Exception ex, WebRequest request) {
@@ -97,6 +100,21 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
     }
 
+    /**
+     * Handle authentication failures caused by something other than the credentials
+     */
+    @ExceptionHandler(InternalAuthenticationServiceException.class)
+    public ResponseEntity<ApiResponseDto<ErrorResponseDto>> handleInternalAuthenticationServiceException(
+            InternalAuthenticationServiceException ex, WebRequest request) {
+
+        // A saturated password hashing pool surfaces wrapped by the authentication provider
+        if (ex.getCause() instanceof TooManyRequestsException tooManyRequests) {
+            return handleTooManyRequestsException(tooManyRequests, request);
+        }
+
+        return handleAuthenticationException(ex, request);
+    }
+
     /**
      * Handle access denied exceptions
      */
@@ -126,4 +144,93 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
     }
 
-}
\ No newline at end of file
+    /**
+     * Handle plans, or parts of plans, that do not exist
+     */
+    @ExceptionHandler(PlanNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ResponseEntity<ApiResponseDto<ErrorResponseDto>> handlePlanNotFoundException(
+            PlanNotFoundException ex, WebRequest request) {
+
+        String path = ((ServletWebRequest) request).getRequest().getRequestURI();
+
+        ErrorResponseDto errorResponse = ErrorResponseDto.builder()
+                .timestamp(LocalDateTime.now().format(FORMATTER))
+                .status(HttpStatus.NOT_FOUND.value())
+                .error("Not Found")
+                .message("Plan not found")
+                .path(path)
+                .build();
+
+        ApiResponseDto<ErrorResponseDto> response = ApiResponseDto.<ErrorResponseDto>builder()
+                .success(false)
+                .message("Plan not found")
+                .data(errorResponse)
+                .build();
+
+        log.debug("Plan not found: {}", path);
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    }
+
+    /**
+     * Handle profiles that do not exist or do not belong to the current user
+     */
+    @ExceptionHandler(ProfileNotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ResponseEntity<ApiResponseDto<ErrorResponseDto>> handleProfileNotFoundException(
+            ProfileNotFoundException ex, WebRequest request) {
+
+        String path = ((ServletWebRequest) request).getRequest().getRequestURI();
+
+        ErrorResponseDto errorResponse = ErrorResponseDto.builder()
+                .timestamp(LocalDateTime.now().format(FORMATTER))
+                .status(HttpStatus.NOT_FOUND.value())
+                .error("Not Found")
+                .message("Profile not found")
+                .path(path)
+                .build();
+
+        ApiResponseDto<ErrorResponseDto> response = ApiResponseDto.<ErrorResponseDto>builder()
+                .success(false)
+                .message("Profile not found")
+                .data(errorResponse)
+                .build();
+
+        log.debug("Profile not found: {}", path);
+
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    }
+
+    /**
+     * Handle rejected work on bounded resources
+     */
+    @ExceptionHandler(TooManyRequestsException.class)
+    @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+    public ResponseEntity<ApiResponseDto<ErrorResponseDto>> handleTooManyRequestsException(
+            TooManyRequestsException ex, WebRequest request) {
+
+        String path = ((ServletWebRequest) request).getRequest().getRequestURI();
+
+        ErrorResponseDto errorResponse = ErrorResponseDto.builder()
+                .timestamp(LocalDateTime.now().format(FORMATTER))
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .error("Too Many Requests")
+                .message(ex.getMessage())
+                .path(path)
+                .build();
+
+        ApiResponseDto<ErrorResponseDto> response = ApiResponseDto.<ErrorResponseDto>builder()
+                .success(false)
+                .message(ex.getMessage())
+                .data(errorResponse)
+                .build();
+
+        log.warn("Request rejected: {}", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(response);
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.fitplanpro.exception;
+
+/**
+ * Exception thrown when a bounded resource rejects work and the client should retry later
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    public TooManyRequestsException(String message) {
+        super(message);
+    }
+
+    public TooManyRequestsException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
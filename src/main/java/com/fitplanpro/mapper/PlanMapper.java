@@ -3,6 +3,8 @@ package com.fitplanpro.mapper;
 
 import com.fitplanpro.dto.plan.*;
 import com.fitplanpro.entity.Plan;
+import com.fitplanpro.repository.PlanSummaryProjection;
+import com.fitplanpro.repository.PlanViewProjection;
 import org.mapstruct.*;
 
 import java.util.List;
@@ -19,6 +21,14 @@ public interface PlanMapper {
      */
     PlanSummaryDto toSummaryDto(Plan plan);
 
+    /**
+     * Convert a plan summary projection to PlanSummaryDto
+     *
+     * @param plan the projection to convert
+     * @return the summary DTO
+     */
+    PlanSummaryDto toSummaryDto(PlanSummaryProjection plan);
+
     /**
      * Convert Plan entity to MealPlanDto
      *
@@ -53,12 +63,41 @@ public interface PlanMapper {
     CombinedPlanDto toCombinedPlanDto(Plan plan);
 
     /**
-     * Convert a list of Plan entities to a list of PlanSummaryDtos
+     * Convert a plan projection and its materialized view to MealPlanDto
+     *
+     * @param plan the plan projection
+     * @param planView the plan view
+     * @return the meal plan DTO
+     */
+    MealPlanDto toMealPlanDto(PlanViewProjection plan, PlanViewDto planView);
+
+    /**
+     * Convert a plan projection and its materialized view to WorkoutPlanDto
      *
-     * @param plans the list of entities
+     * @param plan the plan projection
+     * @param planView the plan view
+     * @return the workout plan DTO
+     */
+    WorkoutPlanDto toWorkoutPlanDto(PlanViewProjection plan, PlanViewDto planView);
+
+    /**
+     * Convert a plan projection and its materialized view to CombinedPlanDto
+     *
+     * @param plan the plan projection
+     * @param planView the plan view
+     * @return the combined plan DTO
+     */
+    @Mapping(target = "mealPlan", ignore = true)
+    @Mapping(target = "workoutPlan", ignore = true)
+    CombinedPlanDto toCombinedPlanDto(PlanViewProjection plan, PlanViewDto planView);
+
+    /**
+     * Convert a list of plan summary projections to a list of PlanSummaryDtos
+     *
+     * @param plans the list of projections
      * @return the list of summary DTOs
      */
-    List<PlanSummaryDto> toSummaryDtoList(List<Plan> plans);
+    List<PlanSummaryDto> toSummaryDtoList(List<PlanSummaryProjection> plans);
 
     /**
      * Process meal plan data from JSON to structured DTO
@@ -100,51 +139,7 @@ public interface PlanMapper {
             @SuppressWarnings("unchecked")
             List<Map<String, Object>> dailyPlansData = (List<Map<String, Object>>) planData.get("daily_plans");
 
-            List<DailyMealPlanDto> dailyPlans = dailyPlansData.stream().map(dailyPlanData -> {
-                Integer day = (Integer) dailyPlanData.get("day");
-                Integer totalCalories = (Integer) dailyPlanData.get("total_calories");
-
-                // Process meals
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> mealsData = (List<Map<String, Object>>) dailyPlanData.get("meals");
-
-                List<MealDto> meals = mealsData.stream().map(mealData -> {
-                    @SuppressWarnings("unchecked")
-                    List<String> ingredients = (List<String>) mealData.get("ingredients");
-
-                    @SuppressWarnings("unchecked")
-                    Map<String, Integer> macros = (Map<String, Integer>) mealData.get("macros");
-
-                    return MealDto.builder()
-                            .mealNumber((Integer) mealData.get("meal_number"))
-                            .name((String) mealData.get("name"))
-                            .ingredients(ingredients)
-                            .preparation((String) mealData.get("preparation"))
-                            .calories((Integer) mealData.get("calories"))
-                            .macros(macros)
-                            .build();
-                }).toList();
-
-                // Process total macros
-                @SuppressWarnings("unchecked")
-                Map<String, Object> totalMacrosData = (Map<String, Object>) dailyPlanData.get("total_macros");
-
-                MacroSplitDto totalMacros = MacroSplitDto.builder()
-                        .proteinPercentage((Integer) totalMacrosData.get("protein_percentage"))
-                        .carbsPercentage((Integer) totalMacrosData.get("carbs_percentage"))
-                        .fatsPercentage((Integer) totalMacrosData.get("fats_percentage"))
-                        .proteinGrams((Integer) totalMacrosData.get("protein_grams"))
-                        .carbsGrams((Integer) totalMacrosData.get("carbs_grams"))
-                        .fatsGrams((Integer) totalMacrosData.get("fats_grams"))
-                        .build();
-
-                return DailyMealPlanDto.builder()
-                        .day(day)
-                        .meals(meals)
-                        .totalCalories(totalCalories)
-                        .totalMacros(totalMacros)
-                        .build();
-            }).toList();
+            List<DailyMealPlanDto> dailyPlans = dailyPlansData.stream().map(this::toDailyMealPlanDto).toList();
 
             mealPlanDto.setDailyPlans(dailyPlans);
         }
@@ -179,41 +174,101 @@ public interface PlanMapper {
             @SuppressWarnings("unchecked")
             List<Map<String, Object>> weeklyScheduleData = (List<Map<String, Object>>) planData.get("weekly_schedule");
 
-            List<DailyWorkoutDto> weeklySchedule = weeklyScheduleData.stream().map(dailyWorkoutData -> {
-                Integer day = (Integer) dailyWorkoutData.get("day");
-                String focus = (String) dailyWorkoutData.get("focus");
-                Integer estimatedDuration = (Integer) dailyWorkoutData.get("estimated_duration");
-                String warmup = (String) dailyWorkoutData.get("warmup");
-                String cooldown = (String) dailyWorkoutData.get("cooldown");
-
-                // Process exercises
-                @SuppressWarnings("unchecked")
-                List<Map<String, Object>> exercisesData = (List<Map<String, Object>>) dailyWorkoutData.get("exercises");
-
-                List<ExerciseDto> exercises = exercisesData.stream().map(exerciseData -> {
-                    return ExerciseDto.builder()
-                            .name((String) exerciseData.get("name"))
-                            .sets((Integer) exerciseData.get("sets"))
-                            .reps((String) exerciseData.get("reps"))
-                            .restSeconds((Integer) exerciseData.get("rest_seconds"))
-                            .notes((String) exerciseData.get("notes"))
-                            .alternativeExercise((String) exerciseData.get("alternative_exercise"))
-                            .build();
-                }).toList();
-
-                return DailyWorkoutDto.builder()
-                        .day(day)
-                        .focus(focus)
-                        .exercises(exercises)
-                        .estimatedDuration(estimatedDuration)
-                        .warmup(warmup)
-                        .cooldown(cooldown)
-                        .build();
-            }).toList();
+            List<DailyWorkoutDto> weeklySchedule = weeklyScheduleData.stream().map(this::toDailyWorkoutDto).toList();
 
             workoutPlanDto.setWeeklySchedule(weeklySchedule);
         }
 
         return workoutPlanDto;
     }
-}
\ No newline at end of file
+
+    /**
+     * Convert one daily_plans entry of meal plan JSON to a structured DTO
+     *
+     * @param dailyPlanData the JSON daily plan
+     * @return the daily meal plan DTO
+     */
+    default DailyMealPlanDto toDailyMealPlanDto(Map<String, Object> dailyPlanData) {
+        Integer day = (Integer) dailyPlanData.get("day");
+        Integer totalCalories = (Integer) dailyPlanData.get("total_calories");
+
+        // Process meals
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> mealsData = (List<Map<String, Object>>) dailyPlanData.get("meals");
+
+        List<MealDto> meals = mealsData.stream().map(mealData -> {
+            @SuppressWarnings("unchecked")
+            List<String> ingredients = (List<String>) mealData.get("ingredients");
+
+            @SuppressWarnings("unchecked")
+            Map<String, Integer> macros = (Map<String, Integer>) mealData.get("macros");
+
+            return MealDto.builder()
+                    .mealNumber((Integer) mealData.get("meal_number"))
+                    .name((String) mealData.get("name"))
+                    .ingredients(ingredients)
+                    .preparation((String) mealData.get("preparation"))
+                    .calories((Integer) mealData.get("calories"))
+                    .macros(macros)
+                    .build();
+        }).toList();
+
+        // Process total macros
+        @SuppressWarnings("unchecked")
+        Map<String, Object> totalMacrosData = (Map<String, Object>) dailyPlanData.get("total_macros");
+
+        MacroSplitDto totalMacros = MacroSplitDto.builder()
+                .proteinPercentage((Integer) totalMacrosData.get("protein_percentage"))
+                .carbsPercentage((Integer) totalMacrosData.get("carbs_percentage"))
+                .fatsPercentage((Integer) totalMacrosData.get("fats_percentage"))
+                .proteinGrams((Integer) totalMacrosData.get("protein_grams"))
+                .carbsGrams((Integer) totalMacrosData.get("carbs_grams"))
+                .fatsGrams((Integer) totalMacrosData.get("fats_grams"))
+                .build();
+
+        return DailyMealPlanDto.builder()
+                .day(day)
+                .meals(meals)
+                .totalCalories(totalCalories)
+                .totalMacros(totalMacros)
+                .build();
+    }
+
+    /**
+     * Convert one weekly_schedule entry of workout plan JSON to a structured DTO
+     *
+     * @param dailyWorkoutData the JSON daily workout
+     * @return the daily workout DTO
+     */
+    default DailyWorkoutDto toDailyWorkoutDto(Map<String, Object> dailyWorkoutData) {
+        Integer day = (Integer) dailyWorkoutData.get("day");
+        String focus = (String) dailyWorkoutData.get("focus");
+        Integer estimatedDuration = (Integer) dailyWorkoutData.get("estimated_duration");
+        String warmup = (String) dailyWorkoutData.get("warmup");
+        String cooldown = (String) dailyWorkoutData.get("cooldown");
+
+        // Process exercises
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> exercisesData = (List<Map<String, Object>>) dailyWorkoutData.get("exercises");
+
+        List<ExerciseDto> exercises = exercisesData.stream().map(exerciseData -> {
+            return ExerciseDto.builder()
+                    .name((String) exerciseData.get("name"))
+                    .sets((Integer) exerciseData.get("sets"))
+                    .reps((String) exerciseData.get("reps"))
+                    .restSeconds((Integer) exerciseData.get("rest_seconds"))
+                    .notes((String) exerciseData.get("notes"))
+                    .alternativeExercise((String) exerciseData.get("alternative_exercise"))
+                    .build();
+        }).toList();
+
+        return DailyWorkoutDto.builder()
+                .day(day)
+                .focus(focus)
+                .exercises(exercises)
+                .estimatedDuration(estimatedDuration)
+                .warmup(warmup)
+                .cooldown(cooldown)
+                .build();
+    }
+}
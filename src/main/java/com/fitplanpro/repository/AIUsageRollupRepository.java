@@ -0,0 +1,26 @@
+package com.fitplanpro.repository;
+
+import com.fitplanpro.entity.AIUsageRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface AIUsageRollupRepository extends JpaRepository<AIUsageRollup, Long> {
+
+    /**
+     * Delete rollups for periods that ended before a cutoff
+     *
+     * @param cutoff the cutoff time
+     * @return the number of deleted rollups
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AIUsageRollup r WHERE r.periodEnd < :cutoff")
+    int deleteEndedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
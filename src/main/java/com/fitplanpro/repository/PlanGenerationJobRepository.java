@@ -0,0 +1,121 @@
+package com.fitplanpro.repository;
+
+import com.fitplanpro.entity.PlanGenerationJob;
+import com.fitplanpro.enums.PlanJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PlanGenerationJobRepository extends JpaRepository<PlanGenerationJob, String> {
+
+    /**
+     * Find a job owned by a user
+     *
+     * @param id the job ID
+     * @param userId the owning user ID
+     * @return an Optional containing the job if found
+     */
+    Optional<PlanGenerationJob> findByIdAndUserId(String id, Long userId);
+
+    /**
+     * Find the oldest jobs with a status
+     *
+     * @param status the job status
+     * @return up to 100 jobs, oldest first
+     */
+    List<PlanGenerationJob> findTop100ByStatusOrderByCreatedAtAsc(PlanJobStatus status);
+
+    /**
+     * Atomically claim a pending job so that only one worker runs it
+     *
+     * @param id the job ID
+     * @param pending the pending status
+     * @param running the running status
+     * @param startedAt the start time
+     * @return 1 if the job was claimed, 0 if another worker already has it
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PlanGenerationJob j SET j.status = :running, j.startedAt = :startedAt, " +
+            "j.heartbeatAt = :startedAt, j.attempts = j.attempts + 1 WHERE j.id = :id AND j.status = :pending")
+    int claim(@Param("id") String id,
+              @Param("pending") PlanJobStatus pending,
+              @Param("running") PlanJobStatus running,
+              @Param("startedAt") LocalDateTime startedAt);
+
+    /**
+     * Record that running jobs are still alive
+     *
+     * @param ids the IDs of the jobs running on this node
+     * @param running the running status
+     * @param heartbeatAt the heartbeat time
+     * @return the number of updated jobs
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PlanGenerationJob j SET j.heartbeatAt = :heartbeatAt WHERE j.id IN :ids AND j.status = :running")
+    int heartbeat(@Param("ids") Collection<String> ids,
+                  @Param("running") PlanJobStatus running,
+                  @Param("heartbeatAt") LocalDateTime heartbeatAt);
+
+    /**
+     * Put running jobs that stopped making progress back in the queue
+     *
+     * @param running the running status
+     * @param pending the pending status
+     * @param cutoff jobs without a heartbeat since this time are considered abandoned
+     * @param maxAttempts jobs with this many attempts are not requeued
+     * @return the number of requeued jobs
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PlanGenerationJob j SET j.status = :pending, j.startedAt = NULL, j.heartbeatAt = NULL " +
+            "WHERE j.status = :running AND j.heartbeatAt < :cutoff AND j.attempts < :maxAttempts")
+    int requeueStale(@Param("running") PlanJobStatus running,
+                     @Param("pending") PlanJobStatus pending,
+                     @Param("cutoff") LocalDateTime cutoff,
+                     @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * Fail abandoned running jobs that have used up their attempts
+     *
+     * @param running the running status
+     * @param failed the failed status
+     * @param cutoff jobs without a heartbeat since this time are considered abandoned
+     * @param maxAttempts jobs with at least this many attempts are failed
+     * @param completedAt the completion time
+     * @param errorMessage the error message to record
+     * @return the number of failed jobs
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PlanGenerationJob j SET j.status = :failed, j.completedAt = :completedAt, " +
+            "j.errorMessage = :errorMessage " +
+            "WHERE j.status = :running AND j.heartbeatAt < :cutoff AND j.attempts >= :maxAttempts")
+    int failStale(@Param("running") PlanJobStatus running,
+                  @Param("failed") PlanJobStatus failed,
+                  @Param("cutoff") LocalDateTime cutoff,
+                  @Param("maxAttempts") int maxAttempts,
+                  @Param("completedAt") LocalDateTime completedAt,
+                  @Param("errorMessage") String errorMessage);
+
+    /**
+     * Delete finished jobs completed before the given time
+     *
+     * @param cutoff the completion cutoff
+     * @return the number of deleted jobs
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PlanGenerationJob j WHERE j.completedAt < :cutoff")
+    int deleteCompletedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
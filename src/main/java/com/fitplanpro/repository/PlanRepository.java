@@ -2,11 +2,13 @@ package com.fitplanpro.repository;
 
 import com.fitplanpro.entity.Plan;
 import com.fitplanpro.enums.PlanType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -32,54 +34,112 @@ public interface PlanRepository extends JpaRepository<Plan, Long> {
     List<Plan> findByProfileHashAndPlanType(String profileHash, PlanType planType);
 
     /**
-     * Find the most recent plan for a profile hash and plan type
+     * Find the most recent plan for a profile hash and plan type, excluding seed plans
      *
      * @param profileHash the profile hash to search for
      * @param planType the plan type to filter by
      * @return an Optional containing the most recent plan if found
      */
-    Optional<Plan> findTopByProfileHashAndPlanTypeOrderByGenerationTimeDesc(
+    Optional<Plan> findTopByProfileHashAndPlanTypeAndSeedFalseOrderByGenerationTimeDesc(
             String profileHash, PlanType planType);
 
     /**
-     * Find similar plans with high similarity scores
+     * Find the columns needed for a typed plan read, without loading the raw plan data
      *
-     * @param gender the gender parameter
-     * @param ageMin minimum age range
-     * @param ageMax maximum age range
-     * @param goalType the goal type
-     * @param weightMin minimum weight range
-     * @param weightMax maximum weight range
-     * @param heightMin minimum height range
-     * @param heightMax maximum height range
-     * @param planType the plan type
-     * @return a list of matching plans with high similarity
+     * @param id the plan ID
+     * @return an Optional containing the projection if found
      */
-    @Query(value = "SELECT p.* FROM plans p " +
-            "JOIN user_profiles up ON p.profile_hash = up.profile_hash " +
-            "WHERE up.gender = :gender " +
-            "AND up.age BETWEEN :ageMin AND :ageMax " +
-            "AND up.goal_type = :goalType " +
-            "AND up.current_weight BETWEEN :weightMin AND :weightMax " +
-            "AND up.height BETWEEN :heightMin AND :heightMax " +
-            "AND p.plan_type = :planType " +
-            "AND p.similarity_score > 0.80 " +
-            "ORDER BY p.similarity_score DESC, " +
-            "ABS(up.current_weight - :targetWeight) ASC, " +
-            "ABS(up.age - :targetAge) ASC " +
-            "LIMIT 3", nativeQuery = true)
-    List<Plan> findSimilarPlans(
-            @Param("gender") String gender,
-            @Param("ageMin") int ageMin,
-            @Param("ageMax") int ageMax,
-            @Param("goalType") String goalType,
-            @Param("weightMin") float weightMin,
-            @Param("weightMax") float weightMax,
-            @Param("heightMin") float heightMin,
-            @Param("heightMax") float heightMax,
-            @Param("planType") String planType,
-            @Param("targetWeight") float targetWeight,
-            @Param("targetAge") int targetAge);
+    @Query("SELECT p.id AS id, p.planType AS planType, p.profileHash AS profileHash, " +
+            "p.generationTime AS generationTime, p.expiryTime AS expiryTime, p.planView AS planView " +
+            "FROM Plan p WHERE p.id = :id")
+    Optional<PlanViewProjection> findViewById(@Param("id") Long id);
+
+    /**
+     * Find summaries of the active plans of all of a user's profiles in one query
+     *
+     * @param userId the user ID
+     * @param currentTime the current time
+     * @return list of plan summary projections, most recent first
+     */
+    @Query("SELECT p.id AS id, p.planType AS planType, p.profileHash AS profileHash, " +
+            "p.generationTime AS generationTime, p.expiryTime AS expiryTime, " +
+            "p.similarityScore AS similarityScore, p.aiModelUsed AS aiModelUsed " +
+            "FROM Plan p WHERE p.profileHash IN " +
+            "(SELECT up.profileHash FROM UserProfile up WHERE up.user.id = :userId) " +
+            "AND p.seed = false AND (p.expiryTime IS NULL OR p.expiryTime > :currentTime) " +
+            "ORDER BY p.generationTime DESC")
+    List<PlanSummaryProjection> findActiveSummariesByUserId(
+            @Param("userId") Long userId, @Param("currentTime") LocalDateTime currentTime);
+
+    /**
+     * Get what identifies a version of a plan. The row holds the content hash, empty if
+     * the plan was saved without one, the plan type, the expiry time, and the number of
+     * daily_plans and weekly_schedule entries.
+     *
+     * @param id the plan ID
+     * @return the matching row, or an empty list if the plan does not exist
+     */
+    @Query(value = "SELECT COALESCE(p.content_hash, ''), p.plan_type, p.expiry_time, " +
+            "jsonb_array_length(COALESCE(p.plan_data -> 'daily_plans', CAST('[]' AS jsonb))), " +
+            "jsonb_array_length(COALESCE(p.plan_data -> 'weekly_schedule', CAST('[]' AS jsonb))) " +
+            "FROM plans p WHERE p.id = :id", nativeQuery = true)
+    List<Object[]> findPlanVersion(@Param("id") Long id);
+
+    /**
+     * Extract the first element of a plan data array matching a JSON path, so only
+     * that element is read from the database
+     *
+     * @param id the plan ID
+     * @param path the JSON path, e.g. $.daily_plans[*] ? (@.day == 3)
+     * @return an Optional containing the element as JSON text, if the plan and element exist
+     */
+    @Query(value = "SELECT CAST(jsonb_path_query_first(p.plan_data, CAST(:path AS jsonpath)) AS TEXT) " +
+            "FROM plans p WHERE p.id = :id", nativeQuery = true)
+    Optional<String> findPlanDataElement(@Param("id") Long id, @Param("path") String path);
+
+    /**
+     * Get what is needed to map a calendar date to a plan day. The row holds the
+     * plan type, the days from the plan's generation date to the given date, and
+     * the number of daily_plans and weekly_schedule entries.
+     *
+     * @param id the plan ID
+     * @param date the calendar date
+     * @return the matching row, or an empty list if the plan does not exist
+     */
+    @Query(value = "SELECT p.plan_type, CAST(:date AS DATE) - CAST(p.generation_time AS DATE), " +
+            "jsonb_array_length(COALESCE(p.plan_data -> 'daily_plans', CAST('[]' AS jsonb))), " +
+            "jsonb_array_length(COALESCE(p.plan_data -> 'weekly_schedule', CAST('[]' AS jsonb))) " +
+            "FROM plans p WHERE p.id = :id", nativeQuery = true)
+    List<Object[]> findPlanCalendar(@Param("id") Long id, @Param("date") LocalDate date);
+
+    /**
+     * Find the most recent unexpired plan for a cohort key and plan type
+     *
+     * @param cohortKey the cohort key to search for
+     * @param planType the plan type to filter by
+     * @param currentTime the current time to compare against expiry time
+     * @return the most recent matching plan
+     */
+    Optional<Plan> findTopByCohortKeyAndPlanTypeAndExpiryTimeAfterOrderByGenerationTimeDesc(
+            String cohortKey, PlanType planType, LocalDateTime currentTime);
+
+    /**
+     * Find the profile features of generated (not adapted) plans in ID order, for the plan similarity index.
+     * Each row holds the plan ID, plan type, expiry time, and the gender, goal type,
+     * age, current weight, height, target weight, days per week, diet preference,
+     * food allergies, medical conditions and available equipment of the profile
+     * the plan was generated for.
+     *
+     * @param afterId only plans with a greater ID are returned
+     * @param pageable the batch size
+     * @return the feature rows
+     */
+    @Query("SELECT p.id, p.planType, p.expiryTime, up.gender, up.goalType, up.age, " +
+            "up.currentWeight, up.height, up.targetWeight, up.daysPerWeek, " +
+            "up.dietPreference, up.foodAllergies, up.medicalConditions, up.equipmentAvailable " +
+            "FROM Plan p JOIN UserProfile up ON up.profileHash = p.profileHash " +
+            "WHERE p.id > :afterId AND p.sourcePlanId IS NULL ORDER BY p.id")
+    List<Object[]> findProfileFeaturesAfter(@Param("afterId") Long afterId, Pageable pageable);
 
     /**
      * Find unexpired plans
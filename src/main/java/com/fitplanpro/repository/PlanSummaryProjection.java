@@ -0,0 +1,25 @@
+package com.fitplanpro.repository;
+
+import com.fitplanpro.enums.PlanType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Plan columns needed for a plan summary, without the raw plan data or view
+ */
+public interface PlanSummaryProjection {
+
+    Long getId();
+
+    PlanType getPlanType();
+
+    String getProfileHash();
+
+    LocalDateTime getGenerationTime();
+
+    LocalDateTime getExpiryTime();
+
+    Float getSimilarityScore();
+
+    String getAiModelUsed();
+}
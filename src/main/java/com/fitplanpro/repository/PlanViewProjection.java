@@ -0,0 +1,23 @@
+package com.fitplanpro.repository;
+
+import com.fitplanpro.enums.PlanType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Plan columns needed to serve a typed plan read, without the raw plan data
+ */
+public interface PlanViewProjection {
+
+    Long getId();
+
+    PlanType getPlanType();
+
+    String getProfileHash();
+
+    LocalDateTime getGenerationTime();
+
+    LocalDateTime getExpiryTime();
+
+    byte[] getPlanView();
+}
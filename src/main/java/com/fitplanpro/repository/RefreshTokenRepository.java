@@ -0,0 +1,61 @@
+package com.fitplanpro.repository;
+
+import com.fitplanpro.entity.RefreshToken;
+import com.fitplanpro.entity.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    /**
+     * Find a refresh token by the hash of its value
+     *
+     * @param tokenHash the SHA-256 hash of the token
+     * @return an Optional containing the refresh token if found
+     */
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    /**
+     * Revoke a refresh token if it is still active. Concurrent callers serialize
+     * on the row lock, so at most one of them sees an updated row.
+     *
+     * @param id the refresh token ID
+     * @param revokedAt the revocation time
+     * @param replacedByHash the hash of the replacement token, or null
+     * @return 1 if the token was revoked, 0 if it was already revoked
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.revokedAt = :revokedAt, rt.replacedByHash = :replacedByHash " +
+            "WHERE rt.id = :id AND rt.revokedAt IS NULL")
+    int revokeIfActive(@Param("id") Long id, @Param("revokedAt") LocalDateTime revokedAt,
+                       @Param("replacedByHash") String replacedByHash);
+
+    /**
+     * Revoke all active refresh tokens for a user
+     *
+     * @param user the user whose tokens to revoke
+     * @param revokedAt the revocation time
+     * @return the number of revoked tokens
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.revokedAt = :revokedAt " +
+            "WHERE rt.user = :user AND rt.revokedAt IS NULL")
+    int revokeAllByUser(@Param("user") User user, @Param("revokedAt") LocalDateTime revokedAt);
+
+    /**
+     * Delete refresh tokens that expired before the given time
+     *
+     * @param cutoff the expiry cutoff
+     * @return the number of deleted tokens
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken rt WHERE rt.expiresAt < :cutoff")
+    int deleteExpired(@Param("cutoff") LocalDateTime cutoff);
+}
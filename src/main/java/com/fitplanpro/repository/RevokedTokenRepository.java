@@ -0,0 +1,42 @@
+package com.fitplanpro.repository;
+
+import com.fitplanpro.entity.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    /**
+     * Find the IDs of revoked tokens that have not expired yet
+     *
+     * @param now the current time
+     * @return the token IDs
+     */
+    @Query("SELECT rt.tokenId FROM RevokedToken rt WHERE rt.expiresAt > :now")
+    List<String> findActiveTokenIds(@Param("now") LocalDateTime now);
+
+    /**
+     * Check if a token ID has been revoked
+     *
+     * @param tokenId the token ID
+     * @return true if revoked
+     */
+    boolean existsByTokenId(String tokenId);
+
+    /**
+     * Delete revocations for tokens that have already expired
+     *
+     * @param cutoff the expiry cutoff
+     * @return the number of deleted rows
+     */
+    @Modifying
+    @Query("DELETE FROM RevokedToken rt WHERE rt.expiresAt < :cutoff")
+    int deleteExpired(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -30,6 +30,15 @@ public interface UserProfileRepository extends JpaRepository<UserProfile, Long>
      */
     Optional<UserProfile> findByProfileHash(String profileHash);
 
+    /**
+     * Check whether a profile exists and belongs to a user
+     *
+     * @param id the profile ID
+     * @param userId the user ID
+     * @return true if the user owns the profile
+     */
+    boolean existsByIdAndUserId(Long id, Long userId);
+
     /**
      * Find similar profiles based on key parameters
      *
@@ -68,4 +77,84 @@ public interface UserProfileRepository extends JpaRepository<UserProfile, Long>
      * @return a list of matching profiles
      */
     List<UserProfile> findByLocationCultureContaining(String locationCulture);
+
+    /**
+     * Find the densest profile clusters, grouping profiles by gender, goal type,
+     * diet preference, normalized allergies, medical conditions and equipment,
+     * and age, weight and height bands
+     *
+     * @param ageBand the age band width
+     * @param weightBand the weight band width
+     * @param heightBand the height band width
+     * @param minSize the minimum number of profiles in a cluster
+     * @param limit the maximum number of clusters
+     * @return rows of gender, goal type, age band, weight band, height band, diet preference,
+     * normalized food allergies, medical conditions and equipment, and profile count, densest first
+     */
+    @Query(value = "SELECT up.gender, up.goal_type, " +
+            "FLOOR(up.age / :ageBand) AS age_band, " +
+            "FLOOR(up.current_weight / :weightBand) AS weight_band, " +
+            "FLOOR(up.height / :heightBand) AS height_band, " +
+            "up.diet_preference, " +
+            "normalize_list(up.food_allergies) AS allergies_key, " +
+            "normalize_list(up.medical_conditions) AS conditions_key, " +
+            "normalize_list(up.equipment_available) AS equipment_key, " +
+            "COUNT(*) AS profile_count " +
+            "FROM user_profiles up " +
+            "GROUP BY up.gender, up.goal_type, age_band, weight_band, height_band, " +
+            "up.diet_preference, allergies_key, conditions_key, equipment_key " +
+            "HAVING COUNT(*) >= :minSize " +
+            "ORDER BY profile_count DESC " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Object[]> findDensestClusters(
+            @Param("ageBand") int ageBand,
+            @Param("weightBand") float weightBand,
+            @Param("heightBand") float heightBand,
+            @Param("minSize") int minSize,
+            @Param("limit") int limit);
+
+    /**
+     * Find the profile closest to the center of a cluster
+     *
+     * @param gender the cluster gender
+     * @param goalType the cluster goal type
+     * @param ageMin the age band start (inclusive)
+     * @param ageMax the age band end (exclusive)
+     * @param weightMin the weight band start (inclusive)
+     * @param weightMax the weight band end (exclusive)
+     * @param heightMin the height band start (inclusive)
+     * @param heightMax the height band end (exclusive)
+     * @param dietPreference the cluster diet preference
+     * @param foodAllergies the cluster's normalized food allergies
+     * @param medicalConditions the cluster's normalized medical conditions
+     * @param equipmentAvailable the cluster's normalized equipment
+     * @return an Optional containing the most central profile if the cluster is not empty
+     */
+    @Query(value = "SELECT up.* FROM user_profiles up " +
+            "WHERE up.gender = :gender " +
+            "AND up.goal_type = :goalType " +
+            "AND up.diet_preference = :dietPreference " +
+            "AND normalize_list(up.food_allergies) = :foodAllergies " +
+            "AND normalize_list(up.medical_conditions) = :medicalConditions " +
+            "AND normalize_list(up.equipment_available) = :equipmentAvailable " +
+            "AND up.age >= :ageMin AND up.age < :ageMax " +
+            "AND up.current_weight >= :weightMin AND up.current_weight < :weightMax " +
+            "AND up.height >= :heightMin AND up.height < :heightMax " +
+            "ORDER BY ABS(up.age - (:ageMin + :ageMax) / 2.0) / 3.0 + " +
+            "ABS(up.current_weight - (:weightMin + :weightMax) / 2.0) / 8.0 + " +
+            "ABS(up.height - (:heightMin + :heightMax) / 2.0) / 8.0, up.id " +
+            "LIMIT 1", nativeQuery = true)
+    Optional<UserProfile> findClusterCenter(
+            @Param("gender") String gender,
+            @Param("goalType") String goalType,
+            @Param("ageMin") int ageMin,
+            @Param("ageMax") int ageMax,
+            @Param("weightMin") float weightMin,
+            @Param("weightMax") float weightMax,
+            @Param("heightMin") float heightMin,
+            @Param("heightMax") float heightMax,
+            @Param("dietPreference") String dietPreference,
+            @Param("foodAllergies") String foodAllergies,
+            @Param("medicalConditions") String medicalConditions,
+            @Param("equipmentAvailable") String equipmentAvailable);
 }
\ No newline at end of file
@@ -1,11 +1,13 @@
 package com.fitplanpro.security;
 
 import com.fitplanpro.dto.user.AuthResponseDto;
+import com.fitplanpro.dto.user.RefreshTokenRequestDto;
 import com.fitplanpro.dto.user.UserDto;
 import com.fitplanpro.dto.user.UserLoginDto;
 import com.fitplanpro.dto.user.UserRegistrationDto;
 import com.fitplanpro.entity.User;
 import com.fitplanpro.exception.AuthenticationException;
+import com.fitplanpro.exception.TooManyRequestsException;
 import com.fitplanpro.exception.UserAlreadyExistsException;
 import com.fitplanpro.mapper.UserMapper;
 import com.fitplanpro.repository.UserProfileRepository;
@@ -14,14 +16,17 @@ import com.fitplanpro.security.JwtTokenProvider;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Service for user authentication operations
@@ -37,98 +42,133 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
     private final AuthenticationManager authenticationManager;
+    private final LastActivityTracker lastActivityTracker;
+    private final RefreshTokenService refreshTokenService;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final TransactionTemplate transactionTemplate;
 
     /**
-     * Register a new user
+     * Register a new user. The password is hashed before any database
+     * connection is taken, on a virtual thread rather than the request thread.
      *
      * @param registrationDto the registration data
-     * @return authentication response with token and user data
+     * @return a future completed with the authentication response
      */
-    @Transactional
-    public AuthResponseDto register(UserRegistrationDto registrationDto) {
-        // Check if user already exists
-        if (userRepository.existsByEmail(registrationDto.getEmail())) {
-            throw new UserAlreadyExistsException("User with email " + registrationDto.getEmail() + " already exists");
-        }
+    public CompletableFuture<AuthResponseDto> register(UserRegistrationDto registrationDto) {
+        return passwordHashingExecutor.supplyAsync(() -> {
+            // Check if user already exists
+            checkNotRegistered(registrationDto);
 
-        if (registrationDto.getPhone() != null && userRepository.existsByPhone(registrationDto.getPhone())) {
-            throw new UserAlreadyExistsException("User with phone " + registrationDto.getPhone() + " already exists");
-        }
+            // Encode password
+            String passwordHash = passwordEncoder.encode(registrationDto.getPassword());
 
-        // Create new user
-        User user = userMapper.toEntity(registrationDto);
+            return transactionTemplate.execute(status -> {
+                // Check again, another registration may have completed while hashing
+                checkNotRegistered(registrationDto);
 
-        // Encode password
-        user.setPasswordHash(passwordEncoder.encode(registrationDto.getPassword()));
+                // Create new user
+                User user = userMapper.toEntity(registrationDto);
+                user.setPasswordHash(passwordHash);
 
-        // Set created date
-        user.setCreatedAt(LocalDateTime.now());
+                // Set created date
+                user.setCreatedAt(LocalDateTime.now());
 
-        // Save user
-        User savedUser = userRepository.save(user);
+                // Save user
+                User savedUser = userRepository.save(user);
 
-        // Generate JWT token
-        String token = jwtTokenProvider.createToken(savedUser.getEmail());
+                return createAuthResponse(savedUser, userMapper.toDto(savedUser));
+            });
+        });
+    }
 
-        // Convert to DTO
-        UserDto userDto = userMapper.toDto(savedUser);
+    /**
+     * Login a user. The password is verified before any write transaction is
+     * opened, on a virtual thread rather than the request thread.
+     *
+     * @param loginDto the login data
+     * @return a future completed with the authentication response
+     */
+    public CompletableFuture<AuthResponseDto> login(UserLoginDto loginDto) {
+        return passwordHashingExecutor.supplyAsync(() -> {
+            Authentication authentication;
+            try {
+                // Authenticate user
+                authentication = authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken(loginDto.getEmailOrPhone(), loginDto.getPassword())
+                );
+            } catch (InternalAuthenticationServiceException e) {
+                // The hashing pool was saturated, not a credentials problem
+                if (e.getCause() instanceof TooManyRequestsException tooManyRequests) {
+                    throw tooManyRequests;
+                }
+                throw new AuthenticationException("Invalid email/phone or password");
+            } catch (org.springframework.security.core.AuthenticationException e) {
+                throw new AuthenticationException("Invalid email/phone or password");
+            }
+
+            return transactionTemplate.execute(status -> {
+                // Get user
+                String email = authentication.getName();
+                User user = userRepository.findByEmail(email)
+                        .orElseThrow(() -> new AuthenticationException("User not found"));
+
+                // Record last login time; persisted by the write-behind tracker
+                lastActivityTracker.recordActivity(user.getId());
+
+                // Convert to DTO
+                UserDto userDto = userMapper.toDto(user);
+                userDto.setLastLogin(LocalDateTime.now());
+
+                return createAuthResponse(user, userDto);
+            });
+        });
+    }
+
+    /**
+     * Exchange a refresh token for a new access token. The refresh token is
+     * rotated, so the one presented can no longer be used.
+     *
+     * @param refreshDto the refresh token data
+     * @return authentication response with new tokens and user data
+     */
+    @Transactional(noRollbackFor = AuthenticationException.class)
+    public AuthResponseDto refresh(RefreshTokenRequestDto refreshDto) {
+        // Rotate refresh token
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshDto.getRefreshToken());
+        User user = rotation.user();
+
+        // Generate JWT access token
+        String token = jwtTokenProvider.createToken(user);
 
         // Check if user has a profile
-        boolean hasProfile = userProfileRepository.findTopByUserOrderByCreatedAtDesc(savedUser).isPresent();
+        boolean hasProfile = userProfileRepository.findTopByUserOrderByCreatedAtDesc(user).isPresent();
 
         // Return authentication response
         return AuthResponseDto.builder()
                 .token(token)
-                .user(userDto)
+                .refreshToken(rotation.refreshToken())
+                .expiresIn(jwtTokenProvider.getValidityInSeconds())
+                .user(userMapper.toDto(user))
                 .hasProfile(hasProfile)
                 .build();
     }
 
     /**
-     * Login a user
+     * Logout: revoke the refresh token and the current access token. The
+     * refresh token must belong to the user the access token was issued to.
      *
-     * @param loginDto the login data
-     * @return authentication response with token and user data
+     * @param refreshDto the refresh token data
+     * @param accessToken the current access token
      */
     @Transactional
-    public AuthResponseDto login(UserLoginDto loginDto) {
-        try {
-            // Authenticate user
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(loginDto.getEmailOrPhone(), loginDto.getPassword())
-            );
-
-            // Set authentication in security context
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-
-            // Get user
-            String email = authentication.getName();
-            User user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new AuthenticationException("User not found"));
-
-            // Update last login time
-            user.setLastLogin(LocalDateTime.now());
-            userRepository.save(user);
-
-            // Generate JWT token
-            String token = jwtTokenProvider.createToken(email);
-
-            // Convert to DTO
-            UserDto userDto = userMapper.toDto(user);
-
-            // Check if user has a profile
-            boolean hasProfile = userProfileRepository.findTopByUserOrderByCreatedAtDesc(user).isPresent();
-
-            // Return authentication response
-            return AuthResponseDto.builder()
-                    .token(token)
-                    .user(userDto)
-                    .hasProfile(hasProfile)
-                    .build();
-
-        } catch (org.springframework.security.core.AuthenticationException e) {
-            throw new AuthenticationException("Invalid email/phone or password");
+    public void logout(RefreshTokenRequestDto refreshDto, String accessToken) {
+        Long userId = accessToken != null ? jwtTokenProvider.getUserId(accessToken) : null;
+        if (userId == null) {
+            throw new AuthenticationException("Not authenticated");
         }
+
+        refreshTokenService.revoke(refreshDto.getRefreshToken(), userId);
+        jwtTokenProvider.revokeToken(accessToken);
     }
 
     /**
@@ -153,4 +193,32 @@ public class AuthService {
         // Convert to DTO
         return userMapper.toDto(user);
     }
-}
\ No newline at end of file
+
+    private void checkNotRegistered(UserRegistrationDto registrationDto) {
+        if (userRepository.existsByEmail(registrationDto.getEmail())) {
+            throw new UserAlreadyExistsException("User with email " + registrationDto.getEmail() + " already exists");
+        }
+
+        if (registrationDto.getPhone() != null && userRepository.existsByPhone(registrationDto.getPhone())) {
+            throw new UserAlreadyExistsException("User with phone " + registrationDto.getPhone() + " already exists");
+        }
+    }
+
+    private AuthResponseDto createAuthResponse(User user, UserDto userDto) {
+        // Generate JWT access and refresh tokens
+        String token = jwtTokenProvider.createToken(user);
+        String refreshToken = refreshTokenService.issue(user);
+
+        // Check if user has a profile
+        boolean hasProfile = userProfileRepository.findTopByUserOrderByCreatedAtDesc(user).isPresent();
+
+        // Return authentication response
+        return AuthResponseDto.builder()
+                .token(token)
+                .refreshToken(refreshToken)
+                .expiresIn(jwtTokenProvider.getValidityInSeconds())
+                .user(userDto)
+                .hasProfile(hasProfile)
+                .build();
+    }
+}
@@ -10,9 +10,6 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.util.Collections;
-
 /**
  * Custom implementation of UserDetailsService to load users from our database
  */
@@ -21,6 +18,7 @@ import java.util.Collections;
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final UserRoleResolver userRoleResolver;
 
     @Override
     @Transactional(readOnly = true)
@@ -29,15 +27,13 @@ public class CustomUserDetailsService implements UserDetailsService {
         User user = userRepository.findByEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + username));
 
-        // Update last login timestamp
-        user.setLastLogin(LocalDateTime.now());
-        userRepository.save(user);
-
         // Create Spring Security UserDetails object
         return org.springframework.security.core.userdetails.User
                 .withUsername(user.getEmail())
                 .password(user.getPasswordHash())
-                .authorities(Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")))
+                .authorities(userRoleResolver.getRoles(user.getEmail()).stream()
+                        .map(SimpleGrantedAuthority::new)
+                        .toList())
                 .accountExpired(false)
                 .accountLocked(false)
                 .credentialsExpired(false)
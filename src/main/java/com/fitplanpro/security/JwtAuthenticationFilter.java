@@ -1,5 +1,6 @@
 package com.fitplanpro.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,6 +16,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
+    private final LastActivityTracker lastActivityTracker;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -33,9 +35,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String token = jwtTokenProvider.resolveToken(request);
 
-            if (token != null && jwtTokenProvider.validateToken(token)) {
-                Authentication auth = jwtTokenProvider.getAuthentication(token);
+            Claims claims = token != null ? jwtTokenProvider.getVerifiedClaims(token) : null;
+
+            if (claims != null) {
+                Authentication auth = jwtTokenProvider.getAuthentication(claims);
                 SecurityContextHolder.getContext().setAuthentication(auth);
+
+                if (auth.getPrincipal() instanceof JwtUserPrincipal principal) {
+                    lastActivityTracker.recordActivity(principal.getUserId());
+                }
             }
         } catch (Exception ex) {
             SecurityContextHolder.clearContext();
@@ -1,7 +1,10 @@
 package com.fitplanpro.security;
 
+import com.fitplanpro.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -9,6 +12,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Component;
@@ -16,48 +20,167 @@ import org.springframework.util.StringUtils;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.UUID;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JwtTokenProvider {
 
+    static final String USER_ID_CLAIM = "uid";
+    static final String ROLES_CLAIM = "roles";
+    static final List<String> DEFAULT_ROLES = List.of(UserRoleResolver.ROLE_USER);
+
     @Value("${security.jwt.token.secret-key}")
     private String secretKeyString;
 
-    @Value("${security.jwt.token.expire-length:86400000}") // Default: 24 hours
+    @Value("${security.jwt.token.expire-length:900000}") // Default: 15 minutes
     private long validityInMilliseconds;
 
+    // Tokens without a token ID cannot be revoked; accept them only during the rollout of token IDs
+    @Value("${security.jwt.legacy-tokens-accepted-until:}")
+    private String legacyTokensAcceptedUntilString;
+
     private SecretKey secretKey;
 
+    private Instant legacyTokensAcceptedUntil;
+
+    private JwtParser jwtParser;
+
+    private Timer parseTimer;
+
     private final UserDetailsService userDetailsService;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenRevocationList tokenRevocationList;
+    private final UserRoleResolver userRoleResolver;
+    private final MeterRegistry meterRegistry;
 
     @PostConstruct
     protected void init() {
         secretKey = Keys.hmacShaKeyFor(secretKeyString.getBytes(StandardCharsets.UTF_8));
+        legacyTokensAcceptedUntil = StringUtils.hasText(legacyTokensAcceptedUntilString)
+                ? Instant.parse(legacyTokensAcceptedUntilString) : Instant.EPOCH;
+
+        // Parsers are immutable and thread-safe, so one instance is shared by all requests
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(secretKey)
+                .build();
+
+        parseTimer = Timer.builder("fitplan.jwt.parse")
+                .description("Time spent verifying and parsing JWT tokens")
+                .register(meterRegistry);
     }
 
     /**
-     * Create a JWT token for a user
+     * Create a JWT token for a user. The user id and roles are embedded as
+     * claims so that requests can be authenticated without a user lookup.
      *
-     * @param username the username
+     * @param user the user
      * @return the JWT token
      */
-    public String createToken(String username) {
-        Claims claims = Jwts.claims().setSubject(username);
+    public String createToken(User user) {
+        Claims claims = Jwts.claims().setSubject(user.getEmail());
+        claims.put(USER_ID_CLAIM, user.getId());
+        claims.put(ROLES_CLAIM, userRoleResolver.getRoles(user.getEmail()));
 
         Date now = new Date();
         Date validity = new Date(now.getTime() + validityInMilliseconds);
 
         return Jwts.builder()
                 .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(now)
                 .setExpiration(validity)
                 .signWith(secretKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Get the access token lifetime
+     *
+     * @return the validity in seconds
+     */
+    public long getValidityInSeconds() {
+        return validityInMilliseconds / 1000;
+    }
+
+    /**
+     * Verify a JWT token and return its claims. Verified claims are cached
+     * per token until the cache TTL or the token expiry, whichever comes first.
+     *
+     * @param token the JWT token
+     * @return the verified claims, or null if the token is invalid, expired, revoked or
+     * has no token ID after the legacy token cutoff
+     */
+    public Claims getVerifiedClaims(String token) {
+        Claims claims = verifiedTokenCache.get(token);
+
+        if (claims == null) {
+            try {
+                claims = parseTimer.record(() -> jwtParser.parseClaimsJws(token).getBody());
+            } catch (JwtException | IllegalArgumentException e) {
+                log.error("Invalid JWT token: {}", e.getMessage());
+                return null;
+            }
+
+            verifiedTokenCache.put(token, claims);
+        }
+
+        if (claims.getId() == null && Instant.now().isAfter(legacyTokensAcceptedUntil)) {
+            log.debug("Rejected legacy JWT token without a token ID for {}", claims.getSubject());
+            return null;
+        }
+
+        // In-memory check, no I/O on the request path
+        if (tokenRevocationList.isRevoked(claims.getId())) {
+            log.debug("Rejected revoked JWT token {}", claims.getId());
+            return null;
+        }
+
+        return claims;
+    }
+
+    /**
+     * Get the user ID carried by a valid access token
+     *
+     * @param token the JWT token
+     * @return the user ID, or null if the token is invalid, expired, revoked or has no user ID claim
+     */
+    public Long getUserId(String token) {
+        Claims claims = getVerifiedClaims(token);
+        if (claims == null) {
+            return null;
+        }
+
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        return userId != null ? userId.longValue() : null;
+    }
+
+    /**
+     * Revoke an access token until it expires
+     *
+     * @param token the JWT token
+     */
+    public void revokeToken(String token) {
+        Claims claims = getVerifiedClaims(token);
+        if (claims == null || claims.getId() == null) {
+            return;
+        }
+
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        tokenRevocationList.revoke(
+                claims.getId(),
+                userId != null ? userId.longValue() : null,
+                LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault()));
+        verifiedTokenCache.invalidate(token);
+    }
+
     /**
      * Extract authentication from JWT token
      *
@@ -65,8 +188,46 @@ public class JwtTokenProvider {
      * @return the authentication
      */
     public Authentication getAuthentication(String token) {
-        UserDetails userDetails = userDetailsService.loadUserByUsername(getUsername(token));
-        return new UsernamePasswordAuthenticationToken(userDetails, "", userDetails.getAuthorities());
+        Claims claims = getVerifiedClaims(token);
+        if (claims == null) {
+            throw new JwtException("Invalid JWT token");
+        }
+        return getAuthentication(claims);
+    }
+
+    /**
+     * Build authentication from verified JWT claims
+     *
+     * @param claims the verified claims
+     * @return the authentication
+     */
+    public Authentication getAuthentication(Claims claims) {
+        // Tokens issued before user id claims were introduced still need a lookup
+        Number userId = claims.get(USER_ID_CLAIM, Number.class);
+        if (userId == null) {
+            UserDetails userDetails = userDetailsService.loadUserByUsername(claims.getSubject());
+            return new UsernamePasswordAuthenticationToken(userDetails, "", userDetails.getAuthorities());
+        }
+
+        List<String> roles = getRoles(claims);
+        JwtUserPrincipal principal = new JwtUserPrincipal(userId.longValue(), claims.getSubject(), roles);
+
+        return new UsernamePasswordAuthenticationToken(principal, "",
+                roles.stream().map(SimpleGrantedAuthority::new).toList());
+    }
+
+    /**
+     * Extract roles from JWT claims
+     *
+     * @param claims the token claims
+     * @return the roles, or the default roles if none are present
+     */
+    private List<String> getRoles(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        if (roles instanceof Collection<?> roleList && !roleList.isEmpty()) {
+            return roleList.stream().map(String::valueOf).toList();
+        }
+        return DEFAULT_ROLES;
     }
 
     /**
@@ -76,12 +237,11 @@ public class JwtTokenProvider {
      * @return the username
      */
     public String getUsername(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        Claims claims = getVerifiedClaims(token);
+        if (claims == null) {
+            throw new JwtException("Invalid JWT token");
+        }
+        return claims.getSubject();
     }
 
     /**
@@ -105,16 +265,6 @@ public class JwtTokenProvider {
      * @return true if valid
      */
     public boolean validateToken(String token) {
-        try {
-            Jws<Claims> claims = Jwts.parserBuilder()
-                    .setSigningKey(secretKey)
-                    .build()
-                    .parseClaimsJws(token);
-
-            return !claims.getBody().getExpiration().before(new Date());
-        } catch (JwtException | IllegalArgumentException e) {
-            log.error("Invalid JWT token: {}", e.getMessage());
-            return false;
-        }
+        return getVerifiedClaims(token) != null;
     }
 }
\ No newline at end of file
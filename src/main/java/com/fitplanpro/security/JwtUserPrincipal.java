@@ -0,0 +1,33 @@
+package com.fitplanpro.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.security.core.AuthenticatedPrincipal;
+
+import java.util.List;
+
+/**
+ * Authenticated principal built directly from verified JWT claims, so that
+ * ordinary requests can be authorized without loading the user row
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class JwtUserPrincipal implements AuthenticatedPrincipal {
+
+    private final Long userId;
+    private final String email;
+    private final List<String> roles;
+
+    /**
+     * The principal name is the user's email, matching the subject used by
+     * {@link CustomUserDetailsService}
+     *
+     * @return the email
+     */
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -0,0 +1,142 @@
+package com.fitplanpro.security;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind tracker for users' last activity. Activity is recorded in memory
+ * and periodically flushed to users.last_login as a single batched UPDATE, so
+ * logins and authenticated requests do not each issue their own write.
+ */
+@Component
+@Slf4j
+public class LastActivityTracker {
+
+    private static final String UPDATE_PREFIX = "UPDATE users u SET last_login = v.ts FROM (VALUES ";
+    private static final String UPDATE_ROW = "(?::bigint, ?::timestamp)";
+    private static final String UPDATE_SUFFIX = ") AS v(id, ts) " +
+            "WHERE u.id = v.id AND (u.last_login IS NULL OR u.last_login < v.ts)";
+
+    private final Map<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final Timer flushLag;
+    private final DistributionSummary batchSize;
+
+    @Value("${fitplan.activity.flush.max-batch-size:500}")
+    private int maxBatchSize;
+
+    public LastActivityTracker(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flushLag = Timer.builder("fitplan.activity.flush.lag")
+                .description("Age of the oldest pending activity timestamp when it was flushed")
+                .register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("fitplan.activity.flush.batch.size")
+                .description("Number of users updated per flush")
+                .register(meterRegistry);
+        meterRegistry.gauge("fitplan.activity.pending", pending, Map::size);
+    }
+
+    /**
+     * Record activity for a user. Only the latest timestamp per user is kept.
+     *
+     * @param userId the user ID
+     */
+    public void recordActivity(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        pending.merge(userId, now, (previous, current) -> current.isAfter(previous) ? current : previous);
+    }
+
+    /**
+     * Flush pending activity timestamps to the database
+     */
+    @Scheduled(fixedDelayString = "${fitplan.activity.flush.interval-ms:30000}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // Drain entries; activity recorded after removal is kept for the next flush
+        List<Object[]> rows = new ArrayList<>(pending.size());
+        LocalDateTime oldest = null;
+        Iterator<Map.Entry<Long, LocalDateTime>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, LocalDateTime> entry = iterator.next();
+            LocalDateTime timestamp = pending.remove(entry.getKey());
+            if (timestamp == null) {
+                continue;
+            }
+            rows.add(new Object[]{entry.getKey(), Timestamp.valueOf(timestamp)});
+            if (oldest == null || timestamp.isBefore(oldest)) {
+                oldest = timestamp;
+            }
+        }
+
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        try {
+            for (int from = 0; from < rows.size(); from += maxBatchSize) {
+                List<Object[]> batch = rows.subList(from, Math.min(from + maxBatchSize, rows.size()));
+                jdbcTemplate.update(buildUpdate(batch.size()), flatten(batch));
+            }
+            batchSize.record(rows.size());
+            flushLag.record(Duration.between(oldest, LocalDateTime.now()));
+        } catch (Exception e) {
+            log.error("Error flushing last activity for {} users, re-queueing", rows.size(), e);
+            for (Object[] row : rows) {
+                LocalDateTime timestamp = ((Timestamp) row[1]).toLocalDateTime();
+                pending.merge((Long) row[0], timestamp, (current, failed) -> current.isAfter(failed) ? current : failed);
+            }
+        }
+    }
+
+    /**
+     * Drain pending activity before the application shuts down
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private String buildUpdate(int rowCount) {
+        StringBuilder sql = new StringBuilder(UPDATE_PREFIX.length() + UPDATE_SUFFIX.length() +
+                rowCount * (UPDATE_ROW.length() + 2));
+        sql.append(UPDATE_PREFIX);
+        for (int i = 0; i < rowCount; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(UPDATE_ROW);
+        }
+        return sql.append(UPDATE_SUFFIX).toString();
+    }
+
+    private Object[] flatten(List<Object[]> rows) {
+        Object[] args = new Object[rows.size() * 2];
+        for (int i = 0; i < rows.size(); i++) {
+            args[i * 2] = rows.get(i)[0];
+            args[i * 2 + 1] = rows.get(i)[1];
+        }
+        return args;
+    }
+}
@@ -0,0 +1,142 @@
+package com.fitplanpro.security;
+
+import com.fitplanpro.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Dedicated, bounded pool for CPU-heavy password hashing and verification.
+ * When the queue is full, work is rejected immediately with
+ * {@link TooManyRequestsException} instead of piling up on request threads.
+ * Callers that wait for a hash run on virtual threads via {@link #supplyAsync},
+ * so request threads are released while they wait.
+ */
+@Component
+@Slf4j
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final ExecutorService callers;
+    private final long timeoutMillis;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    public PasswordHashingExecutor(
+            @Value("${fitplan.security.password-hashing.pool-size:0}") int poolSize,
+            @Value("${fitplan.security.password-hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${fitplan.security.password-hashing.timeout-ms:5000}") long timeoutMillis,
+            MeterRegistry meterRegistry) {
+        int threads = poolSize > 0 ? poolSize : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.callers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("password-hash-caller-", 1).factory());
+        this.timeoutMillis = timeoutMillis;
+
+        this.encodeTimer = Timer.builder("fitplan.password.hash")
+                .description("Password hashing operations")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("fitplan.password.hash")
+                .description("Password hashing operations")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("fitplan.password.hash.rejected")
+                .description("Password hashing requests rejected because the queue was full")
+                .register(meterRegistry);
+        meterRegistry.gauge("fitplan.password.hash.queue.depth", executor, e -> e.getQueue().size());
+        meterRegistry.gauge("fitplan.password.hash.active", executor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    /**
+     * Hash a password on the dedicated pool
+     *
+     * @param task the hashing task
+     * @return the hash
+     */
+    public String encode(Supplier<String> task) {
+        return execute(task, encodeTimer);
+    }
+
+    /**
+     * Verify a password on the dedicated pool
+     *
+     * @param task the verification task
+     * @return true if the password matches
+     */
+    public boolean matches(Supplier<Boolean> task) {
+        return execute(task, matchesTimer);
+    }
+
+    /**
+     * Run work that hashes or verifies passwords on a virtual thread
+     *
+     * @param work the work, which may block on this pool
+     * @return a future completed with the result of the work
+     */
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> work) {
+        return CompletableFuture.supplyAsync(work, callers);
+    }
+
+    private <T> T execute(Supplier<T> task, Timer timer) {
+        Callable<T> callable = () -> timer.record(task);
+        Future<T> future;
+        try {
+            future = executor.submit(callable);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException("Authentication service is busy, please retry shortly", e);
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new TooManyRequestsException("Authentication service is busy, please retry shortly", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Error hashing password", e.getCause());
+        }
+    }
+
+    /**
+     * Stop accepting work and let queued hashes finish
+     */
+    @PreDestroy
+    public void shutdown() {
+        callers.shutdown();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.fitplanpro.security;
+
+import com.fitplanpro.entity.RefreshToken;
+import com.fitplanpro.entity.User;
+import com.fitplanpro.exception.AuthenticationException;
+import com.fitplanpro.repository.RefreshTokenRepository;
+import com.fitplanpro.util.HashUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Service for issuing and rotating server-side refresh tokens. Only a SHA-256
+ * hash of each token is stored. Every refresh replaces the token, and presenting
+ * an already rotated token revokes the user's whole token family.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${security.jwt.refresh-token.expire-length:2592000000}") // Default: 30 days
+    private long refreshValidityInMilliseconds;
+
+    /**
+     * Issue a new refresh token for a user
+     *
+     * @param user the user
+     * @return the raw refresh token value
+     */
+    @Transactional
+    public String issue(User user) {
+        String token = generateToken();
+        save(user, token);
+        return token;
+    }
+
+    /**
+     * Rotate a refresh token: revoke it and issue a replacement
+     *
+     * @param token the raw refresh token
+     * @return the rotation result holding the user and the new refresh token
+     */
+    @Transactional(noRollbackFor = AuthenticationException.class)
+    public Rotation rotate(String token) {
+        RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(HashUtils.sha256Hex(token))
+                .orElseThrow(() -> new AuthenticationException("Invalid refresh token"));
+
+        LocalDateTime now = LocalDateTime.now();
+
+        if (refreshToken.getExpiresAt().isBefore(now) && refreshToken.getRevokedAt() == null) {
+            throw new AuthenticationException("Refresh token has expired");
+        }
+
+        // Only one of several concurrent rotations of the same token wins the conditional update
+        String replacement = generateToken();
+        String replacementHash = HashUtils.sha256Hex(replacement);
+        if (refreshTokenRepository.revokeIfActive(refreshToken.getId(), now, replacementHash) == 0) {
+            // A rotated token was presented again: assume it leaked and revoke the whole family
+            log.warn("Refresh token reuse detected for user {}", refreshToken.getUser().getId());
+            refreshTokenRepository.revokeAllByUser(refreshToken.getUser(), now);
+            throw new AuthenticationException("Refresh token has been revoked");
+        }
+
+        save(refreshToken.getUser(), replacement);
+
+        return new Rotation(refreshToken.getUser(), replacement);
+    }
+
+    /**
+     * Revoke a refresh token belonging to a user
+     *
+     * @param token the raw refresh token
+     * @param userId the ID of the user revoking the token
+     * @throws AuthenticationException if the token belongs to another user
+     */
+    @Transactional
+    public void revoke(String token, Long userId) {
+        Optional<RefreshToken> refreshToken = refreshTokenRepository.findByTokenHash(HashUtils.sha256Hex(token));
+        if (refreshToken.isEmpty()) {
+            return;
+        }
+
+        if (!refreshToken.get().getUser().getId().equals(userId)) {
+            throw new AuthenticationException("Refresh token does not belong to the current user");
+        }
+
+        refreshTokenRepository.revokeIfActive(refreshToken.get().getId(), LocalDateTime.now(), null);
+    }
+
+    /**
+     * Delete expired refresh tokens
+     */
+    @Scheduled(cron = "${security.jwt.refresh-token.cleanup-cron:0 0 3 * * *}")
+    @Transactional
+    public void deleteExpiredTokens() {
+        int deleted = refreshTokenRepository.deleteExpired(LocalDateTime.now());
+        log.debug("Deleted {} expired refresh tokens", deleted);
+    }
+
+    private void save(User user, String token) {
+        refreshTokenRepository.save(RefreshToken.builder()
+                .user(user)
+                .tokenHash(HashUtils.sha256Hex(token))
+                .expiresAt(LocalDateTime.now().plus(Duration.ofMillis(refreshValidityInMilliseconds)))
+                .build());
+    }
+
+    private String generateToken() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Result of a refresh token rotation
+     *
+     * @param user the token owner
+     * @param refreshToken the replacement refresh token
+     */
+    public record Rotation(User user, String refreshToken) {
+    }
+}
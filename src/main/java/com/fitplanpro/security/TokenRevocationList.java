@@ -0,0 +1,191 @@
+package com.fitplanpro.security;
+
+import com.fitplanpro.entity.RevokedToken;
+import com.fitplanpro.repository.RevokedTokenRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * In-memory list of revoked access token IDs (jti). Lookups first consult a
+ * compact Bloom filter, which rules out almost every non-revoked token without
+ * touching the exact set, so revocation checks add no I/O to the request path.
+ * The list is rebuilt from the revoked_tokens table at startup and periodically,
+ * which also drops entries for tokens that have since expired.
+ */
+@Component
+@Slf4j
+public class TokenRevocationList {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final int expectedEntries;
+    private final double falsePositiveRate;
+
+    private final Map<String, LocalDateTime> recentRevocations = new ConcurrentHashMap<>();
+
+    private volatile Snapshot snapshot;
+
+    public TokenRevocationList(
+            RevokedTokenRepository revokedTokenRepository,
+            @Value("${security.jwt.revocation.expected-entries:100000}") int expectedEntries,
+            @Value("${security.jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+            MeterRegistry meterRegistry) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.snapshot = new Snapshot(new BloomFilter(expectedEntries, falsePositiveRate), ConcurrentHashMap.newKeySet());
+        meterRegistry.gauge("fitplan.jwt.revoked.size", this, list -> list.snapshot.tokenIds().size());
+    }
+
+    /**
+     * Check whether an access token has been revoked
+     *
+     * @param tokenId the token ID (jti claim)
+     * @return true if revoked
+     */
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        Snapshot current = snapshot;
+        return current.filter().mightContain(tokenId) && current.tokenIds().contains(tokenId);
+    }
+
+    /**
+     * Revoke an access token and persist the revocation
+     *
+     * @param tokenId the token ID (jti claim)
+     * @param userId the owning user ID
+     * @param expiresAt when the token expires; the revocation is dropped after that
+     */
+    @Transactional
+    public void revoke(String tokenId, Long userId, LocalDateTime expiresAt) {
+        if (tokenId == null || isRevoked(tokenId)) {
+            return;
+        }
+
+        if (!revokedTokenRepository.existsByTokenId(tokenId)) {
+            revokedTokenRepository.save(RevokedToken.builder()
+                    .tokenId(tokenId)
+                    .userId(userId)
+                    .expiresAt(expiresAt)
+                    .build());
+        }
+
+        recentRevocations.put(tokenId, expiresAt);
+        add(snapshot, tokenId);
+    }
+
+    /**
+     * Rebuild the in-memory list from the database
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.rebuild-interval-ms:300000}",
+            initialDelayString = "${security.jwt.revocation.rebuild-interval-ms:300000}")
+    @Transactional
+    public void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        revokedTokenRepository.deleteExpired(now);
+        List<String> tokenIds = revokedTokenRepository.findActiveTokenIds(now);
+
+        Snapshot rebuilt = new Snapshot(
+                new BloomFilter(Math.max(expectedEntries, tokenIds.size() * 2), falsePositiveRate),
+                ConcurrentHashMap.newKeySet(tokenIds.size()));
+        tokenIds.forEach(tokenId -> add(rebuilt, tokenId));
+
+        // Revocations made on this node may not have been committed when the query ran
+        tokenIds.forEach(recentRevocations::remove);
+        recentRevocations.values().removeIf(expiresAt -> expiresAt.isBefore(now));
+        snapshot = rebuilt;
+        recentRevocations.keySet().forEach(tokenId -> add(rebuilt, tokenId));
+
+        log.debug("Rebuilt token revocation list with {} entries", rebuilt.tokenIds().size());
+    }
+
+    private void add(Snapshot target, String tokenId) {
+        target.filter().put(tokenId);
+        target.tokenIds().add(tokenId);
+    }
+
+    private record Snapshot(BloomFilter filter, Set<String> tokenIds) {
+    }
+
+    /**
+     * Thread-safe Bloom filter over strings using double hashing
+     */
+    private static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final int bitCount;
+        private final int hashCount;
+
+        BloomFilter(int expectedEntries, double falsePositiveRate) {
+            int entries = Math.max(1, expectedEntries);
+            long optimalBits = (long) Math.ceil(-entries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bitCount = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, optimalBits));
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / entries * Math.log(2)));
+            this.bits = new AtomicLongArray((bitCount + 63) / 64);
+        }
+
+        void put(String value) {
+            long hash1 = fnv1a(value);
+            long hash2 = mix(hash1);
+            for (int i = 0; i < hashCount; i++) {
+                int index = index(hash1 + i * hash2);
+                long mask = 1L << (index & 63);
+                int word = index >>> 6;
+                long current;
+                do {
+                    current = bits.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash1 = fnv1a(value);
+            long hash2 = mix(hash1);
+            for (int i = 0; i < hashCount; i++) {
+                int index = index(hash1 + i * hash2);
+                if ((bits.get(index >>> 6) & (1L << (index & 63))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int index(long combinedHash) {
+            return (int) ((combinedHash & Long.MAX_VALUE) % bitCount);
+        }
+
+        private static long fnv1a(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+
+        private static long mix(long value) {
+            long z = value + 0x9e3779b97f4a7c15L;
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return (z ^ (z >>> 31)) | 1L;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.fitplanpro.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves the roles granted to a user. Every user has ROLE_USER; users whose
+ * email is listed in fitplan.security.admin-emails also have ROLE_ADMIN, which
+ * is required for the operational actuator endpoints.
+ */
+@Component
+public class UserRoleResolver {
+
+    static final String ROLE_USER = "ROLE_USER";
+    static final String ROLE_ADMIN = "ROLE_ADMIN";
+
+    private static final List<String> USER_ROLES = List.of(ROLE_USER);
+    private static final List<String> ADMIN_ROLES = List.of(ROLE_USER, ROLE_ADMIN);
+
+    private final Set<String> adminEmails;
+
+    public UserRoleResolver(@Value("${fitplan.security.admin-emails:}") List<String> adminEmails) {
+        this.adminEmails = adminEmails.stream()
+                .map(String::trim)
+                .filter(email -> !email.isEmpty())
+                .map(email -> email.toLowerCase(Locale.ROOT))
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * Get the roles of a user
+     *
+     * @param email the user's email
+     * @return the role names
+     */
+    public List<String> getRoles(String email) {
+        return email != null && adminEmails.contains(email.toLowerCase(Locale.ROOT)) ? ADMIN_ROLES : USER_ROLES;
+    }
+}
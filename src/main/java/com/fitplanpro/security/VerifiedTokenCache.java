@@ -0,0 +1,100 @@
+package com.fitplanpro.security;
+
+import com.fitplanpro.util.HashUtils;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Bounded, expiry-aware cache of verified JWT claims keyed by a SHA-256 digest
+ * of the token, so a token is only signature-checked once per TTL window
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final Cache<String, Entry> entries;
+    private final Counter hits;
+    private final Counter misses;
+
+    @Value("${security.jwt.cache.ttl-ms:300000}")
+    private long ttlMillis;
+
+    public VerifiedTokenCache(MeterRegistry meterRegistry,
+                              @Value("${security.jwt.cache.max-size:10000}") int maxSize) {
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(Expiry.<String, Entry>writing((key, entry) ->
+                        Duration.ofMillis(Math.max(0, entry.expiresAt() - System.currentTimeMillis()))))
+                .build();
+        this.hits = Counter.builder("fitplan.jwt.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("fitplan.jwt.cache.requests").tag("result", "miss").register(meterRegistry);
+        meterRegistry.gauge("fitplan.jwt.cache.size", entries, Cache::estimatedSize);
+        meterRegistry.gauge("fitplan.jwt.cache.hit.ratio", this, VerifiedTokenCache::getHitRatio);
+    }
+
+    /**
+     * Get cached claims for a token
+     *
+     * @param token the JWT token
+     * @return the verified claims, or null if not cached or expired
+     */
+    public Claims get(String token) {
+        Entry entry = entries.getIfPresent(HashUtils.sha256Hex(token));
+
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return entry.claims();
+    }
+
+    /**
+     * Cache verified claims for a token. Entries never outlive the token's own expiry.
+     *
+     * @param token the JWT token
+     * @param claims the verified claims
+     */
+    public void put(String token, Claims claims) {
+        long now = System.currentTimeMillis();
+        long expiresAt = now + ttlMillis;
+        if (claims.getExpiration() != null) {
+            expiresAt = Math.min(expiresAt, claims.getExpiration().getTime());
+        }
+        if (expiresAt <= now) {
+            return;
+        }
+
+        entries.put(HashUtils.sha256Hex(token), new Entry(claims, expiresAt));
+    }
+
+    /**
+     * Remove a token from the cache
+     *
+     * @param token the JWT token
+     */
+    public void invalidate(String token) {
+        entries.invalidate(HashUtils.sha256Hex(token));
+    }
+
+    /**
+     * Get the ratio of cache hits to lookups
+     *
+     * @return the hit ratio between 0 and 1
+     */
+    public double getHitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0.0 : hits.count() / total;
+    }
+
+    private record Entry(Claims claims, long expiresAt) {
+    }
+}
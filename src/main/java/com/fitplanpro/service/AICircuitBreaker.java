@@ -0,0 +1,172 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.enums.AIProvider;
+import com.fitplanpro.enums.CircuitState;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Circuit breaker for a single AI provider over a count-based sliding window of
+ * recent calls. The circuit opens when the failure rate or the share of slow
+ * calls crosses its threshold, rejects calls while open, and after a wait lets
+ * a single probe through in half-open state to decide whether to close again.
+ */
+public class AICircuitBreaker {
+
+    private final AIProvider provider;
+    private final boolean[] failures;
+    private final boolean[] slowCalls;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallMillis;
+    private final long openMillis;
+    private final BiConsumer<AIProvider, CircuitState> transitionListener;
+
+    private int next;
+    private int size;
+    private CircuitState state = CircuitState.CLOSED;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public AICircuitBreaker(AIProvider provider, int windowSize, int minCalls, double failureRateThreshold,
+                            double slowCallRateThreshold, long slowCallMillis, long openMillis,
+                            BiConsumer<AIProvider, CircuitState> transitionListener) {
+        this.provider = provider;
+        this.failures = new boolean[Math.max(1, windowSize)];
+        this.slowCalls = new boolean[Math.max(1, windowSize)];
+        this.minCalls = minCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.slowCallMillis = slowCallMillis;
+        this.openMillis = openMillis;
+        this.transitionListener = transitionListener;
+    }
+
+    /**
+     * Check whether a call may go to the provider. In half-open state only one
+     * probe is permitted at a time; callers that get a permit must report the outcome.
+     *
+     * @return true if the call is permitted
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == CircuitState.OPEN) {
+            if (System.currentTimeMillis() - openedAt < openMillis) {
+                return false;
+            }
+            transitionTo(CircuitState.HALF_OPEN);
+        }
+
+        if (state == CircuitState.HALF_OPEN) {
+            if (probeInFlight) {
+                return false;
+            }
+            probeInFlight = true;
+        }
+
+        return true;
+    }
+
+    /**
+     * Record a successful call
+     *
+     * @param latencyMillis the call latency in milliseconds
+     */
+    public synchronized void onSuccess(long latencyMillis) {
+        boolean slow = latencyMillis >= slowCallMillis;
+
+        if (state == CircuitState.HALF_OPEN) {
+            probeInFlight = false;
+            if (slow) {
+                open();
+            } else {
+                reset();
+                transitionTo(CircuitState.CLOSED);
+            }
+            return;
+        }
+
+        record(false, slow);
+    }
+
+    /**
+     * Record a failed call
+     */
+    public synchronized void onFailure() {
+        if (state == CircuitState.HALF_OPEN) {
+            probeInFlight = false;
+            open();
+            return;
+        }
+
+        record(true, false);
+    }
+
+    /**
+     * Release a permit for a call that was cancelled before it completed
+     */
+    public synchronized void onCancelled() {
+        if (state == CircuitState.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    public synchronized CircuitState getState() {
+        return state;
+    }
+
+    public synchronized double getFailureRate() {
+        return rate(failures);
+    }
+
+    public synchronized double getSlowCallRate() {
+        return rate(slowCalls);
+    }
+
+    public synchronized int getBufferedCalls() {
+        return size;
+    }
+
+    private void record(boolean failure, boolean slow) {
+        failures[next] = failure;
+        slowCalls[next] = slow;
+        next = (next + 1) % failures.length;
+        size = Math.min(size + 1, failures.length);
+
+        // Calls that started before the circuit opened do not reopen it
+        if (state == CircuitState.CLOSED && size >= minCalls &&
+                (rate(failures) >= failureRateThreshold || rate(slowCalls) >= slowCallRateThreshold)) {
+            open();
+        }
+    }
+
+    private double rate(boolean[] outcomes) {
+        if (size == 0) {
+            return 0.0;
+        }
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (outcomes[i]) {
+                count++;
+            }
+        }
+        return (double) count / size;
+    }
+
+    private void open() {
+        openedAt = System.currentTimeMillis();
+        transitionTo(CircuitState.OPEN);
+    }
+
+    private void reset() {
+        next = 0;
+        size = 0;
+    }
+
+    private void transitionTo(CircuitState newState) {
+        if (state != newState) {
+            state = newState;
+            transitionListener.accept(provider, newState);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.enums.LatencyDistribution;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Samples the latency injected by replayed AI providers, following
+ * fitplan.ai.provider.replay.latency.distribution:
+ * NONE, FIXED (the median), UNIFORM (between min and max), LOG_NORMAL
+ * (median and sigma, the usual shape of AI response times) or RECORDED
+ * (the latency observed when the response was recorded). Samples are
+ * clamped to the configured min and max.
+ */
+@Component
+public class AILatencyModel {
+
+    @Value("${fitplan.ai.provider.replay.latency.distribution:NONE}")
+    private LatencyDistribution distribution;
+
+    @Value("${fitplan.ai.provider.replay.latency.median-ms:8000}")
+    private long medianMillis;
+
+    @Value("${fitplan.ai.provider.replay.latency.sigma:0.5}")
+    private double sigma;
+
+    @Value("${fitplan.ai.provider.replay.latency.min-ms:0}")
+    private long minMillis;
+
+    @Value("${fitplan.ai.provider.replay.latency.max-ms:60000}")
+    private long maxMillis;
+
+    /**
+     * Sample a latency
+     *
+     * @param recordedMillis the latency observed at recording time, or null if unknown
+     * @return the latency in milliseconds
+     */
+    public long sample(Long recordedMillis) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        long latency = switch (distribution) {
+            case NONE -> 0;
+            case FIXED -> medianMillis;
+            case UNIFORM -> minMillis < maxMillis ? random.nextLong(minMillis, maxMillis + 1) : minMillis;
+            case LOG_NORMAL -> Math.round(medianMillis * Math.exp(sigma * random.nextGaussian()));
+            case RECORDED -> recordedMillis != null ? recordedMillis : medianMillis;
+        };
+
+        return distribution == LatencyDistribution.NONE ? 0 : Math.max(minMillis, Math.min(maxMillis, latency));
+    }
+}
@@ -0,0 +1,45 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.dto.aiservice.AIProviderRequestDto;
+import com.fitplanpro.dto.aiservice.AIProviderResponseDto;
+import com.fitplanpro.enums.AIProvider;
+
+import java.util.function.Consumer;
+
+/**
+ * A single AI provider behind {@link AIService}: a live API client, a client
+ * that records live responses, or a replay of recorded responses
+ */
+public interface AIProviderClient {
+
+    /**
+     * Get the provider this client stands for
+     *
+     * @return the provider
+     */
+    AIProvider getProvider();
+
+    /**
+     * Get the model this client calls
+     *
+     * @return the model name
+     */
+    String getModelName();
+
+    /**
+     * Request a completion
+     *
+     * @param request the provider request
+     * @return the completion
+     */
+    AIProviderResponseDto complete(AIProviderRequestDto request);
+
+    /**
+     * Request a completion, passing each text delta to the listener as it arrives
+     *
+     * @param request the provider request
+     * @param textListener the listener for text deltas
+     * @return the complete completion
+     */
+    AIProviderResponseDto stream(AIProviderRequestDto request, Consumer<String> textListener);
+}
@@ -0,0 +1,231 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.dto.aiservice.AIProviderStatusDto;
+import com.fitplanpro.dto.aiservice.CircuitTransitionDto;
+import com.fitplanpro.enums.AIProvider;
+import com.fitplanpro.enums.CircuitState;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks recent latency and errors of each AI provider in fixed-size sliding
+ * windows, and owns the per-provider circuit breakers built on them
+ */
+@Component
+@Slf4j
+public class AIProviderMonitor {
+
+    private static final int MAX_TRANSITIONS = 50;
+
+    private final Map<AIProvider, LatencyWindow> windows = new EnumMap<>(AIProvider.class);
+    private final Map<AIProvider, AICircuitBreaker> circuitBreakers = new EnumMap<>(AIProvider.class);
+    private final Map<AIProvider, Timer> successTimers = new EnumMap<>(AIProvider.class);
+    private final Map<AIProvider, Timer> failureTimers = new EnumMap<>(AIProvider.class);
+    private final Map<AIProvider, Counter> rejectedCalls = new EnumMap<>(AIProvider.class);
+    private final Deque<CircuitTransitionDto> transitions = new ArrayDeque<>();
+    private final MeterRegistry meterRegistry;
+    private final int minSamples;
+
+    public AIProviderMonitor(
+            @Value("${fitplan.ai.monitor.window-size:100}") int windowSize,
+            @Value("${fitplan.ai.monitor.min-samples:20}") int minSamples,
+            @Value("${fitplan.ai.circuit-breaker.window-size:20}") int breakerWindowSize,
+            @Value("${fitplan.ai.circuit-breaker.min-calls:10}") int breakerMinCalls,
+            @Value("${fitplan.ai.circuit-breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+            @Value("${fitplan.ai.circuit-breaker.slow-call-rate-threshold:0.8}") double slowCallRateThreshold,
+            @Value("${fitplan.ai.circuit-breaker.slow-call-ms:25000}") long slowCallMillis,
+            @Value("${fitplan.ai.circuit-breaker.open-ms:30000}") long openMillis,
+            MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.minSamples = minSamples;
+
+        for (AIProvider provider : AIProvider.values()) {
+            String providerTag = provider.name().toLowerCase();
+            AICircuitBreaker circuitBreaker = new AICircuitBreaker(provider, breakerWindowSize, breakerMinCalls,
+                    failureRateThreshold, slowCallRateThreshold, slowCallMillis, openMillis, this::onTransition);
+
+            windows.put(provider, new LatencyWindow(windowSize));
+            circuitBreakers.put(provider, circuitBreaker);
+            successTimers.put(provider, providerTimer(meterRegistry, provider, "success"));
+            failureTimers.put(provider, providerTimer(meterRegistry, provider, "failure"));
+            rejectedCalls.put(provider, Counter.builder("fitplan.ai.circuit.rejected")
+                    .description("AI provider calls skipped because the circuit was open")
+                    .tag("provider", providerTag)
+                    .register(meterRegistry));
+            Gauge.builder("fitplan.ai.circuit.state", circuitBreaker, breaker -> breaker.getState().ordinal())
+                    .description("Circuit state: 0 closed, 1 half-open, 2 open")
+                    .tag("provider", providerTag)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Ask the provider's circuit breaker whether a call may be made
+     *
+     * @param provider the provider
+     * @return true if the call is permitted; the outcome must then be recorded
+     */
+    public boolean tryAcquirePermission(AIProvider provider) {
+        boolean permitted = circuitBreakers.get(provider).tryAcquirePermission();
+        if (!permitted) {
+            rejectedCalls.get(provider).increment();
+        }
+        return permitted;
+    }
+
+    /**
+     * Record a successful provider call
+     *
+     * @param provider the provider
+     * @param latencyMillis the call latency in milliseconds
+     */
+    public void recordSuccess(AIProvider provider, long latencyMillis) {
+        windows.get(provider).add(latencyMillis);
+        circuitBreakers.get(provider).onSuccess(latencyMillis);
+        successTimers.get(provider).record(latencyMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Record a failed provider call
+     *
+     * @param provider the provider
+     * @param latencyMillis the call latency in milliseconds
+     */
+    public void recordFailure(AIProvider provider, long latencyMillis) {
+        circuitBreakers.get(provider).onFailure();
+        failureTimers.get(provider).record(latencyMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Record a provider call that was cancelled before completing
+     *
+     * @param provider the provider
+     */
+    public void recordCancelled(AIProvider provider) {
+        circuitBreakers.get(provider).onCancelled();
+    }
+
+    /**
+     * Get a latency percentile of recent successful calls
+     *
+     * @param provider the provider
+     * @param percentile the percentile between 0 and 1
+     * @return the latency in milliseconds, or -1 if there are not enough samples yet
+     */
+    public long getLatencyPercentile(AIProvider provider, double percentile) {
+        long[] samples = windows.get(provider).snapshot();
+        if (samples.length < minSamples || samples.length == 0) {
+            return -1;
+        }
+
+        Arrays.sort(samples);
+        int index = (int) Math.ceil(percentile * samples.length) - 1;
+        return samples[Math.max(0, Math.min(samples.length - 1, index))];
+    }
+
+    /**
+     * Get the current circuit state of a provider
+     *
+     * @param provider the provider
+     * @return the circuit state
+     */
+    public CircuitState getCircuitState(AIProvider provider) {
+        return circuitBreakers.get(provider).getState();
+    }
+
+    /**
+     * Get the status of every provider
+     *
+     * @return list of provider status DTOs
+     */
+    public List<AIProviderStatusDto> getProviderStatuses() {
+        return Arrays.stream(AIProvider.values())
+                .map(provider -> {
+                    AICircuitBreaker circuitBreaker = circuitBreakers.get(provider);
+                    return AIProviderStatusDto.builder()
+                            .provider(provider)
+                            .state(circuitBreaker.getState())
+                            .failureRate(circuitBreaker.getFailureRate())
+                            .slowCallRate(circuitBreaker.getSlowCallRate())
+                            .bufferedCalls(circuitBreaker.getBufferedCalls())
+                            .p50LatencyMs(getLatencyPercentile(provider, 0.5))
+                            .p90LatencyMs(getLatencyPercentile(provider, 0.9))
+                            .build();
+                })
+                .toList();
+    }
+
+    /**
+     * Get the most recent circuit state transitions, newest first
+     *
+     * @return list of transition DTOs
+     */
+    public List<CircuitTransitionDto> getRecentTransitions() {
+        synchronized (transitions) {
+            return List.copyOf(transitions);
+        }
+    }
+
+    private void onTransition(AIProvider provider, CircuitState state) {
+        log.warn("AI provider {} circuit is now {}", provider, state);
+
+        Counter.builder("fitplan.ai.circuit.transitions")
+                .description("AI provider circuit state transitions")
+                .tag("provider", provider.name().toLowerCase())
+                .tag("state", state.name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+
+        synchronized (transitions) {
+            transitions.addFirst(CircuitTransitionDto.builder()
+                    .provider(provider)
+                    .state(state)
+                    .timestamp(LocalDateTime.now())
+                    .build());
+            if (transitions.size() > MAX_TRANSITIONS) {
+                transitions.removeLast();
+            }
+        }
+    }
+
+    private static Timer providerTimer(MeterRegistry meterRegistry, AIProvider provider, String outcome) {
+        return Timer.builder("fitplan.ai.provider.latency")
+                .description("Latency of individual AI provider calls")
+                .tag("provider", provider.name().toLowerCase())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ring buffer of the most recent latencies
+     */
+    private static final class LatencyWindow {
+
+        private final long[] values;
+        private int next;
+        private int size;
+
+        LatencyWindow(int capacity) {
+            this.values = new long[Math.max(1, capacity)];
+        }
+
+        synchronized void add(long value) {
+            values[next] = value;
+            next = (next + 1) % values.length;
+            size = Math.min(size + 1, values.length);
+        }
+
+        synchronized long[] snapshot() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.enums.AIProvider;
+import com.fitplanpro.enums.CircuitState;
+import com.fitplanpro.exception.AIServiceException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+/**
+ * Runs an AI call against a primary provider with the other provider as fallback.
+ * Without an explicit preference the provider with the lower recent median latency
+ * goes first, and providers whose circuit is open are skipped immediately.
+ * In hedging mode, if the primary has not answered within its recent p90 latency
+ * the secondary is started in parallel, the first successful response wins and
+ * the slower call is cancelled. Hedges draw from a budget that refills by a fixed
+ * fraction of each request, which caps the extra provider spend.
+ */
+@Component
+@Slf4j
+public class AIProviderRouter {
+
+    private static final double MAX_HEDGE_CREDITS = 10.0;
+
+    private final AIProviderMonitor providerMonitor;
+    private final ExecutorService executor;
+    private final Timer hedgingOnTimer;
+    private final Timer hedgingOffTimer;
+    private final Counter hedgesStarted;
+    private final Counter hedgesWon;
+    private final Counter hedgesSkipped;
+
+    @Value("${fitplan.ai.hedging.enabled:false}")
+    private boolean hedgingEnabled;
+
+    @Value("${fitplan.ai.hedging.percentile:0.9}")
+    private double hedgePercentile;
+
+    @Value("${fitplan.ai.hedging.min-delay-ms:1000}")
+    private long minHedgeDelayMillis;
+
+    @Value("${fitplan.ai.hedging.default-delay-ms:15000}")
+    private long defaultHedgeDelayMillis;
+
+    @Value("${fitplan.ai.hedging.budget-ratio:0.1}")
+    private double hedgeBudgetRatio;
+
+    private double hedgeCredits = MAX_HEDGE_CREDITS;
+
+    public AIProviderRouter(AIProviderMonitor providerMonitor, MeterRegistry meterRegistry) {
+        this.providerMonitor = providerMonitor;
+
+        // Virtual threads: provider calls block on HTTP, and interrupting one aborts its socket read
+        this.executor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ai-provider-", 1).factory());
+
+        this.hedgingOnTimer = generationTimer(meterRegistry, "on");
+        this.hedgingOffTimer = generationTimer(meterRegistry, "off");
+        this.hedgesStarted = Counter.builder("fitplan.ai.hedges")
+                .description("Hedged requests started against the secondary provider")
+                .tag("result", "started")
+                .register(meterRegistry);
+        this.hedgesWon = Counter.builder("fitplan.ai.hedges")
+                .description("Hedged requests started against the secondary provider")
+                .tag("result", "won")
+                .register(meterRegistry);
+        this.hedgesSkipped = Counter.builder("fitplan.ai.hedges")
+                .description("Hedged requests started against the secondary provider")
+                .tag("result", "skipped_budget")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Select the provider a call will be sent to first
+     *
+     * @param preferred the provider to try first, or null to route by latency
+     * @return the primary provider
+     */
+    public AIProvider selectPrimary(AIProvider preferred) {
+        return preferred != null ? preferred : getFasterProvider();
+    }
+
+    /**
+     * Execute an AI call with fallback, hedging if enabled
+     *
+     * @param preferred the provider to try first, or null to route by latency
+     * @param call the call to run against a provider
+     * @return the result and the provider that produced it
+     */
+    public <T> ProviderResult<T> execute(AIProvider preferred, Function<AIProvider, T> call) {
+        AIProvider primary = selectPrimary(preferred);
+        Timer.Sample sample = Timer.start();
+        boolean hedging = hedgingEnabled;
+        try {
+            return hedging ? executeHedged(primary, call) : executeWithFallback(primary, call);
+        } finally {
+            sample.stop(hedging ? hedgingOnTimer : hedgingOffTimer);
+        }
+    }
+
+    /**
+     * Execute an AI call with fallback but never hedged, for calls whose partial
+     * output is visible to the client while they run
+     *
+     * @param preferred the provider to try first, or null to route by latency
+     * @param call the call to run against a provider
+     * @return the result and the provider that produced it
+     */
+    public <T> ProviderResult<T> executeWithoutHedging(AIProvider preferred, Function<AIProvider, T> call) {
+        AIProvider primary = selectPrimary(preferred);
+        Timer.Sample sample = Timer.start();
+        try {
+            return executeWithFallback(primary, call);
+        } finally {
+            sample.stop(hedgingOffTimer);
+        }
+    }
+
+    /**
+     * Stop the provider call executor
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> ProviderResult<T> executeWithFallback(AIProvider primary, Function<AIProvider, T> call) {
+        AIProvider secondary = primary.other();
+        try {
+            return new ProviderResult<>(primary, invoke(primary, call), false);
+        } catch (RuntimeException e) {
+            log.error("Error generating content with {}, trying fallback {}", primary, secondary, e);
+            try {
+                return new ProviderResult<>(secondary, invoke(secondary, call), true);
+            } catch (RuntimeException fallbackEx) {
+                log.error("Error generating content with fallback model", fallbackEx);
+                throw new AIServiceException("Failed to generate content with both models", fallbackEx);
+            }
+        }
+    }
+
+    private <T> ProviderResult<T> executeHedged(AIProvider primary, Function<AIProvider, T> call) {
+        AIProvider secondary = primary.other();
+        CompletionService<ProviderResult<T>> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<ProviderResult<T>>> futures = new ArrayList<>(2);
+        refillHedgeBudget();
+
+        futures.add(completionService.submit(() -> new ProviderResult<>(primary, invoke(primary, call), false)));
+        boolean secondaryStarted = false;
+        boolean hedged = false;
+        Exception lastError = null;
+
+        try {
+            Future<ProviderResult<T>> done = completionService.poll(getHedgeDelay(primary), TimeUnit.MILLISECONDS);
+
+            if (done == null && providerMonitor.getCircuitState(secondary) != CircuitState.OPEN) {
+                // Primary is slower than usual: race the secondary against it if the budget allows
+                if (tryAcquireHedge()) {
+                    futures.add(completionService.submit(() -> new ProviderResult<>(secondary, invoke(secondary, call), false)));
+                    secondaryStarted = true;
+                    hedged = true;
+                    hedgesStarted.increment();
+                } else {
+                    hedgesSkipped.increment();
+                }
+            }
+
+            int outstanding = futures.size();
+            while (outstanding > 0) {
+                if (done == null) {
+                    done = completionService.take();
+                }
+                outstanding--;
+
+                try {
+                    ProviderResult<T> result = done.get();
+                    if (hedged && result.provider() == secondary) {
+                        hedgesWon.increment();
+                    }
+                    if (result.provider() == secondary && lastError != null) {
+                        // The primary failed, so the secondary answered as a fallback
+                        return new ProviderResult<>(secondary, result.value(), true);
+                    }
+                    return result;
+                } catch (ExecutionException e) {
+                    lastError = e.getCause() instanceof Exception cause ? cause : e;
+                    log.error("Error generating content with hedged request", lastError);
+
+                    if (!secondaryStarted) {
+                        // Plain fallback after a primary failure does not count against the hedge budget
+                        futures.add(completionService.submit(() -> new ProviderResult<>(secondary, invoke(secondary, call), false)));
+                        secondaryStarted = true;
+                        outstanding++;
+                    }
+                    done = null;
+                }
+            }
+
+            throw new AIServiceException("Failed to generate content with both models", lastError);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AIServiceException("Interrupted while waiting for AI providers", e);
+        } finally {
+            // Cancel the losing call; completed futures are unaffected
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private <T> T invoke(AIProvider provider, Function<AIProvider, T> call) {
+        // Fail fast instead of waiting for a timeout from a provider known to be unhealthy
+        if (!providerMonitor.tryAcquirePermission(provider)) {
+            throw new AIServiceException("Circuit open for AI provider " + provider);
+        }
+
+        long startTime = System.currentTimeMillis();
+        try {
+            T result = call.apply(provider);
+            providerMonitor.recordSuccess(provider, System.currentTimeMillis() - startTime);
+            return result;
+        } catch (Throwable e) {
+            // Errors too: an unreleased half-open probe would keep the provider rejected for good
+            if (Thread.currentThread().isInterrupted()) {
+                providerMonitor.recordCancelled(provider);
+            } else {
+                providerMonitor.recordFailure(provider, System.currentTimeMillis() - startTime);
+            }
+            throw e;
+        }
+    }
+
+    private AIProvider getFasterProvider() {
+        long openAiLatency = providerMonitor.getLatencyPercentile(AIProvider.OPENAI, 0.5);
+        long claudeLatency = providerMonitor.getLatencyPercentile(AIProvider.CLAUDE, 0.5);
+
+        // Default to OpenAI until both providers have enough samples to compare
+        if (openAiLatency >= 0 && claudeLatency >= 0 && claudeLatency < openAiLatency) {
+            return AIProvider.CLAUDE;
+        }
+        return AIProvider.OPENAI;
+    }
+
+    private long getHedgeDelay(AIProvider provider) {
+        long observed = providerMonitor.getLatencyPercentile(provider, hedgePercentile);
+        return Math.max(minHedgeDelayMillis, observed >= 0 ? observed : defaultHedgeDelayMillis);
+    }
+
+    private synchronized void refillHedgeBudget() {
+        hedgeCredits = Math.min(MAX_HEDGE_CREDITS, hedgeCredits + Math.max(0.0, Math.min(1.0, hedgeBudgetRatio)));
+    }
+
+    private synchronized boolean tryAcquireHedge() {
+        if (hedgeCredits < 1.0) {
+            return false;
+        }
+        hedgeCredits -= 1.0;
+        return true;
+    }
+
+    private static Timer generationTimer(MeterRegistry meterRegistry, String hedging) {
+        return Timer.builder("fitplan.ai.generation")
+                .description("End-to-end AI generation latency across providers")
+                .tag("hedging", hedging)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Result of a routed AI call
+     *
+     * @param provider the provider that produced the result
+     * @param value the result
+     * @param fallback whether the result came from the fallback provider after the primary failed
+     */
+    public record ProviderResult<T>(AIProvider provider, T value, boolean fallback) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.fitplanpro.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitplanpro.dto.aiservice.AIProviderRequestDto;
+import com.fitplanpro.dto.aiservice.AIProviderResponseDto;
+import com.fitplanpro.dto.aiservice.AIRecordingDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores recorded AI provider exchanges as JSON files named by the request's
+ * provider-independent fingerprint, under fitplan.ai.provider.recordings-dir.
+ * Recordings are read from disk once and then served from memory.
+ */
+@Component
+@Slf4j
+public class AIRecordingStore {
+
+    private final ObjectMapper objectMapper;
+    private final AIRequestKeyGenerator keyGenerator;
+    private final Path directory;
+    private final Map<String, AIRecordingDto> recordings = new ConcurrentHashMap<>();
+
+    public AIRecordingStore(ObjectMapper objectMapper, AIRequestKeyGenerator keyGenerator,
+                            @Value("${fitplan.ai.provider.recordings-dir:ai-recordings}") String directory) {
+        this.objectMapper = objectMapper;
+        this.keyGenerator = keyGenerator;
+        this.directory = Path.of(directory);
+    }
+
+    /**
+     * Get the fingerprint a request is recorded under
+     *
+     * @param request the provider request
+     * @return the fingerprint
+     */
+    public String getFingerprint(AIProviderRequestDto request) {
+        return keyGenerator.generateKey(request);
+    }
+
+    /**
+     * Find the recording for a request
+     *
+     * @param request the provider request
+     * @return an Optional containing the recording if one exists
+     */
+    public Optional<AIRecordingDto> find(AIProviderRequestDto request) {
+        return Optional.ofNullable(recordings.computeIfAbsent(getFingerprint(request), this::read));
+    }
+
+    /**
+     * Record a provider exchange, replacing any earlier recording of the same request
+     *
+     * @param request the provider request
+     * @param response the provider response
+     * @param latencyMillis the observed latency
+     */
+    public void save(AIProviderRequestDto request, AIProviderResponseDto response, long latencyMillis) {
+        String fingerprint = getFingerprint(request);
+        AIRecordingDto recording = AIRecordingDto.builder()
+                .fingerprint(fingerprint)
+                .request(request)
+                .response(response)
+                .latencyMs(latencyMillis)
+                .recordedAt(LocalDateTime.now())
+                .build();
+
+        try {
+            // Write to a temporary file first so a replay never reads a partial recording
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, fingerprint, ".tmp");
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(temporary.toFile(), recording);
+            Files.move(temporary, getPath(fingerprint),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            recordings.put(fingerprint, recording);
+        } catch (IOException e) {
+            log.error("Failed to record AI response {}", fingerprint, e);
+        }
+    }
+
+    private AIRecordingDto read(String fingerprint) {
+        Path path = getPath(fingerprint);
+        if (!Files.exists(path)) {
+            return null;
+        }
+
+        try {
+            return objectMapper.readValue(path.toFile(), AIRecordingDto.class);
+        } catch (IOException e) {
+            log.error("Failed to read AI recording {}", path, e);
+            return null;
+        }
+    }
+
+    private Path getPath(String fingerprint) {
+        return directory.resolve(fingerprint + ".json");
+    }
+}
@@ -0,0 +1,195 @@
+package com.fitplanpro.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight coalescing of identical AI requests. Concurrent callers with the
+ * same request fingerprint share one in-flight {@link CompletableFuture}, so only
+ * one provider call is made per node. When Redis is the cache backend, a short
+ * lock extends this across nodes: the lock holder publishes its result and other
+ * nodes wait for it instead of calling the provider themselves.
+ */
+@Component
+@Slf4j
+public class AIRequestCoalescer {
+
+    private static final String LOCK_PREFIX = "fitplan:ai:lock:";
+    private static final String RESULT_PREFIX = "fitplan:ai:result:";
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Counter providerCalls;
+    private final Counter coalescedLocal;
+    private final Counter coalescedRemote;
+
+    @Value("${fitplan.ai.coalescing.lock-ttl-ms:90000}")
+    private long lockTtlMillis;
+
+    @Value("${fitplan.ai.coalescing.result-ttl-ms:60000}")
+    private long resultTtlMillis;
+
+    @Value("${fitplan.ai.coalescing.poll-interval-ms:250}")
+    private long pollIntervalMillis;
+
+    public AIRequestCoalescer(
+            ObjectProvider<RedisTemplate<String, Object>> redisTemplateProvider,
+            @Value("${spring.cache.type:simple}") String cacheType,
+            MeterRegistry meterRegistry) {
+        this.redisTemplate = "redis".equalsIgnoreCase(cacheType) ? redisTemplateProvider.getIfAvailable() : null;
+
+        this.providerCalls = Counter.builder("fitplan.ai.requests")
+                .description("AI requests that reached the provider")
+                .register(meterRegistry);
+        this.coalescedLocal = Counter.builder("fitplan.ai.requests.coalesced")
+                .description("AI requests served by another caller's in-flight call")
+                .tag("scope", "local")
+                .register(meterRegistry);
+        this.coalescedRemote = Counter.builder("fitplan.ai.requests.coalesced")
+                .description("AI requests served by another caller's in-flight call")
+                .tag("scope", "remote")
+                .register(meterRegistry);
+        meterRegistry.gauge("fitplan.ai.requests.in.flight", inFlight, Map::size);
+    }
+
+    /**
+     * Run an AI call once per fingerprint, sharing the result with concurrent callers
+     *
+     * @param key the request fingerprint
+     * @param call the provider call
+     * @return the call result
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Supplier<T> call) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, future);
+
+        if (existing != null) {
+            // Another caller on this node is already making the same request
+            coalescedLocal.increment();
+            return (T) await(existing);
+        }
+
+        try {
+            T result = callOnce(key, call);
+            future.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private Object await(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T callOnce(String key, Supplier<T> call) {
+        if (redisTemplate == null) {
+            providerCalls.increment();
+            return call.get();
+        }
+
+        String lockKey = LOCK_PREFIX + key;
+        String resultKey = RESULT_PREFIX + key;
+        String token = UUID.randomUUID().toString();
+
+        Boolean acquired;
+        try {
+            acquired = redisTemplate.opsForValue().setIfAbsent(lockKey, token, Duration.ofMillis(lockTtlMillis));
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable for AI request coalescing, calling provider directly", e);
+            providerCalls.increment();
+            return call.get();
+        }
+
+        if (Boolean.TRUE.equals(acquired)) {
+            try {
+                providerCalls.increment();
+                T result = call.get();
+                publish(resultKey, result);
+                return result;
+            } finally {
+                release(lockKey, token);
+            }
+        }
+
+        // Another node holds the lock: wait for its result, or call ourselves once it gives up
+        T remoteResult = (T) awaitRemote(lockKey, resultKey);
+        if (remoteResult != null) {
+            coalescedRemote.increment();
+            return remoteResult;
+        }
+
+        providerCalls.increment();
+        return call.get();
+    }
+
+    private Object awaitRemote(String lockKey, String resultKey) {
+        long deadline = System.currentTimeMillis() + lockTtlMillis;
+        try {
+            while (System.currentTimeMillis() < deadline) {
+                Object result = redisTemplate.opsForValue().get(resultKey);
+                if (result != null) {
+                    return result;
+                }
+                if (!Boolean.TRUE.equals(redisTemplate.hasKey(lockKey))) {
+                    // Lock released without a result: the other node failed
+                    return redisTemplate.opsForValue().get(resultKey);
+                }
+                Thread.sleep(pollIntervalMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable while waiting for coalesced AI request", e);
+        }
+        return null;
+    }
+
+    private void publish(String resultKey, Object result) {
+        try {
+            redisTemplate.opsForValue().set(resultKey, result, Duration.ofMillis(resultTtlMillis));
+        } catch (DataAccessException e) {
+            log.warn("Failed to publish coalesced AI result", e);
+        }
+    }
+
+    private void release(String lockKey, String token) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(lockKey), token);
+        } catch (DataAccessException e) {
+            log.warn("Failed to release AI request lock {}", lockKey, e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.fitplanpro.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fitplanpro.dto.aiservice.AIProviderRequestDto;
+import com.fitplanpro.dto.aiservice.AIServiceRequestDto;
+import com.fitplanpro.util.HashUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Builds canonical fingerprints of AI requests. Parameters are sorted by key at
+ * every level before hashing, so logically identical requests always produce the
+ * same fingerprint regardless of map iteration order.
+ */
+@Component
+public class AIRequestKeyGenerator {
+
+    private final ObjectWriter canonicalWriter;
+
+    public AIRequestKeyGenerator(ObjectMapper objectMapper) {
+        this.canonicalWriter = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    }
+
+    /**
+     * Create the fingerprint for an AI request
+     *
+     * @param requestDto the AI service request
+     * @param templateVersion the version of the prompt template that will be used
+     * @param model the model that will be called
+     * @return the SHA-256 hex fingerprint
+     */
+    public String generateKey(AIServiceRequestDto requestDto, String templateVersion, String model) {
+        Map<String, Object> keyMap = new LinkedHashMap<>();
+        keyMap.put("templateType", requestDto.getTemplateType());
+        keyMap.put("templateVersion", templateVersion);
+        keyMap.put("model", model);
+        keyMap.put("parameters", requestDto.getParameters());
+        keyMap.put("maxTokens", requestDto.getMaxTokens());
+        keyMap.put("temperature", requestDto.getTemperature());
+
+        try {
+            return HashUtils.sha256Hex(canonicalWriter.writeValueAsString(keyMap));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize AI request for fingerprinting", e);
+        }
+    }
+
+    /**
+     * Create the provider-independent fingerprint for a rendered provider request
+     *
+     * @param request the provider request
+     * @return the SHA-256 hex fingerprint
+     */
+    public String generateKey(AIProviderRequestDto request) {
+        try {
+            return HashUtils.sha256Hex(canonicalWriter.writeValueAsString(request));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize AI request for fingerprinting", e);
+        }
+    }
+}
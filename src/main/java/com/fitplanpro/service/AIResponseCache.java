@@ -0,0 +1,142 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.dto.aiservice.AIServiceResponseDto;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.fitplanpro.enums.PromptTemplateType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two-tier cache for AI responses: a bounded local cache in front of Redis
+ * (when spring.cache.type=redis). Entries expire after a per-template TTL,
+ * configured as fitplan.ai.cache.ttl-ms.&lt;template-type&gt;, e.g.
+ * fitplan.ai.cache.ttl-ms.meal-plan.
+ */
+@Component
+@Slf4j
+public class AIResponseCache {
+
+    private static final String KEY_PREFIX = "fitplan:ai:response:";
+
+    private final Map<PromptTemplateType, Duration> ttls = new EnumMap<>(PromptTemplateType.class);
+    private final Cache<String, Entry> localEntries;
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+
+    public AIResponseCache(
+            ObjectProvider<RedisTemplate<String, Object>> redisTemplateProvider,
+            @Value("${spring.cache.type:simple}") String cacheType,
+            @Value("${fitplan.ai.cache.local.max-size:500}") int localMaxSize,
+            @Value("${fitplan.ai.cache.ttl-ms.default:86400000}") long defaultTtlMillis,
+            Environment environment,
+            MeterRegistry meterRegistry) {
+        this.redisTemplate = "redis".equalsIgnoreCase(cacheType) ? redisTemplateProvider.getIfAvailable() : null;
+        this.localEntries = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfter(Expiry.<String, Entry>writing((key, entry) ->
+                        Duration.ofMillis(Math.max(0, entry.expiresAt() - System.currentTimeMillis()))))
+                .build();
+
+        for (PromptTemplateType templateType : PromptTemplateType.values()) {
+            String property = "fitplan.ai.cache.ttl-ms." + templateType.name().toLowerCase().replace('_', '-');
+            ttls.put(templateType, Duration.ofMillis(environment.getProperty(property, Long.class, defaultTtlMillis)));
+        }
+
+        this.localHits = counter(meterRegistry, "local", "hit");
+        this.localMisses = counter(meterRegistry, "local", "miss");
+        this.remoteHits = counter(meterRegistry, "remote", "hit");
+        this.remoteMisses = counter(meterRegistry, "remote", "miss");
+        meterRegistry.gauge("fitplan.ai.cache.local.size", localEntries, Cache::estimatedSize);
+    }
+
+    /**
+     * Get a cached response, checking the local tier before Redis
+     *
+     * @param cacheKey the canonical request key
+     * @return the cached response, or null if not cached
+     */
+    public AIServiceResponseDto get(String cacheKey) {
+        Entry entry = localEntries.getIfPresent(cacheKey);
+        if (entry != null) {
+            localHits.increment();
+            return entry.response();
+        }
+        localMisses.increment();
+
+        if (redisTemplate == null) {
+            return null;
+        }
+
+        try {
+            String redisKey = KEY_PREFIX + cacheKey;
+            Object cached = redisTemplate.opsForValue().get(redisKey);
+            if (cached instanceof AIServiceResponseDto response) {
+                remoteHits.increment();
+
+                // Promote to the local tier for the rest of the entry's lifetime
+                Long remainingMillis = redisTemplate.getExpire(redisKey, TimeUnit.MILLISECONDS);
+                if (remainingMillis != null && remainingMillis > 0) {
+                    putLocal(cacheKey, response, System.currentTimeMillis() + remainingMillis);
+                }
+                return response;
+            }
+        } catch (DataAccessException e) {
+            log.warn("Redis unavailable for AI response cache lookup", e);
+        }
+
+        remoteMisses.increment();
+        return null;
+    }
+
+    /**
+     * Cache a response in both tiers
+     *
+     * @param templateType the template type, which selects the TTL
+     * @param cacheKey the canonical request key
+     * @param response the response to cache
+     */
+    public void put(PromptTemplateType templateType, String cacheKey, AIServiceResponseDto response) {
+        Duration ttl = ttls.get(templateType);
+        putLocal(cacheKey, response, System.currentTimeMillis() + ttl.toMillis());
+
+        if (redisTemplate != null) {
+            try {
+                redisTemplate.opsForValue().set(KEY_PREFIX + cacheKey, response, ttl);
+            } catch (DataAccessException e) {
+                log.warn("Failed to store AI response in Redis", e);
+            }
+        }
+    }
+
+    private void putLocal(String cacheKey, AIServiceResponseDto response, long expiresAt) {
+        localEntries.put(cacheKey, new Entry(response, expiresAt));
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder("fitplan.ai.cache.requests")
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Entry(AIServiceResponseDto response, long expiresAt) {
+    }
+}
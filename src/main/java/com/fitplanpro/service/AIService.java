@@ -1,28 +1,21 @@
 package com.fitplanpro.service;
 
-import com.anthropic.client.AnthropicClient;
-import com.anthropic.models.messages.Message;
-import com.anthropic.models.messages.MessageCreateParams;
-import com.anthropic.models.messages.MessageParam;
-import com.anthropic.models.messages.Model;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fitplanpro.dto.aiservice.AIPromptTemplateDto;
+import com.fitplanpro.dto.aiservice.AIProviderRequestDto;
+import com.fitplanpro.dto.aiservice.AIProviderResponseDto;
 import com.fitplanpro.dto.aiservice.AIServiceRequestDto;
 import com.fitplanpro.dto.aiservice.AIServiceResponseDto;
+import com.fitplanpro.enums.AIProvider;
 import com.fitplanpro.exception.AIServiceException;
-import com.fitplanpro.repository.AIPromptTemplateRepository;
-import com.theokanning.openai.completion.chat.ChatCompletionRequest;
-import com.theokanning.openai.completion.chat.ChatMessage;
-import com.theokanning.openai.completion.chat.ChatMessageRole;
-import com.theokanning.openai.service.OpenAiService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 /**
  * Service for AI operations
@@ -32,16 +25,14 @@ import java.util.*;
 @Slf4j
 public class AIService {
 
-    private final OpenAiService openAiService;
-    private final AnthropicClient anthropicClient;
-    private final AIPromptTemplateRepository promptTemplateRepository;
+    private final List<AIProviderClient> providerClients;
+    private final PromptTemplateCache promptTemplateCache;
     private final ObjectMapper objectMapper;
-
-    @Value("${fitplan.ai.openai.model}")
-    private String openAiModel;
-
-    @Value("${fitplan.ai.claude.model}")
-    private String claudeModel;
+    private final AIRequestKeyGenerator keyGenerator;
+    private final AIRequestCoalescer requestCoalescer;
+    private final AIResponseCache responseCache;
+    private final AIProviderRouter providerRouter;
+    private final AIUsageRecorder usageRecorder;
 
     @Value("${fitplan.ai.cache.enabled:true}")
     private boolean cacheEnabled;
@@ -52,69 +43,129 @@ public class AIService {
      * @param requestDto the AI service request
      * @return the AI service response
      */
-    @Cacheable(value = "aiResponses", key = "#requestDto.toString()", condition = "${fitplan.ai.cache.enabled:true}")
     public AIServiceResponseDto generateContent(AIServiceRequestDto requestDto) {
         // Get template
-        AIPromptTemplateDto template = promptTemplateRepository
-                .findTopByTemplateTypeAndIsActiveTrueOrderByVersionDesc(requestDto.getTemplateType())
-                .map(t -> new AIPromptTemplateDto(
-                        t.getId(),
-                        t.getTemplateName(),
-                        t.getTemplateType(),
-                        t.getTemplateContent(),
-                        t.getVersion(),
-                        t.getIsActive(),
-                        t.getCreatedAt(),
-                        t.getUpdatedAt()
-                ))
-                .orElseThrow(() -> new AIServiceException("No active template found for type: " + requestDto.getTemplateType()));
+        CompiledPromptTemplate template = promptTemplateCache.getActiveTemplate(requestDto.getTemplateType());
+
+        // Create cache key for the model the request will be routed to
+        AIProvider primaryProvider = providerRouter.selectPrimary(getPreferredProvider(requestDto));
+        String cacheKey = getCacheKey(requestDto, template, primaryProvider);
+
+        if (cacheEnabled) {
+            AIServiceResponseDto cached = responseCache.get(cacheKey);
+            if (cached != null) {
+                usageRecorder.recordCacheHit(cached.getModelUsed(), requestDto.getTemplateType());
+                return AIServiceResponseDto.builder()
+                        .modelUsed(cached.getModelUsed())
+                        .response(cached.getResponse())
+                        .processingTimeMs(cached.getProcessingTimeMs())
+                        .fromCache(true)
+                        .cacheKey(cacheKey)
+                        .build();
+            }
+        }
+
+        // Identical concurrent requests share a single provider call
+        return requestCoalescer.execute(cacheKey, () -> {
+            AIServiceResponseDto response = generateUncached(requestDto, template, primaryProvider);
+            if (cacheEnabled) {
+                responseCache.put(requestDto.getTemplateType(), response.getCacheKey(), response);
+            }
+            return response;
+        });
+    }
+
+    /**
+     * Generate content using AI, streaming it from the provider. Each object in an
+     * array named in sectionNames is passed to the listener as soon as it has been
+     * received. If the primary provider fails part-way, the fallback provider's
+     * sections are reported again from the start.
+     *
+     * @param requestDto the AI service request
+     * @param sectionNames the array field names to report, e.g. daily_plans
+     * @param sectionListener the listener for each completed section element
+     * @return the complete AI service response
+     */
+    public AIServiceResponseDto streamContent(AIServiceRequestDto requestDto, Set<String> sectionNames,
+                                              BiConsumer<String, Map<String, Object>> sectionListener) {
+        // Get template
+        CompiledPromptTemplate template = promptTemplateCache.getActiveTemplate(requestDto.getTemplateType());
+
+        // Create cache key for the model the request will be routed to
+        AIProvider primaryProvider = providerRouter.selectPrimary(getPreferredProvider(requestDto));
+        String cacheKey = getCacheKey(requestDto, template, primaryProvider);
+
+        if (cacheEnabled) {
+            AIServiceResponseDto cached = responseCache.get(cacheKey);
+            if (cached != null) {
+                usageRecorder.recordCacheHit(cached.getModelUsed(), requestDto.getTemplateType());
+                IncrementalJsonSectionParser.emitSections(cached.getResponse(), sectionNames, sectionListener);
+                return AIServiceResponseDto.builder()
+                        .modelUsed(cached.getModelUsed())
+                        .response(cached.getResponse())
+                        .processingTimeMs(cached.getProcessingTimeMs())
+                        .fromCache(true)
+                        .cacheKey(cacheKey)
+                        .build();
+            }
+        }
 
         // Create prompt
-        String prompt = createPrompt(template.getTemplateContent(), requestDto.getParameters());
+        AIProviderRequestDto providerRequest = createProviderRequest(template.render(requestDto.getParameters()),
+                requestDto);
 
-        // Generate content
+        // Stream content; partial output is already visible, so never hedge
         long startTime = System.currentTimeMillis();
-        Map response;
-        String modelUsed;
+        AIProviderRouter.ProviderResult<Completion> result = providerRouter.executeWithoutHedging(
+                primaryProvider, provider -> {
+                    IncrementalJsonSectionParser sectionParser =
+                            new IncrementalJsonSectionParser(objectMapper, sectionNames, sectionListener);
+                    return recordingErrors(provider, requestDto,
+                            () -> streamWith(provider, providerRequest, sectionParser));
+                });
+
+        AIServiceResponseDto response = AIServiceResponseDto.builder()
+                .modelUsed(getModelName(result.provider()))
+                .response(result.value().content())
+                .processingTimeMs(System.currentTimeMillis() - startTime)
+                .fromCache(false)
+                .cacheKey(getCacheKey(requestDto, template, result.provider()))
+                .estimatedCost(result.value().estimatedCost())
+                .build();
+        usageRecorder.recordResponse(response.getModelUsed(), requestDto.getTemplateType(),
+                response.getProcessingTimeMs(), result.fallback());
 
-        try {
-            // Check if a specific model is requested
-            if (requestDto.getModelPreference() != null) {
-                if (requestDto.getModelPreference().toLowerCase().contains("claude")) {
-                    response = generateWithClaude(prompt, requestDto);
-                    modelUsed = claudeModel;
-                } else {
-                    response = generateWithOpenAI(prompt, requestDto);
-                    modelUsed = openAiModel;
-                }
-            } else {
-                // Default to OpenAI
-                response = generateWithOpenAI(prompt, requestDto);
-                modelUsed = openAiModel;
-            }
-        } catch (Exception e) {
-            log.error("Error generating content with primary model, trying fallback", e);
-            try {
-                // Fallback to Claude if OpenAI fails, or vice versa
-                if (requestDto.getModelPreference() != null &&
-                        requestDto.getModelPreference().toLowerCase().contains("claude")) {
-                    response = generateWithOpenAI(prompt, requestDto);
-                    modelUsed = openAiModel;
-                } else {
-                    response = generateWithClaude(prompt, requestDto);
-                    modelUsed = claudeModel;
-                }
-            } catch (Exception fallbackEx) {
-                log.error("Error generating content with fallback model", fallbackEx);
-                throw new AIServiceException("Failed to generate content with both models", fallbackEx);
-            }
+        if (cacheEnabled) {
+            responseCache.put(requestDto.getTemplateType(), response.getCacheKey(), response);
         }
+        return response;
+    }
+
+    /**
+     * Generate content with the AI providers, bypassing the cache
+     *
+     * @param requestDto the AI service request
+     * @param template the prompt template
+     * @param primaryProvider the provider to try first
+     * @return the AI service response, keyed by the model that produced it
+     */
+    private AIServiceResponseDto generateUncached(AIServiceRequestDto requestDto, CompiledPromptTemplate template,
+                                                  AIProvider primaryProvider) {
+        // Create prompt
+        AIProviderRequestDto providerRequest = createProviderRequest(template.render(requestDto.getParameters()),
+                requestDto);
+
+        // Generate content
+        long startTime = System.currentTimeMillis();
+        AIProviderRouter.ProviderResult<Completion> result = providerRouter.execute(
+                primaryProvider,
+                provider -> recordingErrors(provider, requestDto, () -> generateWith(provider, providerRequest)));
+        Map<String, Object> response = result.value().content();
+        String modelUsed = getModelName(result.provider());
 
         long endTime = System.currentTimeMillis();
         long processingTime = endTime - startTime;
-
-        // Create cache key
-        String cacheKey = createCacheKey(requestDto);
+        usageRecorder.recordResponse(modelUsed, requestDto.getTemplateType(), processingTime, result.fallback());
 
         // Return response
         return AIServiceResponseDto.builder()
@@ -122,61 +173,66 @@ public class AIService {
                 .response(response)
                 .processingTimeMs(processingTime)
                 .fromCache(false)
-                .cacheKey(cacheKey)
+                .cacheKey(getCacheKey(requestDto, template, result.provider()))
+                .estimatedCost(result.value().estimatedCost())
                 .build();
     }
 
     /**
-     * Generate content with OpenAI
+     * Get the cache key of a request sent to a provider, so responses from
+     * different models are never served for one another
      *
-     * @param prompt the prompt
-     * @param requestDto the request DTO
-     * @return the response
+     * @param requestDto the AI service request
+     * @param template the prompt template
+     * @param provider the provider
+     * @return the canonical cache key
      */
-    private Map<String, Object> generateWithOpenAI(String prompt, AIServiceRequestDto requestDto) {
-        try {
-            // Parse prompt JSON
-            Map<String, Object> promptMap = objectMapper.readValue(prompt, Map.class);
-
-            // Extract system prompt
-            String systemPrompt = (String) promptMap.get("system_prompt");
-
-            // Extract user context
-            Map<String, Object> userContext = (Map<String, Object>) promptMap.get("user_context");
-            String userPrompt = objectMapper.writeValueAsString(userContext);
-
-            // Create chat messages
-            List<ChatMessage> messages = new ArrayList<>();
-            messages.add(new ChatMessage(ChatMessageRole.SYSTEM.value(), systemPrompt));
-            messages.add(new ChatMessage(ChatMessageRole.USER.value(), userPrompt));
-
-            // Create completion request
-            ChatCompletionRequest completionRequest = ChatCompletionRequest.builder()
-                    .model(openAiModel)
-                    .messages(messages)
-                    .maxTokens(requestDto.getMaxTokens())
-                    .temperature(requestDto.getTemperature())
-                    .build();
+    private String getCacheKey(AIServiceRequestDto requestDto, CompiledPromptTemplate template, AIProvider provider) {
+        return keyGenerator.generateKey(requestDto, template.getVersion(), getModelName(provider));
+    }
 
-            // Get completion
-            String completion = openAiService.createChatCompletion(completionRequest)
-                    .getChoices().getFirst().getMessage().getContent();
+    /**
+     * Generate content with a specific provider
+     *
+     * @param provider the provider
+     * @param providerRequest the provider request
+     * @return the response and its estimated cost
+     */
+    private Completion generateWith(AIProvider provider, AIProviderRequestDto providerRequest) {
+        AIProviderResponseDto completion = getClient(provider).complete(providerRequest);
+        double estimatedCost = recordTokens(completion, providerRequest);
 
+        try {
             // Parse completion JSON
-            return objectMapper.readValue(completion, Map.class);
+            return new Completion(objectMapper.readValue(completion.getContent(), Map.class), estimatedCost);
         } catch (JsonProcessingException e) {
-            throw new AIServiceException("Error processing JSON with OpenAI", e);
+            throw new AIServiceException("Error processing JSON with " + provider, e);
         }
     }
 
     /**
-     * Generate content with Claude
+     * Stream content from a specific provider
+     *
+     * @param provider the provider
+     * @param providerRequest the provider request
+     * @param sectionParser the parser receiving streamed text
+     * @return the complete response and its estimated cost
+     */
+    private Completion streamWith(AIProvider provider, AIProviderRequestDto providerRequest,
+                                  IncrementalJsonSectionParser sectionParser) {
+        AIProviderResponseDto completion = getClient(provider).stream(providerRequest, sectionParser::feed);
+        double estimatedCost = recordTokens(completion, providerRequest);
+        return new Completion(sectionParser.finish(), estimatedCost);
+    }
+
+    /**
+     * Create a provider request from a rendered prompt
      *
-     * @param prompt     the prompt
+     * @param prompt the prompt
      * @param requestDto the request DTO
-     * @return the response
+     * @return the provider request
      */
-    private Map<String, Object> generateWithClaude(String prompt, AIServiceRequestDto requestDto) {
+    private AIProviderRequestDto createProviderRequest(String prompt, AIServiceRequestDto requestDto) {
         try {
             // Parse prompt JSON
             Map<String, Object> promptMap = objectMapper.readValue(prompt, Map.class);
@@ -188,92 +244,91 @@ public class AIService {
             Map<String, Object> userContext = (Map<String, Object>) promptMap.get("user_context");
             String userPrompt = objectMapper.writeValueAsString(userContext);
 
-            // Create message params
-            MessageCreateParams messageParams = MessageCreateParams.builder()
-                    .model(getClaudeModelEnum(claudeModel))
+            return AIProviderRequestDto.builder()
+                    .templateType(requestDto.getTemplateType())
+                    .systemPrompt(systemPrompt)
+                    .userPrompt(userPrompt)
                     .maxTokens(requestDto.getMaxTokens())
                     .temperature(requestDto.getTemperature())
-                    .system(systemPrompt)
-                    .messages(Collections.singletonList(MessageParam.builder()
-                            .role(MessageParam.Role.USER)
-                            .content(userPrompt)
-                            .build()))
                     .build();
-
-            // Get completion
-            Message messageResponse = anthropicClient.messages().create(messageParams);
-            String completion = String.valueOf(messageResponse.content().getFirst().text());
-
-            // Parse completion JSON
-            return objectMapper.readValue(completion, Map.class);
         } catch (JsonProcessingException e) {
-            throw new AIServiceException("Error processing JSON with Claude", e);
+            throw new AIServiceException("Error processing prompt JSON", e);
         }
     }
 
     /**
-     * Convert string model name to Model enum
+     * Record the tokens reported by a provider
      *
-     * @param modelName the model name string
-     * @return the Model enum
+     * @param completion the provider response
+     * @param providerRequest the provider request
+     * @return the estimated cost of the tokens
      */
-    private Model getClaudeModelEnum(String modelName) {
-        return switch (modelName.toLowerCase()) {
-            case "claude-3-haiku-20240307" -> Model.CLAUDE_3_HAIKU_20240307;
-            case "claude-3-5-sonnet-20241022" -> Model.CLAUDE_3_5_SONNET_20241022;
-            case "claude-3-5-haiku-20241022" -> Model.CLAUDE_3_5_HAIKU_20241022;
-            case "claude-sonnet-4-20250514" -> Model.CLAUDE_SONNET_4_20250514;
-            case "claude-opus-4-1-20250805" -> Model.CLAUDE_OPUS_4_1_20250805;
-            default -> {
-                log.warn("Unknown Claude model: {}, using default CLAUDE_3_OPUS_20240229", modelName);
-                yield Model.CLAUDE_3_OPUS_20240229;
-            }
-        };
+    private double recordTokens(AIProviderResponseDto completion, AIProviderRequestDto providerRequest) {
+        return usageRecorder.recordTokens(completion.getModel(), providerRequest.getTemplateType(),
+                completion.getPromptTokens() != null ? completion.getPromptTokens() : 0,
+                completion.getCompletionTokens() != null ? completion.getCompletionTokens() : 0);
     }
 
     /**
-     * Create prompt by replacing parameters in template
+     * Get the client for a provider
      *
-     * @param templateContent the template content
-     * @param parameters the parameters
-     * @return the prompt
+     * @param provider the provider
+     * @return the provider client
      */
-    private String createPrompt(String templateContent, Map<String, Object> parameters) {
-        String prompt = templateContent;
-
-        for (Map.Entry<String, Object> entry : parameters.entrySet()) {
-            String placeholder = "{{" + entry.getKey() + "}}";
+    private AIProviderClient getClient(AIProvider provider) {
+        return providerClients.stream()
+                .filter(client -> client.getProvider() == provider)
+                .findFirst()
+                .orElseThrow(() -> new AIServiceException("No client configured for AI provider " + provider));
+    }
 
-            if (entry.getValue() != null) {
-                prompt = prompt.replace(placeholder, entry.getValue().toString());
-            } else {
-                prompt = prompt.replace(placeholder, "");
+    /**
+     * Run a provider call, recording a failure in the usage metrics
+     *
+     * @param provider the provider
+     * @param requestDto the request DTO
+     * @param call the provider call
+     * @return the call result
+     */
+    private <T> T recordingErrors(AIProvider provider, AIServiceRequestDto requestDto, Supplier<T> call) {
+        try {
+            return call.get();
+        } catch (RuntimeException e) {
+            // A cancelled hedge loser is not an error
+            if (!Thread.currentThread().isInterrupted()) {
+                usageRecorder.recordError(getModelName(provider), requestDto.getTemplateType());
             }
+            throw e;
         }
-
-        return prompt;
     }
 
     /**
-     * Create cache key for AI service request
+     * Get the provider explicitly requested for a request
      *
      * @param requestDto the request DTO
-     * @return the cache key
+     * @return the preferred provider, or null to let the router pick by latency
      */
-    private String createCacheKey(AIServiceRequestDto requestDto) {
-        try {
-            // Create map with key fields
-            Map<String, Object> keyMap = new HashMap<>();
-            keyMap.put("templateType", requestDto.getTemplateType());
-            keyMap.put("parameters", requestDto.getParameters());
-            keyMap.put("maxTokens", requestDto.getMaxTokens());
-            keyMap.put("temperature", requestDto.getTemperature());
-
-            // Convert to string
-            return objectMapper.writeValueAsString(keyMap);
-        } catch (JsonProcessingException e) {
-            log.error("Error creating cache key", e);
-            return requestDto.toString();
+    private AIProvider getPreferredProvider(AIServiceRequestDto requestDto) {
+        if (requestDto.getModelPreference() == null) {
+            return null;
         }
+        return requestDto.getModelPreference().toLowerCase().contains("claude") ?
+                AIProvider.CLAUDE : AIProvider.OPENAI;
+    }
+
+    /**
+     * Get the configured model name for a provider
+     *
+     * @param provider the provider
+     * @return the model name
+     */
+    private String getModelName(AIProvider provider) {
+        return getClient(provider).getModelName();
+    }
+
+    /**
+     * A parsed provider response and the estimated cost of producing it
+     */
+    private record Completion(Map<String, Object> content, double estimatedCost) {
     }
-}
\ No newline at end of file
+}
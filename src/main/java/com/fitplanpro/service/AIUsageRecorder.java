@@ -0,0 +1,310 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.dto.aiservice.AIUsageMetricsDto;
+import com.fitplanpro.entity.AIUsageRollup;
+import com.fitplanpro.enums.PromptTemplateType;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accounts AI calls per model and prompt template type: requests, cache hits,
+ * fallbacks, errors, tokens reported by the providers and a latency histogram.
+ * Recording only touches LongAdders, so the hot path takes no locks. Every
+ * fitplan.ai.usage.rollup-interval-ms the change since the previous rollup is
+ * handed to the {@link AIUsageRollupWriter}.
+ */
+@Component
+@Slf4j
+public class AIUsageRecorder {
+
+    // Upper bounds of the latency histogram buckets; the last bucket is unbounded
+    private static final long[] LATENCY_BUCKETS_MS = {250, 500, 1000, 2000, 4000, 8000, 16000, 32000, 64000};
+
+    private final Map<UsageKey, UsageStats> stats = new ConcurrentHashMap<>();
+    private final Map<UsageKey, UsageSnapshot> lastRollup = new HashMap<>();
+    private final AIUsageRollupWriter rollupWriter;
+    private final Map<String, TokenRates> tokenRates;
+
+    private LocalDateTime lastRollupAt = LocalDateTime.now();
+
+    public AIUsageRecorder(
+            AIUsageRollupWriter rollupWriter,
+            @Value("${fitplan.ai.openai.model}") String openAiModel,
+            @Value("${fitplan.ai.openai.cost-per-1k-prompt-tokens:0.01}") double openAiPromptCost,
+            @Value("${fitplan.ai.openai.cost-per-1k-completion-tokens:0.03}") double openAiCompletionCost,
+            @Value("${fitplan.ai.claude.model}") String claudeModel,
+            @Value("${fitplan.ai.claude.cost-per-1k-prompt-tokens:0.003}") double claudePromptCost,
+            @Value("${fitplan.ai.claude.cost-per-1k-completion-tokens:0.015}") double claudeCompletionCost) {
+        this.rollupWriter = rollupWriter;
+
+        // Both providers may be configured with the same model name, e.g. in replay mode; the first rates win
+        Map<String, TokenRates> rates = new HashMap<>();
+        rates.merge(openAiModel, new TokenRates(openAiPromptCost, openAiCompletionCost), (first, second) -> first);
+        rates.merge(claudeModel, new TokenRates(claudePromptCost, claudeCompletionCost), (first, second) -> first);
+        this.tokenRates = Map.copyOf(rates);
+    }
+
+    /**
+     * Record a response served from the cache
+     *
+     * @param model the model that originally produced the response
+     * @param templateType the template type
+     */
+    public void recordCacheHit(String model, PromptTemplateType templateType) {
+        UsageStats usage = statsFor(model, templateType);
+        usage.requests.increment();
+        usage.cacheHits.increment();
+    }
+
+    /**
+     * Record a response produced by a provider
+     *
+     * @param model the model that produced the response
+     * @param templateType the template type
+     * @param latencyMillis the end-to-end latency, including any fallback
+     * @param fallback whether the response came from the fallback provider
+     */
+    public void recordResponse(String model, PromptTemplateType templateType, long latencyMillis, boolean fallback) {
+        UsageStats usage = statsFor(model, templateType);
+        usage.requests.increment();
+        usage.responses.increment();
+        usage.totalLatencyMs.add(latencyMillis);
+        usage.latencyHistogram[bucketIndex(latencyMillis)].increment();
+        if (fallback) {
+            usage.fallbacks.increment();
+        }
+    }
+
+    /**
+     * Record a failed provider call
+     *
+     * @param model the model that failed
+     * @param templateType the template type
+     */
+    public void recordError(String model, PromptTemplateType templateType) {
+        statsFor(model, templateType).errors.increment();
+    }
+
+    /**
+     * Record tokens reported in a provider's usage fields
+     *
+     * @param model the model
+     * @param templateType the template type
+     * @param promptTokens the prompt (input) tokens
+     * @param completionTokens the completion (output) tokens
+     * @return the estimated cost of the tokens
+     */
+    public double recordTokens(String model, PromptTemplateType templateType, long promptTokens, long completionTokens) {
+        UsageStats usage = statsFor(model, templateType);
+        usage.promptTokens.add(promptTokens);
+        usage.completionTokens.add(completionTokens);
+        return estimateCost(model, promptTokens, completionTokens);
+    }
+
+    /**
+     * Get usage metrics since startup
+     *
+     * @return the usage metrics DTO
+     */
+    public AIUsageMetricsDto getMetrics() {
+        long requests = 0;
+        long cacheHits = 0;
+        long responses = 0;
+        long totalLatency = 0;
+        long tokens = 0;
+        double cost = 0;
+        Map<String, Long> requestsByModel = new TreeMap<>();
+        Map<PromptTemplateType, Long> requestsByTemplateType = new EnumMap<>(PromptTemplateType.class);
+
+        for (Map.Entry<UsageKey, UsageStats> entry : stats.entrySet()) {
+            UsageSnapshot snapshot = entry.getValue().snapshot();
+            requests += snapshot.requests();
+            cacheHits += snapshot.cacheHits();
+            responses += snapshot.responses();
+            totalLatency += snapshot.totalLatencyMs();
+            tokens += snapshot.promptTokens() + snapshot.completionTokens();
+            cost += estimateCost(entry.getKey().model(), snapshot);
+            requestsByModel.merge(entry.getKey().model(), snapshot.requests(), Long::sum);
+            requestsByTemplateType.merge(entry.getKey().templateType(), snapshot.requests(), Long::sum);
+        }
+
+        return AIUsageMetricsDto.builder()
+                .totalRequests(requests)
+                .cachedResponses(cacheHits)
+                .directResponses(responses)
+                .cacheHitRatio(requests > 0 ? (double) cacheHits / requests : 0.0)
+                .requestsByModel(requestsByModel)
+                .requestsByTemplateType(requestsByTemplateType)
+                .averageResponseTimeMs(responses > 0 ? (double) totalLatency / responses : 0.0)
+                .tokensConsumed(tokens)
+                .estimatedCost(cost)
+                .build();
+    }
+
+    /**
+     * Hand the usage recorded since the previous rollup to the rollup writer
+     */
+    @Scheduled(fixedDelayString = "${fitplan.ai.usage.rollup-interval-ms:60000}",
+            initialDelayString = "${fitplan.ai.usage.rollup-interval-ms:60000}")
+    public synchronized void rollup() {
+        LocalDateTime periodStart = lastRollupAt;
+        LocalDateTime periodEnd = LocalDateTime.now();
+        List<AIUsageRollup> rollups = new ArrayList<>();
+
+        for (Map.Entry<UsageKey, UsageStats> entry : stats.entrySet()) {
+            UsageSnapshot current = entry.getValue().snapshot();
+            UsageSnapshot previous = lastRollup.put(entry.getKey(), current);
+            UsageSnapshot delta = previous != null ? current.minus(previous) : current;
+            if (delta.isEmpty()) {
+                continue;
+            }
+
+            rollups.add(AIUsageRollup.builder()
+                    .periodStart(periodStart)
+                    .periodEnd(periodEnd)
+                    .modelName(entry.getKey().model())
+                    .templateType(entry.getKey().templateType())
+                    .requestCount(delta.requests())
+                    .cacheHits(delta.cacheHits())
+                    .fallbacks(delta.fallbacks())
+                    .errors(delta.errors())
+                    .promptTokens(delta.promptTokens())
+                    .completionTokens(delta.completionTokens())
+                    .totalLatencyMs(delta.totalLatencyMs())
+                    .p50LatencyMs(delta.latencyPercentile(0.5))
+                    .p95LatencyMs(delta.latencyPercentile(0.95))
+                    .estimatedCost(estimateCost(entry.getKey().model(), delta))
+                    .build());
+        }
+
+        lastRollupAt = periodEnd;
+        if (!rollups.isEmpty()) {
+            rollupWriter.submit(rollups);
+        }
+    }
+
+    /**
+     * Write a final rollup on shutdown
+     */
+    @PreDestroy
+    public void shutdown() {
+        rollup();
+    }
+
+    private UsageStats statsFor(String model, PromptTemplateType templateType) {
+        return stats.computeIfAbsent(new UsageKey(model != null ? model : "unknown", templateType),
+                key -> new UsageStats());
+    }
+
+    private double estimateCost(String model, UsageSnapshot usage) {
+        return estimateCost(model, usage.promptTokens(), usage.completionTokens());
+    }
+
+    private double estimateCost(String model, long promptTokens, long completionTokens) {
+        TokenRates rates = tokenRates.get(model);
+        if (rates == null) {
+            return 0.0;
+        }
+        return promptTokens / 1000.0 * rates.promptCost() + completionTokens / 1000.0 * rates.completionCost();
+    }
+
+    private static int bucketIndex(long latencyMillis) {
+        for (int i = 0; i < LATENCY_BUCKETS_MS.length; i++) {
+            if (latencyMillis <= LATENCY_BUCKETS_MS[i]) {
+                return i;
+            }
+        }
+        return LATENCY_BUCKETS_MS.length;
+    }
+
+    private record UsageKey(String model, PromptTemplateType templateType) {
+    }
+
+    private record TokenRates(double promptCost, double completionCost) {
+    }
+
+    /**
+     * Live counters for one model and template type
+     */
+    private static final class UsageStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder cacheHits = new LongAdder();
+        private final LongAdder responses = new LongAdder();
+        private final LongAdder fallbacks = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder promptTokens = new LongAdder();
+        private final LongAdder completionTokens = new LongAdder();
+        private final LongAdder totalLatencyMs = new LongAdder();
+        private final LongAdder[] latencyHistogram = new LongAdder[LATENCY_BUCKETS_MS.length + 1];
+
+        private UsageStats() {
+            Arrays.setAll(latencyHistogram, i -> new LongAdder());
+        }
+
+        private UsageSnapshot snapshot() {
+            long[] histogram = new long[latencyHistogram.length];
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = latencyHistogram[i].sum();
+            }
+            return new UsageSnapshot(requests.sum(), cacheHits.sum(), responses.sum(), fallbacks.sum(),
+                    errors.sum(), promptTokens.sum(), completionTokens.sum(), totalLatencyMs.sum(), histogram);
+        }
+    }
+
+    /**
+     * Point-in-time counter values; adders are read without locking, so a
+     * snapshot may split a concurrent recording between two rollups
+     */
+    private record UsageSnapshot(long requests, long cacheHits, long responses, long fallbacks, long errors,
+                                 long promptTokens, long completionTokens, long totalLatencyMs,
+                                 long[] latencyHistogram) {
+
+        private UsageSnapshot minus(UsageSnapshot previous) {
+            long[] histogram = new long[latencyHistogram.length];
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = latencyHistogram[i] - previous.latencyHistogram[i];
+            }
+            return new UsageSnapshot(requests - previous.requests, cacheHits - previous.cacheHits,
+                    responses - previous.responses, fallbacks - previous.fallbacks, errors - previous.errors,
+                    promptTokens - previous.promptTokens, completionTokens - previous.completionTokens,
+                    totalLatencyMs - previous.totalLatencyMs, histogram);
+        }
+
+        private boolean isEmpty() {
+            return requests == 0 && errors == 0 && promptTokens == 0 && completionTokens == 0;
+        }
+
+        /**
+         * Estimate a latency percentile as the upper bound of the bucket containing it
+         *
+         * @param percentile the percentile, between 0 and 1
+         * @return the latency in milliseconds, or null if there were no responses
+         */
+        private Long latencyPercentile(double percentile) {
+            long count = Arrays.stream(latencyHistogram).sum();
+            if (count == 0) {
+                return null;
+            }
+
+            long rank = (long) Math.ceil(percentile * count);
+            long seen = 0;
+            int i = 0;
+            for (; i < latencyHistogram.length - 1; i++) {
+                seen += latencyHistogram[i];
+                if (seen >= rank) {
+                    break;
+                }
+            }
+            // Latencies beyond the last bound report that bound
+            return LATENCY_BUCKETS_MS[Math.min(i, LATENCY_BUCKETS_MS.length - 1)];
+        }
+    }
+}
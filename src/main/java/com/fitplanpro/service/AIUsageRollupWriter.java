@@ -0,0 +1,117 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.entity.AIUsageRollup;
+import com.fitplanpro.repository.AIUsageRollupRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes AI usage rollups from a bounded queue on a background thread, saving
+ * up to fitplan.ai.usage.writer.batch-size rows per transaction. Rollups are
+ * dropped with a warning when the queue is full, so a slow database never
+ * blocks the callers.
+ */
+@Component
+@Slf4j
+public class AIUsageRollupWriter {
+
+    private final AIUsageRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<AIUsageRollup> queue;
+    private final int batchSize;
+    private final Thread writerThread;
+
+    private volatile boolean running = true;
+
+    @Value("${fitplan.ai.usage.retention-ms:7776000000}") // Default: 90 days
+    private long retentionMillis;
+
+    public AIUsageRollupWriter(AIUsageRollupRepository rollupRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${fitplan.ai.usage.writer.queue-capacity:10000}") int queueCapacity,
+                               @Value("${fitplan.ai.usage.writer.batch-size:100}") int batchSize) {
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.writerThread = Thread.ofVirtual().name("ai-usage-writer").start(this::run);
+    }
+
+    /**
+     * Queue rollups for writing
+     *
+     * @param rollups the rollups
+     */
+    public void submit(List<AIUsageRollup> rollups) {
+        for (AIUsageRollup rollup : rollups) {
+            if (!queue.offer(rollup)) {
+                log.warn("AI usage rollup queue is full, dropping rollup for {} / {}",
+                        rollup.getModelName(), rollup.getTemplateType());
+            }
+        }
+    }
+
+    /**
+     * Delete rollups older than the retention period
+     */
+    @Scheduled(cron = "${fitplan.ai.usage.cleanup-cron:0 30 3 * * *}")
+    public void deleteExpiredRollups() {
+        int deleted = rollupRepository.deleteEndedBefore(
+                LocalDateTime.now().minus(Duration.ofMillis(retentionMillis)));
+        log.debug("Deleted {} expired AI usage rollups", deleted);
+    }
+
+    /**
+     * Stop the writer once the queued rollups have been written
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void run() {
+        List<AIUsageRollup> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                AIUsageRollup first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                // Write everything already queued in the same transaction
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<AIUsageRollup> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> rollupRepository.saveAll(batch));
+        } catch (DataAccessException e) {
+            log.error("Failed to write {} AI usage rollups", batch.size(), e);
+        }
+    }
+}
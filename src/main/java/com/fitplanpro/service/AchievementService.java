@@ -119,9 +119,8 @@ public class AchievementService {
      */
     @Transactional
     public boolean awardAchievement(Long userId, String achievementName, int progress) {
-        // Get user
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + userId));
+        // Get user; inside the caller's transaction this is served from the persistence context
+        User user = userService.getUserEntity(userId);
 
         // Get achievement type
         AchievementType achievementType = achievementTypeRepository.findByName(achievementName)
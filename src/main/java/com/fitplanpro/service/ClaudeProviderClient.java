@@ -0,0 +1,121 @@
+package com.fitplanpro.service;
+
+import com.anthropic.client.AnthropicClient;
+import com.anthropic.core.http.StreamResponse;
+import com.anthropic.models.messages.Message;
+import com.anthropic.models.messages.MessageCreateParams;
+import com.anthropic.models.messages.MessageParam;
+import com.anthropic.models.messages.Model;
+import com.anthropic.models.messages.RawMessageStreamEvent;
+import com.anthropic.models.messages.TextBlock;
+import com.fitplanpro.dto.aiservice.AIProviderRequestDto;
+import com.fitplanpro.dto.aiservice.AIProviderResponseDto;
+import com.fitplanpro.enums.AIProvider;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * AI provider client calling the Anthropic messages API
+ */
+@Slf4j
+public class ClaudeProviderClient implements AIProviderClient {
+
+    private final AnthropicClient anthropicClient;
+    private final String model;
+
+    public ClaudeProviderClient(AnthropicClient anthropicClient, String model) {
+        this.anthropicClient = anthropicClient;
+        this.model = model;
+    }
+
+    @Override
+    public AIProvider getProvider() {
+        return AIProvider.CLAUDE;
+    }
+
+    @Override
+    public String getModelName() {
+        return model;
+    }
+
+    @Override
+    public AIProviderResponseDto complete(AIProviderRequestDto request) {
+        Message message = anthropicClient.messages().create(createMessageParams(request));
+
+        return AIProviderResponseDto.builder()
+                .provider(AIProvider.CLAUDE)
+                .model(model)
+                .content(message.content().getFirst().text().map(TextBlock::text).orElse(""))
+                .promptTokens(message.usage().inputTokens())
+                .completionTokens(message.usage().outputTokens())
+                .build();
+    }
+
+    @Override
+    public AIProviderResponseDto stream(AIProviderRequestDto request, Consumer<String> textListener) {
+        StringBuilder content = new StringBuilder();
+        AtomicLong promptTokens = new AtomicLong();
+        AtomicLong completionTokens = new AtomicLong();
+
+        try (StreamResponse<RawMessageStreamEvent> stream =
+                     anthropicClient.messages().createStreaming(createMessageParams(request))) {
+            // Pass each text delta on as it arrives; usage arrives in the start and delta events
+            stream.stream().forEach(event -> {
+                event.contentBlockDelta()
+                        .flatMap(deltaEvent -> deltaEvent.delta().text())
+                        .ifPresent(textDelta -> {
+                            content.append(textDelta.text());
+                            textListener.accept(textDelta.text());
+                        });
+                event.messageStart().ifPresent(startEvent ->
+                        promptTokens.set(startEvent.message().usage().inputTokens()));
+                event.messageDelta().ifPresent(deltaEvent ->
+                        completionTokens.set(deltaEvent.usage().outputTokens()));
+            });
+        }
+
+        return AIProviderResponseDto.builder()
+                .provider(AIProvider.CLAUDE)
+                .model(model)
+                .content(content.toString())
+                .promptTokens(promptTokens.get())
+                .completionTokens(completionTokens.get())
+                .build();
+    }
+
+    private MessageCreateParams createMessageParams(AIProviderRequestDto request) {
+        return MessageCreateParams.builder()
+                .model(getModelEnum(model))
+                .maxTokens(request.getMaxTokens())
+                .temperature(request.getTemperature())
+                .system(request.getSystemPrompt())
+                .messages(Collections.singletonList(MessageParam.builder()
+                        .role(MessageParam.Role.USER)
+                        .content(request.getUserPrompt())
+                        .build()))
+                .build();
+    }
+
+    /**
+     * Convert string model name to Model enum
+     *
+     * @param modelName the model name string
+     * @return the Model enum
+     */
+    private Model getModelEnum(String modelName) {
+        return switch (modelName.toLowerCase()) {
+            case "claude-3-haiku-20240307" -> Model.CLAUDE_3_HAIKU_20240307;
+            case "claude-3-5-sonnet-20241022" -> Model.CLAUDE_3_5_SONNET_20241022;
+            case "claude-3-5-haiku-20241022" -> Model.CLAUDE_3_5_HAIKU_20241022;
+            case "claude-sonnet-4-20250514" -> Model.CLAUDE_SONNET_4_20250514;
+            case "claude-opus-4-1-20250805" -> Model.CLAUDE_OPUS_4_1_20250805;
+            default -> {
+                log.warn("Unknown Claude model: {}, using default CLAUDE_3_OPUS_20240229", modelName);
+                yield Model.CLAUDE_3_OPUS_20240229;
+            }
+        };
+    }
+}
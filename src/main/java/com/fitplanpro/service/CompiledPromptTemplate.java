@@ -0,0 +1,116 @@
+package com.fitplanpro.service;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fitplanpro.enums.PromptTemplateType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A prompt template parsed once into literal segments and {{placeholder}} names,
+ * so a prompt is rendered in a single pass into a presized builder. Parameter
+ * values are escaped as JSON string content, since templates embed them in JSON
+ * examples. Immutable and thread-safe.
+ */
+public final class CompiledPromptTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+    private static final int ESTIMATED_VALUE_LENGTH = 16;
+
+    private final Long id;
+    private final PromptTemplateType templateType;
+    private final String version;
+    private final String[] literals;
+    private final String[] placeholders;
+    private final int literalLength;
+
+    private CompiledPromptTemplate(Long id, PromptTemplateType templateType, String version,
+                                   String[] literals, String[] placeholders) {
+        this.id = id;
+        this.templateType = templateType;
+        this.version = version;
+        this.literals = literals;
+        this.placeholders = placeholders;
+
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Compile template content
+     *
+     * @param id the template ID
+     * @param templateType the template type
+     * @param version the template version
+     * @param content the template content
+     * @return the compiled template
+     */
+    public static CompiledPromptTemplate compile(Long id, PromptTemplateType templateType, String version,
+                                                 String content) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        int position = 0;
+
+        while (true) {
+            int open = content.indexOf(OPEN, position);
+            int close = open < 0 ? -1 : content.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                // No further complete placeholder: the rest is literal text
+                literals.add(content.substring(position));
+                break;
+            }
+            literals.add(content.substring(position, open));
+            placeholders.add(content.substring(open + OPEN.length(), close));
+            position = close + CLOSE.length();
+        }
+
+        return new CompiledPromptTemplate(id, templateType, version,
+                literals.toArray(String[]::new), placeholders.toArray(String[]::new));
+    }
+
+    /**
+     * Render the prompt. A null parameter renders as empty text; a placeholder
+     * without a parameter is left as is.
+     *
+     * @param parameters the parameters
+     * @return the prompt
+     */
+    public String render(Map<String, Object> parameters) {
+        StringBuilder prompt = new StringBuilder(literalLength + placeholders.length * ESTIMATED_VALUE_LENGTH);
+        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+
+        for (int i = 0; i < placeholders.length; i++) {
+            prompt.append(literals[i]);
+
+            String name = placeholders[i];
+            if (!parameters.containsKey(name)) {
+                prompt.append(OPEN).append(name).append(CLOSE);
+                continue;
+            }
+
+            Object value = parameters.get(name);
+            if (value != null) {
+                encoder.quoteAsString(value.toString(), prompt);
+            }
+        }
+
+        return prompt.append(literals[placeholders.length]).toString();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public PromptTemplateType getTemplateType() {
+        return templateType;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,171 @@
+package com.fitplanpro.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.fitplanpro.exception.AIServiceException;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Parses a JSON document as it streams in from an AI provider, using Jackson's
+ * non-blocking parser. Every object element of an array whose field name is one
+ * of the watched sections (e.g. daily_plans) is reported as soon as it is
+ * complete. Text before the root object, such as a markdown fence, is ignored.
+ * Not thread-safe: feed chunks from one thread.
+ */
+public class IncrementalJsonSectionParser {
+
+    private final ObjectMapper objectMapper;
+    private final Set<String> sectionNames;
+    private final BiConsumer<String, Map<String, Object>> sectionListener;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final StringBuilder document = new StringBuilder();
+
+    private boolean started;
+    private boolean finished;
+    private TokenBuffer capture;
+    private String captureSection;
+    private int captureDepth;
+
+    public IncrementalJsonSectionParser(ObjectMapper objectMapper, Set<String> sectionNames,
+                                        BiConsumer<String, Map<String, Object>> sectionListener) {
+        this.objectMapper = objectMapper;
+        this.sectionNames = sectionNames;
+        this.sectionListener = sectionListener;
+        try {
+            this.parser = objectMapper.getFactory().createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to create non-blocking JSON parser", e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Feed the next chunk of streamed text
+     *
+     * @param chunk the text chunk
+     */
+    public void feed(String chunk) {
+        if (finished || chunk == null || chunk.isEmpty()) {
+            return;
+        }
+
+        if (!started) {
+            int start = chunk.indexOf('{');
+            if (start < 0) {
+                return;
+            }
+            chunk = chunk.substring(start);
+            started = true;
+        }
+
+        document.append(chunk);
+        byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+        try {
+            feeder.feedInput(bytes, 0, bytes.length);
+            drain();
+        } catch (IOException e) {
+            throw new AIServiceException("Invalid JSON in streamed AI response", e);
+        }
+    }
+
+    /**
+     * Finish parsing and return the complete document
+     *
+     * @return the parsed document
+     */
+    @SuppressWarnings("unchecked")
+    public Map<String, Object> finish() {
+        try {
+            if (!finished) {
+                feeder.endOfInput();
+                drain();
+            }
+            int end = document.lastIndexOf("}");
+            if (end < 0) {
+                throw new AIServiceException("Streamed AI response did not contain a JSON object");
+            }
+            return objectMapper.readValue(document.substring(0, end + 1), Map.class);
+        } catch (IOException e) {
+            throw new AIServiceException("Invalid JSON in streamed AI response", e);
+        } finally {
+            try {
+                parser.close();
+            } catch (IOException ignored) {
+                // Nothing to release for an in-memory parser
+            }
+        }
+    }
+
+    /**
+     * Report the watched sections of an already complete document, in document order
+     *
+     * @param document the document
+     * @param sectionNames the section field names
+     * @param sectionListener the listener for each section element
+     */
+    @SuppressWarnings("unchecked")
+    public static void emitSections(Map<String, Object> document, Set<String> sectionNames,
+                                    BiConsumer<String, Map<String, Object>> sectionListener) {
+        for (Map.Entry<String, Object> entry : document.entrySet()) {
+            if (sectionNames.contains(entry.getKey()) && entry.getValue() instanceof List<?> elements) {
+                elements.stream()
+                        .filter(Map.class::isInstance)
+                        .forEach(element -> sectionListener.accept(entry.getKey(), (Map<String, Object>) element));
+            } else if (entry.getValue() instanceof Map<?, ?> nested) {
+                emitSections((Map<String, Object>) nested, sectionNames, sectionListener);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void drain() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (capture != null) {
+                capture.copyCurrentEvent(parser);
+                if (token.isStructStart()) {
+                    captureDepth++;
+                } else if (token.isStructEnd() && --captureDepth == 0) {
+                    // Section element complete: hand it to the listener
+                    Map<String, Object> element = objectMapper.readValue(capture.asParser(), Map.class);
+                    sectionListener.accept(captureSection, element);
+                    capture = null;
+                }
+                continue;
+            }
+
+            if (token == JsonToken.START_OBJECT) {
+                String section = getEnclosingArrayName();
+                if (section != null && sectionNames.contains(section)) {
+                    capture = new TokenBuffer(parser);
+                    capture.copyCurrentEvent(parser);
+                    captureSection = section;
+                    captureDepth = 1;
+                }
+            } else if (token == JsonToken.END_OBJECT && parser.getParsingContext().inRoot()) {
+                // Root object closed; anything after it is trailing text
+                finished = true;
+                return;
+            }
+        }
+    }
+
+    private String getEnclosingArrayName() {
+        JsonStreamContext array = parser.getParsingContext().getParent();
+        if (array == null || !array.inArray() || array.getParent() == null) {
+            return null;
+        }
+        return array.getParent().getCurrentName();
+    }
+}
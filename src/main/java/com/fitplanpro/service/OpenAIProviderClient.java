@@ -0,0 +1,118 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.dto.aiservice.AIProviderRequestDto;
+import com.fitplanpro.dto.aiservice.AIProviderResponseDto;
+import com.fitplanpro.enums.AIProvider;
+import com.knuddels.jtokkit.api.Encoding;
+import com.knuddels.jtokkit.api.EncodingType;
+import com.theokanning.openai.completion.chat.ChatCompletionRequest;
+import com.theokanning.openai.completion.chat.ChatCompletionResult;
+import com.theokanning.openai.completion.chat.ChatMessage;
+import com.theokanning.openai.completion.chat.ChatMessageRole;
+import com.theokanning.openai.service.OpenAiService;
+import com.theokanning.openai.utils.TikTokensUtil;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * AI provider client calling the OpenAI chat completions API
+ */
+public class OpenAIProviderClient implements AIProviderClient {
+
+    // Chat format overhead: tokens framing each message, and priming the reply
+    private static final int TOKENS_PER_MESSAGE = 3;
+    private static final int TOKENS_PER_REPLY = 3;
+
+    private final OpenAiService openAiService;
+    private final String model;
+    private final Encoding encoding;
+
+    public OpenAIProviderClient(OpenAiService openAiService, String model) {
+        this.openAiService = openAiService;
+        this.model = model;
+
+        // Models newer than the tokenizer library's model list use the GPT-4 encoding
+        this.encoding = Optional.ofNullable(TikTokensUtil.getEncoding(model))
+                .orElseGet(() -> TikTokensUtil.getEncoding(EncodingType.CL100K_BASE));
+    }
+
+    @Override
+    public AIProvider getProvider() {
+        return AIProvider.OPENAI;
+    }
+
+    @Override
+    public String getModelName() {
+        return model;
+    }
+
+    @Override
+    public AIProviderResponseDto complete(AIProviderRequestDto request) {
+        ChatCompletionResult completionResult = openAiService.createChatCompletion(createCompletionRequest(request));
+
+        return AIProviderResponseDto.builder()
+                .provider(AIProvider.OPENAI)
+                .model(model)
+                .content(completionResult.getChoices().getFirst().getMessage().getContent())
+                .promptTokens(completionResult.getUsage() != null ? completionResult.getUsage().getPromptTokens() : 0L)
+                .completionTokens(completionResult.getUsage() != null ?
+                        completionResult.getUsage().getCompletionTokens() : 0L)
+                .build();
+    }
+
+    @Override
+    public AIProviderResponseDto stream(AIProviderRequestDto request, Consumer<String> textListener) {
+        ChatCompletionRequest completionRequest = createCompletionRequest(request);
+        StringBuilder content = new StringBuilder();
+
+        // Pass each delta on as it arrives; chunks carry no token usage, so usage is estimated below
+        openAiService.streamChatCompletion(completionRequest).blockingForEach(chunk -> {
+            if (!chunk.getChoices().isEmpty() && chunk.getChoices().getFirst().getMessage() != null
+                    && chunk.getChoices().getFirst().getMessage().getContent() != null) {
+                String delta = chunk.getChoices().getFirst().getMessage().getContent();
+                content.append(delta);
+                textListener.accept(delta);
+            }
+        });
+
+        return AIProviderResponseDto.builder()
+                .provider(AIProvider.OPENAI)
+                .model(model)
+                .content(content.toString())
+                .promptTokens(estimatePromptTokens(completionRequest.getMessages()))
+                .completionTokens(countTokens(content.toString()))
+                .build();
+    }
+
+    /**
+     * Estimate the prompt tokens of a streamed call, whose chunks carry no token
+     * usage; the client library cannot request stream_options.include_usage
+     *
+     * @param messages the request messages
+     * @return the estimated prompt tokens
+     */
+    private long estimatePromptTokens(List<ChatMessage> messages) {
+        long tokens = TOKENS_PER_REPLY;
+        for (ChatMessage message : messages) {
+            tokens += TOKENS_PER_MESSAGE + countTokens(message.getRole()) + countTokens(message.getContent());
+        }
+        return tokens;
+    }
+
+    private long countTokens(String text) {
+        return text != null ? TikTokensUtil.tokens(encoding, text) : 0;
+    }
+
+    private ChatCompletionRequest createCompletionRequest(AIProviderRequestDto request) {
+        return ChatCompletionRequest.builder()
+                .model(model)
+                .messages(List.of(
+                        new ChatMessage(ChatMessageRole.SYSTEM.value(), request.getSystemPrompt()),
+                        new ChatMessage(ChatMessageRole.USER.value(), request.getUserPrompt())))
+                .maxTokens(request.getMaxTokens())
+                .temperature(request.getTemperature())
+                .build();
+    }
+}
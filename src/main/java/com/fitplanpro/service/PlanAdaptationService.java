@@ -0,0 +1,299 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.entity.UserProfile;
+import com.fitplanpro.enums.GoalType;
+import com.fitplanpro.enums.PlanType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Adapts a plan generated for one profile to another profile without calling an
+ * AI provider. Meal plans are rescaled to the profile's calorie and macro targets
+ * (Mifflin-St Jeor BMR, an activity factor from training days per week and a goal
+ * adjustment). Portions in ingredient lines are scaled with the calories. Workout
+ * plans are trimmed or repeated to the profile's training days per week, and sets
+ * are scaled to the profile's time per workout.
+ */
+@Service
+@Slf4j
+public class PlanAdaptationService {
+
+    // Leading quantity of an ingredient line, e.g. "150g chicken breast" or "1.5 cups rice"
+    private static final Pattern INGREDIENT_QUANTITY = Pattern.compile("^(\\d+(?:\\.\\d+)?)(\\s*)(\\S*)(.*)$");
+
+    // Workout volume is only scaled within these bounds, so an adaptation never changes a plan beyond recognition
+    private static final double MIN_VOLUME_FACTOR = 0.5;
+    private static final double MAX_VOLUME_FACTOR = 1.5;
+
+    /**
+     * Calculate daily calorie and macro targets for a profile
+     *
+     * @param userProfile the user profile
+     * @return the nutrition targets
+     */
+    public NutritionTargets calculateTargets(UserProfile userProfile) {
+        // Mifflin-St Jeor; OTHER uses the midpoint of the male and female constants
+        double bmr = 10 * userProfile.getCurrentWeight() + 6.25 * userProfile.getHeight() - 5 * userProfile.getAge()
+                + switch (userProfile.getGender()) {
+                    case MALE -> 5;
+                    case FEMALE -> -161;
+                    case OTHER -> -78;
+                };
+
+        int daysPerWeek = userProfile.getDaysPerWeek();
+        double activityFactor = daysPerWeek <= 0 ? 1.2 : daysPerWeek <= 2 ? 1.375 : daysPerWeek <= 5 ? 1.55 : 1.725;
+        double tdee = bmr * activityFactor;
+
+        GoalType goalType = userProfile.getGoalType();
+        double calories = tdee * switch (goalType) {
+            case WEIGHT_LOSS -> 0.8;
+            case BODY_RECOMPOSITION -> 0.95;
+            case MUSCLE_GAIN -> 1.1;
+            default -> 1.0;
+        };
+
+        double proteinPerKg = switch (goalType) {
+            case WEIGHT_LOSS, BODY_RECOMPOSITION -> 2.0;
+            case MUSCLE_GAIN, STRENGTH -> 1.8;
+            default -> 1.6;
+        };
+
+        // Protein by body weight, 25% of calories from fat, carbohydrates fill the rest
+        int proteinGrams = (int) Math.round(proteinPerKg * userProfile.getCurrentWeight());
+        int fatsGrams = (int) Math.round(calories * 0.25 / 9);
+        int carbsGrams = (int) Math.max(0, Math.round((calories - proteinGrams * 4 - fatsGrams * 9) / 4));
+
+        return new NutritionTargets((int) Math.round(bmr), (int) Math.round(tdee), (int) Math.round(calories),
+                proteinGrams, carbsGrams, fatsGrams);
+    }
+
+    /**
+     * Adapt a plan's data to a profile
+     *
+     * @param planData the source plan data, left unchanged
+     * @param planType the plan type
+     * @param userProfile the profile to adapt to
+     * @return the adapted plan data
+     */
+    public Map<String, Object> adaptPlanData(Map<String, Object> planData, PlanType planType, UserProfile userProfile) {
+        Map<String, Object> adapted = deepCopy(planData);
+
+        if (planType != PlanType.WORKOUT_PLAN) {
+            adaptMealPlan(adapted, calculateTargets(userProfile));
+        }
+        if (planType != PlanType.MEAL_PLAN) {
+            adaptWorkoutPlan(adapted, userProfile);
+        }
+
+        return adapted;
+    }
+
+    private void adaptMealPlan(Map<String, Object> planData, NutritionTargets targets) {
+        Integer sourceCalories = asInteger(planData.get("daily_calories"));
+        if (sourceCalories == null || sourceCalories <= 0) {
+            log.debug("Meal plan has no daily_calories, leaving portions unchanged");
+            return;
+        }
+
+        // Per-macro factors move each macro to its target; calories and portions follow the overall ratio
+        double calorieFactor = (double) targets.calories() / sourceCalories;
+        Map<String, Object> sourceMacros = asMap(planData.get("macros"));
+        double proteinFactor = macroFactor(sourceMacros, "protein_grams", targets.proteinGrams(), calorieFactor);
+        double carbsFactor = macroFactor(sourceMacros, "carbs_grams", targets.carbsGrams(), calorieFactor);
+        double fatsFactor = macroFactor(sourceMacros, "fats_grams", targets.fatsGrams(), calorieFactor);
+
+        planData.put("daily_calories", targets.calories());
+        planData.put("macros", toMacroMap(targets.proteinGrams(), targets.carbsGrams(), targets.fatsGrams()));
+
+        for (Map<String, Object> day : asList(planData.get("daily_plans"))) {
+            scaleInteger(day, "total_calories", calorieFactor);
+
+            Map<String, Object> totalMacros = asMap(day.get("total_macros"));
+            if (totalMacros != null) {
+                day.put("total_macros", toMacroMap(
+                        scale(asInteger(totalMacros.get("protein_grams")), proteinFactor),
+                        scale(asInteger(totalMacros.get("carbs_grams")), carbsFactor),
+                        scale(asInteger(totalMacros.get("fats_grams")), fatsFactor)));
+            }
+
+            for (Map<String, Object> meal : asList(day.get("meals"))) {
+                scaleInteger(meal, "calories", calorieFactor);
+
+                Map<String, Object> mealMacros = asMap(meal.get("macros"));
+                if (mealMacros != null) {
+                    for (Map.Entry<String, Object> macro : mealMacros.entrySet()) {
+                        String name = macro.getKey().toLowerCase();
+                        double factor = name.startsWith("protein") ? proteinFactor
+                                : name.startsWith("carb") ? carbsFactor
+                                : name.startsWith("fat") ? fatsFactor
+                                : calorieFactor;
+                        macro.setValue(scale(asInteger(macro.getValue()), factor));
+                    }
+                }
+
+                Object ingredients = meal.get("ingredients");
+                if (ingredients instanceof List<?> lines) {
+                    meal.put("ingredients", lines.stream()
+                            .map(line -> line instanceof String text ? scaleIngredient(text, calorieFactor) : line)
+                            .toList());
+                }
+            }
+        }
+    }
+
+    private void adaptWorkoutPlan(Map<String, Object> planData, UserProfile userProfile) {
+        List<Map<String, Object>> schedule = asList(planData.get("weekly_schedule"));
+        if (schedule.isEmpty()) {
+            return;
+        }
+
+        // Trim to the profile's training days, or repeat the source days in order to fill them
+        int daysPerWeek = Math.max(1, userProfile.getDaysPerWeek());
+        List<Object> adaptedSchedule = new ArrayList<>(daysPerWeek);
+        for (int i = 0; i < daysPerWeek; i++) {
+            Map<String, Object> day = i < schedule.size() ? schedule.get(i) : deepCopy(schedule.get(i % schedule.size()));
+            day.put("day", i + 1);
+            adaptedSchedule.add(day);
+        }
+        planData.put("weekly_schedule", adaptedSchedule);
+
+        Integer timePerWorkout = userProfile.getTimePerWorkout();
+        if (timePerWorkout == null || timePerWorkout <= 0) {
+            return;
+        }
+
+        for (Object entry : adaptedSchedule) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> day = (Map<String, Object>) entry;
+            Integer duration = asInteger(day.get("estimated_duration"));
+            if (duration == null || duration <= 0) {
+                continue;
+            }
+
+            double volumeFactor = Math.clamp((double) timePerWorkout / duration, MIN_VOLUME_FACTOR, MAX_VOLUME_FACTOR);
+            for (Map<String, Object> exercise : asList(day.get("exercises"))) {
+                Integer sets = asInteger(exercise.get("sets"));
+                if (sets != null) {
+                    exercise.put("sets", Math.max(1, (int) Math.round(sets * volumeFactor)));
+                }
+            }
+            day.put("estimated_duration", (int) Math.round(duration * volumeFactor));
+        }
+    }
+
+    private double macroFactor(Map<String, Object> sourceMacros, String key, int target, double fallback) {
+        Integer source = sourceMacros != null ? asInteger(sourceMacros.get(key)) : null;
+        return source != null && source > 0 ? (double) target / source : fallback;
+    }
+
+    private Map<String, Object> toMacroMap(Integer proteinGrams, Integer carbsGrams, Integer fatsGrams) {
+        int protein = proteinGrams != null ? proteinGrams : 0;
+        int carbs = carbsGrams != null ? carbsGrams : 0;
+        int fats = fatsGrams != null ? fatsGrams : 0;
+        int calories = protein * 4 + carbs * 4 + fats * 9;
+
+        Map<String, Object> macros = new LinkedHashMap<>();
+        macros.put("protein_grams", protein);
+        macros.put("carbs_grams", carbs);
+        macros.put("fats_grams", fats);
+        macros.put("protein_percentage", calories > 0 ? Math.round(protein * 4 * 100f / calories) : 0);
+        macros.put("carbs_percentage", calories > 0 ? Math.round(carbs * 4 * 100f / calories) : 0);
+        macros.put("fats_percentage", calories > 0 ? Math.round(fats * 9 * 100f / calories) : 0);
+        return macros;
+    }
+
+    /**
+     * Scale the leading quantity of an ingredient line. Countable items without a
+     * unit are rounded to halves, and never below one half.
+     */
+    private String scaleIngredient(String line, double factor) {
+        Matcher matcher = INGREDIENT_QUANTITY.matcher(line.trim());
+        if (!matcher.matches()) {
+            return line;
+        }
+
+        double quantity = Double.parseDouble(matcher.group(1)) * factor;
+        String unit = matcher.group(3);
+        BigDecimal scaled = !isUnit(unit)
+                ? BigDecimal.valueOf(Math.max(0.5, Math.round(quantity * 2) / 2.0))
+                : BigDecimal.valueOf(quantity).setScale(quantity >= 10 ? 0 : 1, RoundingMode.HALF_UP);
+
+        return scaled.stripTrailingZeros().toPlainString() + matcher.group(2) + unit + matcher.group(4);
+    }
+
+    private boolean isUnit(String word) {
+        return switch (word.toLowerCase().replaceAll("[^a-z]", "")) {
+            case "g", "kg", "mg", "ml", "l", "oz", "lb", "lbs", "cup", "cups", "tbsp", "tsp",
+                 "tablespoon", "tablespoons", "teaspoon", "teaspoons", "gram", "grams" -> true;
+            default -> false;
+        };
+    }
+
+    private void scaleInteger(Map<String, Object> map, String key, double factor) {
+        Integer value = asInteger(map.get(key));
+        if (value != null) {
+            map.put(key, scale(value, factor));
+        }
+    }
+
+    private Integer scale(Integer value, double factor) {
+        return value != null ? (int) Math.round(value * factor) : null;
+    }
+
+    private Integer asInteger(Object value) {
+        return value instanceof Number number ? (int) Math.round(number.doubleValue()) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> asMap(Object value) {
+        return value instanceof Map<?, ?> map ? (Map<String, Object>) map : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> asList(Object value) {
+        if (!(value instanceof List<?> list)) {
+            return List.of();
+        }
+        return list.stream()
+                .filter(Map.class::isInstance)
+                .map(item -> (Map<String, Object>) item)
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T deepCopy(T value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> copy = new LinkedHashMap<>();
+            map.forEach((key, item) -> copy.put(String.valueOf(key), deepCopy(item)));
+            return (T) copy;
+        }
+        if (value instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list.size());
+            list.forEach(item -> copy.add(deepCopy(item)));
+            return (T) copy;
+        }
+        return value;
+    }
+
+    /**
+     * Daily energy and macro targets for a profile
+     *
+     * @param bmr the basal metabolic rate in kcal
+     * @param tdee the total daily energy expenditure in kcal
+     * @param calories the calorie target in kcal
+     * @param proteinGrams the protein target
+     * @param carbsGrams the carbohydrate target
+     * @param fatsGrams the fat target
+     */
+    public record NutritionTargets(int bmr, int tdee, int calories, int proteinGrams, int carbsGrams, int fatsGrams) {
+    }
+}
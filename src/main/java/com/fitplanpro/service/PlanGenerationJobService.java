@@ -0,0 +1,329 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.dto.plan.PlanGenerationJobDto;
+import com.fitplanpro.dto.plan.PlanGenerationRequestDto;
+import com.fitplanpro.dto.plan.PlanGenerationResultDto;
+import com.fitplanpro.entity.PlanGenerationJob;
+import com.fitplanpro.enums.PlanJobStatus;
+import com.fitplanpro.exception.PlanNotFoundException;
+import com.fitplanpro.exception.ProfileNotFoundException;
+import com.fitplanpro.exception.TooManyRequestsException;
+import com.fitplanpro.repository.PlanGenerationJobRepository;
+import com.fitplanpro.repository.UserProfileRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * Service for asynchronous plan generation. Jobs are persisted before they are
+ * queued, run on a bounded pool of virtual threads, and publish their status to
+ * pollers and Server-Sent Event subscribers. Running jobs heartbeat every
+ * fitplan.plan.jobs.heartbeat-ms; jobs left pending, or whose node stopped
+ * heartbeating, are picked up again by the periodic recovery sweep.
+ */
+@Service
+@Slf4j
+public class PlanGenerationJobService {
+
+    private final PlanGenerationJobRepository jobRepository;
+    private final UserProfileRepository userProfileRepository;
+    private final PlanService planService;
+    private final UserService userService;
+    private final ThreadPoolExecutor executor;
+    private final Duration staleAfter;
+    private final int maxAttempts;
+    private final Duration retention;
+    private final Duration pollInterval;
+    private final Duration streamTimeout;
+
+    private final Set<String> scheduledJobs = ConcurrentHashMap.newKeySet();
+    private final Map<String, Sinks.Many<PlanGenerationJobDto>> sinks = new ConcurrentHashMap<>();
+
+    public PlanGenerationJobService(
+            PlanGenerationJobRepository jobRepository,
+            UserProfileRepository userProfileRepository,
+            PlanService planService,
+            UserService userService,
+            MeterRegistry meterRegistry,
+            @Value("${fitplan.plan.jobs.concurrency:8}") int concurrency,
+            @Value("${fitplan.plan.jobs.queue-capacity:100}") int queueCapacity,
+            @Value("${fitplan.plan.jobs.stale-after-ms:300000}") long staleAfterMillis,
+            @Value("${fitplan.plan.jobs.max-attempts:3}") int maxAttempts,
+            @Value("${fitplan.plan.jobs.retention-ms:604800000}") long retentionMillis,
+            @Value("${fitplan.plan.jobs.sse.poll-interval-ms:2000}") long pollIntervalMillis,
+            @Value("${fitplan.plan.jobs.sse.timeout-ms:300000}") long streamTimeoutMillis) {
+        this.jobRepository = jobRepository;
+        this.userProfileRepository = userProfileRepository;
+        this.planService = planService;
+        this.userService = userService;
+        this.staleAfter = Duration.ofMillis(staleAfterMillis);
+        this.maxAttempts = maxAttempts;
+        this.retention = Duration.ofMillis(retentionMillis);
+        this.pollInterval = Duration.ofMillis(pollIntervalMillis);
+        this.streamTimeout = Duration.ofMillis(streamTimeoutMillis);
+
+        // Generation is I/O bound, so virtual threads are cheap; the pool size still caps concurrent AI calls
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofVirtual().name("plan-generation-", 1).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        meterRegistry.gauge("fitplan.plan.jobs.queue.depth", executor, e -> e.getQueue().size());
+        meterRegistry.gauge("fitplan.plan.jobs.active", executor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    /**
+     * Submit a plan generation job for the current user
+     *
+     * @param requestDto the plan generation request
+     * @return the pending job DTO
+     */
+    public PlanGenerationJobDto submitJob(PlanGenerationRequestDto requestDto) {
+        // Get current user
+        Long userId = userService.getCurrentUserId();
+
+        // Only the owner may generate plans from a profile
+        if (!userProfileRepository.existsByIdAndUserId(requestDto.getProfileId(), userId)) {
+            throw new ProfileNotFoundException("Profile not found with ID: " + requestDto.getProfileId());
+        }
+
+        // Persist the job before queueing it so it survives a restart
+        PlanGenerationJob job = jobRepository.save(PlanGenerationJob.builder()
+                .id(UUID.randomUUID().toString())
+                .userId(userId)
+                .profileId(requestDto.getProfileId())
+                .planType(requestDto.getPlanType())
+                .forceRegenerate(Boolean.TRUE.equals(requestDto.getForceRegenerate()))
+                .status(PlanJobStatus.PENDING)
+                .attempts(0)
+                .build());
+
+        if (!schedule(job.getId())) {
+            jobRepository.delete(job);
+            throw new TooManyRequestsException("Plan generation is busy, please retry shortly");
+        }
+
+        return toDto(job);
+    }
+
+    /**
+     * Get a job owned by the current user
+     *
+     * @param jobId the job ID
+     * @return the job DTO
+     */
+    public PlanGenerationJobDto getJob(String jobId) {
+        return jobRepository.findByIdAndUserId(jobId, userService.getCurrentUserId())
+                .map(this::toDto)
+                .orElseThrow(() -> new PlanNotFoundException("Plan generation job not found with ID: " + jobId));
+    }
+
+    /**
+     * Stream status changes of a job owned by the current user until it finishes.
+     * Updates from this node are pushed immediately; the database is polled as well
+     * so jobs running on another node or recovered after a restart are still reported.
+     *
+     * @param jobId the job ID
+     * @return a stream of job DTOs, one per status change
+     */
+    public Flux<PlanGenerationJobDto> streamJob(String jobId) {
+        // Resolve ownership on the request thread
+        PlanGenerationJobDto current = getJob(jobId);
+
+        if (current.getStatus().isTerminal()) {
+            return Flux.just(current);
+        }
+
+        Sinks.Many<PlanGenerationJobDto> sink = sinks.get(jobId);
+        Flux<PlanGenerationJobDto> localUpdates = sink != null ? sink.asFlux() : Flux.empty();
+        Flux<PlanGenerationJobDto> polledUpdates = Flux.interval(pollInterval)
+                .concatMap(tick -> Mono.fromCallable(() -> jobRepository.findById(jobId).map(this::toDto).orElse(null))
+                        .subscribeOn(Schedulers.boundedElastic()));
+
+        return Flux.concat(Flux.just(current), Flux.merge(localUpdates, polledUpdates))
+                .distinctUntilChanged(PlanGenerationJobDto::getStatus)
+                .takeUntil(job -> job.getStatus().isTerminal())
+                .take(streamTimeout);
+    }
+
+    /**
+     * Requeue abandoned jobs and schedule pending ones
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${fitplan.plan.jobs.recovery-interval-ms:60000}",
+            initialDelayString = "${fitplan.plan.jobs.recovery-interval-ms:60000}")
+    public void recoverJobs() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minus(staleAfter);
+
+        int failed = jobRepository.failStale(PlanJobStatus.RUNNING, PlanJobStatus.FAILED, cutoff, maxAttempts,
+                now, "Plan generation did not complete");
+        int requeued = jobRepository.requeueStale(PlanJobStatus.RUNNING, PlanJobStatus.PENDING, cutoff, maxAttempts);
+
+        int scheduled = 0;
+        for (PlanGenerationJob job : jobRepository.findTop100ByStatusOrderByCreatedAtAsc(PlanJobStatus.PENDING)) {
+            if (scheduledJobs.contains(job.getId())) {
+                continue;
+            }
+            if (!schedule(job.getId())) {
+                break;
+            }
+            scheduled++;
+        }
+
+        if (failed > 0 || requeued > 0 || scheduled > 0) {
+            log.info("Plan job recovery: {} failed, {} requeued, {} scheduled", failed, requeued, scheduled);
+        }
+    }
+
+    /**
+     * Refresh the heartbeat of jobs running on this node so recovery leaves them alone
+     */
+    @Scheduled(fixedDelayString = "${fitplan.plan.jobs.heartbeat-ms:30000}",
+            initialDelayString = "${fitplan.plan.jobs.heartbeat-ms:30000}")
+    public void heartbeat() {
+        Set<String> jobIds = Set.copyOf(scheduledJobs);
+        if (!jobIds.isEmpty()) {
+            jobRepository.heartbeat(jobIds, PlanJobStatus.RUNNING, LocalDateTime.now());
+        }
+    }
+
+    /**
+     * Delete finished jobs past the retention period
+     */
+    @Scheduled(cron = "${fitplan.plan.jobs.cleanup-cron:0 30 3 * * *}")
+    public void deleteFinishedJobs() {
+        int deleted = jobRepository.deleteCompletedBefore(LocalDateTime.now().minus(retention));
+        log.debug("Deleted {} finished plan generation jobs", deleted);
+    }
+
+    /**
+     * Stop accepting jobs and give running ones a chance to finish; anything
+     * still pending stays in the database for the next node to pick up
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean schedule(String jobId) {
+        if (!scheduledJobs.add(jobId)) {
+            return true;
+        }
+        try {
+            executor.execute(() -> run(jobId));
+            return true;
+        } catch (RejectedExecutionException e) {
+            scheduledJobs.remove(jobId);
+            return false;
+        }
+    }
+
+    private void run(String jobId) {
+        try {
+            // Another node may have claimed the job already
+            if (jobRepository.claim(jobId, PlanJobStatus.PENDING, PlanJobStatus.RUNNING, LocalDateTime.now()) == 0) {
+                return;
+            }
+
+            PlanGenerationJob job = jobRepository.findById(jobId).orElse(null);
+            if (job == null) {
+                return;
+            }
+
+            sinks.put(jobId, Sinks.many().multicast().directBestEffort());
+            publish(job);
+
+            try {
+                PlanGenerationResultDto result = planService.generatePlan(PlanGenerationRequestDto.builder()
+                        .profileId(job.getProfileId())
+                        .planType(job.getPlanType())
+                        .forceRegenerate(job.getForceRegenerate())
+                        .build());
+
+                job.setStatus(PlanJobStatus.COMPLETED);
+                job.setPlanId(result.getPlanId());
+                job.setFromCache(result.getFromCache());
+                job.setAiModelUsed(result.getAiModelUsed());
+                job.setGenerationTimeMs(result.getGenerationTimeMs());
+                job.setCompletedAt(LocalDateTime.now());
+            } catch (Exception e) {
+                if (executor.isShutdown()) {
+                    // Interrupted by shutdown: leave it for the next recovery sweep
+                    job.setStatus(PlanJobStatus.PENDING);
+                    job.setStartedAt(null);
+                    job.setHeartbeatAt(null);
+                } else {
+                    log.error("Plan generation job {} failed", jobId, e);
+                    job.setStatus(PlanJobStatus.FAILED);
+                    job.setErrorMessage(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+                    job.setCompletedAt(LocalDateTime.now());
+                }
+            }
+
+            publish(jobRepository.save(job));
+        } finally {
+            scheduledJobs.remove(jobId);
+            Sinks.Many<PlanGenerationJobDto> sink = sinks.remove(jobId);
+            if (sink != null) {
+                sink.tryEmitComplete();
+            }
+        }
+    }
+
+    private void publish(PlanGenerationJob job) {
+        Sinks.Many<PlanGenerationJobDto> sink = sinks.get(job.getId());
+        if (sink != null) {
+            sink.tryEmitNext(toDto(job));
+        }
+    }
+
+    private PlanGenerationJobDto toDto(PlanGenerationJob job) {
+        PlanGenerationResultDto result = null;
+        if (job.getStatus() == PlanJobStatus.COMPLETED) {
+            result = PlanGenerationResultDto.builder()
+                    .planId(job.getPlanId())
+                    .planType(job.getPlanType())
+                    .fromCache(job.getFromCache())
+                    .aiModelUsed(job.getAiModelUsed())
+                    .generationTimeMs(job.getGenerationTimeMs())
+                    .build();
+        }
+
+        return PlanGenerationJobDto.builder()
+                .jobId(job.getId())
+                .status(job.getStatus())
+                .planType(job.getPlanType())
+                .profileId(job.getProfileId())
+                .result(result)
+                .errorMessage(job.getErrorMessage())
+                .createdAt(job.getCreatedAt())
+                .startedAt(job.getStartedAt())
+                .completedAt(job.getCompletedAt())
+                .build();
+    }
+}
@@ -0,0 +1,184 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.entity.UserProfile;
+import com.fitplanpro.enums.PlanType;
+import com.fitplanpro.repository.UserProfileRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+
+/**
+ * Pre-generates plans off-peak for the densest profile clusters, so that daytime
+ * requests from profiles in those clusters reuse a similar plan instead of
+ * waiting on the AI providers. Plans are saved as seed plans, so they are never
+ * listed as plans of the cluster's central user. Each run is capped by
+ * concurrency, a number of plans, the run's own estimated AI spend and a deadline.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PlanPregenerationService {
+
+    private final UserProfileRepository userProfileRepository;
+    private final PlanService planService;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${fitplan.plan.pregeneration.enabled:false}")
+    private boolean enabled;
+
+    @Value("${fitplan.plan.pregeneration.plan-types:MEAL_PLAN,WORKOUT_PLAN,COMBINED_PLAN}")
+    private List<PlanType> planTypes;
+
+    @Value("${fitplan.plan.pregeneration.max-clusters:50}")
+    private int maxClusters;
+
+    @Value("${fitplan.plan.pregeneration.min-cluster-size:5}")
+    private int minClusterSize;
+
+    @Value("${fitplan.plan.pregeneration.age-band:6}")
+    private int ageBand;
+
+    @Value("${fitplan.plan.pregeneration.weight-band:16}")
+    private float weightBand;
+
+    @Value("${fitplan.plan.pregeneration.height-band:16}")
+    private float heightBand;
+
+    @Value("${fitplan.plan.pregeneration.concurrency:2}")
+    private int concurrency;
+
+    @Value("${fitplan.plan.pregeneration.max-plans:100}")
+    private int maxPlans;
+
+    @Value("${fitplan.plan.pregeneration.budget:10.0}")
+    private double budget;
+
+    @Value("${fitplan.plan.pregeneration.max-duration-ms:10800000}") // Default: 3 hours
+    private long maxDurationMillis;
+
+    /**
+     * Start a pre-generation run in the background, unless one is still running
+     */
+    @Scheduled(cron = "${fitplan.plan.pregeneration.cron:0 0 2 * * *}")
+    public void schedulePregeneration() {
+        if (!enabled) {
+            return;
+        }
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Skipping plan pre-generation: previous run still in progress");
+            return;
+        }
+
+        // Run off the scheduler thread so other scheduled tasks are not held up for hours
+        Thread.ofVirtual().name("plan-pregeneration").start(() -> {
+            try {
+                pregeneratePlans();
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    /**
+     * Generate plans for the densest profile clusters that have no fresh similar plan
+     */
+    public void pregeneratePlans() {
+        long deadline = System.currentTimeMillis() + maxDurationMillis;
+
+        List<Target> targets = findTargets();
+        log.info("Plan pre-generation found {} uncovered cluster plans", targets.size());
+
+        AtomicInteger generated = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger reserved = new AtomicInteger();
+        DoubleAdder spent = new DoubleAdder();
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency,
+                Thread.ofVirtual().name("plan-pregeneration-", 1).factory());
+
+        try {
+            for (Target target : targets) {
+                executor.execute(() -> {
+                    // Stop at the deadline, the plan cap or the spend budget; in-flight calls may overshoot slightly
+                    if (System.currentTimeMillis() > deadline
+                            || reserved.incrementAndGet() > maxPlans
+                            || spent.sum() >= budget) {
+                        return;
+                    }
+
+                    try {
+                        spent.add(planService.generateSeedPlan(target.profileId(), target.planType()));
+                        generated.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                        log.error("Failed to pre-generate {} for profile {}", target.planType(), target.profileId(), e);
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        log.info("Plan pre-generation finished: {} generated, {} failed, estimated spend {}",
+                generated.get(), failed.get(), spent.sum());
+    }
+
+    /**
+     * Find the most central profile of each dense cluster, for every plan type
+     * without a fresh similar plan, densest clusters first. Clusters are split by
+     * the same constraints that partition the plan similarity index, so each seed
+     * plan is reusable by the whole cluster.
+     *
+     * @return the generation targets
+     */
+    private List<Target> findTargets() {
+        List<Target> targets = new ArrayList<>();
+
+        for (Object[] cluster : userProfileRepository.findDensestClusters(
+                ageBand, weightBand, heightBand, minClusterSize, maxClusters)) {
+            int ageStart = ((Number) cluster[2]).intValue() * ageBand;
+            float weightStart = ((Number) cluster[3]).floatValue() * weightBand;
+            float heightStart = ((Number) cluster[4]).floatValue() * heightBand;
+
+            UserProfile center = userProfileRepository.findClusterCenter(
+                    (String) cluster[0], (String) cluster[1],
+                    ageStart, ageStart + ageBand,
+                    weightStart, weightStart + weightBand,
+                    heightStart, heightStart + heightBand,
+                    (String) cluster[5], (String) cluster[6], (String) cluster[7], (String) cluster[8]).orElse(null);
+            if (center == null) {
+                continue;
+            }
+
+            for (PlanType planType : planTypes) {
+                if (!planService.hasFreshSimilarPlan(center, planType)) {
+                    targets.add(new Target(center.getId(), planType));
+                }
+            }
+        }
+
+        return targets;
+    }
+
+    private record Target(Long profileId, PlanType planType) {
+    }
+}
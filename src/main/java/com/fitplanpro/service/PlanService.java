@@ -11,18 +11,37 @@ import com.fitplanpro.entity.Plan;
 import com.fitplanpro.enums.PlanType;
 import com.fitplanpro.entity.UserProfile;
 import com.fitplanpro.repository.PlanRepository;
+import com.fitplanpro.repository.PlanViewProjection;
 import com.fitplanpro.repository.UserProfileRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
 
 /**
  * Service for plan operations
@@ -32,62 +51,76 @@ import java.util.Optional;
 @Slf4j
 public class PlanService {
 
+    // Plan data arrays streamed to clients one entry at a time
+    private static final Set<String> PLAN_SECTIONS = Set.of("daily_plans", "weekly_schedule");
+
+    // Number of nearest plans tried for reuse, in case the closest was deleted meanwhile
+    private static final int SIMILAR_PLAN_CANDIDATES = 3;
+
     private final PlanRepository planRepository;
     private final UserProfileRepository userProfileRepository;
     private final PlanMapper planMapper;
     private final UserService userService;
     private final AIService aiService;
+    private final SpeculativePlanService speculativePlanService;
+    private final PlanSimilarityIndex similarityIndex;
+    private final ProfileCohortKeyGenerator cohortKeyGenerator;
+    private final PlanAdaptationService adaptationService;
+    private final PlanViewCodec planViewCodec;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final CacheManager cacheManager;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${fitplan.plan.adaptation.enabled:true}")
+    private boolean adaptationEnabled;
+
+    @Value("${fitplan.plan.adaptation.min-score:0.25}")
+    private double adaptationMinScore;
 
     /**
-     * Generate a new plan
+     * Generate a new plan. The profile and reusable plan lookups run in a short
+     * read-only transaction and the new plan is saved in its own transaction, so no
+     * database connection is held while waiting on the AI provider. A speculative
+     * generation already started for the profile is awaited instead of starting
+     * another one; a forced regeneration cancels it.
      *
      * @param requestDto the plan generation request
      * @return the generation result DTO
      */
-    @Transactional
     @CacheEvict(value = "plans", allEntries = true)
     public PlanGenerationResultDto generatePlan(PlanGenerationRequestDto requestDto) {
-        // Get user profile
-        UserProfile userProfile = userProfileRepository.findById(requestDto.getProfileId())
-                .orElseThrow(() -> new ProfileNotFoundException("Profile not found with ID: " + requestDto.getProfileId()));
-
-        // Check if a plan already exists for this profile
-        if (!Boolean.TRUE.equals(requestDto.getForceRegenerate())) {
-            Optional<Plan> existingPlan = planRepository.findTopByProfileHashAndPlanTypeOrderByGenerationTimeDesc(
-                    userProfile.getProfileHash(), requestDto.getPlanType());
-
-            if (existingPlan.isPresent()) {
-                // Return existing plan
-                return PlanGenerationResultDto.builder()
-                        .planId(existingPlan.get().getId())
-                        .planType(existingPlan.get().getPlanType())
-                        .fromCache(true)
-                        .similarityScore(existingPlan.get().getSimilarityScore())
-                        .aiModelUsed(existingPlan.get().getAiModelUsed())
-                        .generationTimeMs(0L)
-                        .build();
+        if (Boolean.TRUE.equals(requestDto.getForceRegenerate())) {
+            speculativePlanService.cancel(requestDto.getProfileId(), requestDto.getPlanType());
+        } else {
+            PlanGenerationResultDto speculativeResult = speculativePlanService.attach(requestDto);
+            if (speculativeResult != null) {
+                return speculativeResult;
             }
         }
 
-        // Search for similar plans
-        List<Plan> similarPlans = findSimilarPlans(userProfile, requestDto.getPlanType());
-
-        if (!similarPlans.isEmpty() && !Boolean.TRUE.equals(requestDto.getForceRegenerate())) {
-            // Use the most similar plan
-            Plan mostSimilarPlan = similarPlans.get(0);
-
-            // Return similar plan
-            return PlanGenerationResultDto.builder()
-                    .planId(mostSimilarPlan.getId())
-                    .planType(mostSimilarPlan.getPlanType())
-                    .fromCache(true)
-                    .similarityScore(mostSimilarPlan.getSimilarityScore())
-                    .aiModelUsed(mostSimilarPlan.getAiModelUsed())
-                    .generationTimeMs(0L)
-                    .build();
+        return generatePlanForBackgroundTask(requestDto);
+    }
+
+    /**
+     * Generate a new plan for a background task. Unlike generatePlan, this never
+     * waits for or cancels speculative generations.
+     *
+     * @param requestDto the plan generation request
+     * @return the generation result DTO
+     */
+    @CacheEvict(value = "plans", allEntries = true)
+    public PlanGenerationResultDto generatePlanForBackgroundTask(PlanGenerationRequestDto requestDto) {
+        // Load the profile and look for a reusable plan
+        GenerationContext context = loadGenerationContext(requestDto);
+
+        if (context.existingPlan() != null) {
+            return toCachedResult(resolveExistingPlan(context), context.similarityScore());
         }
 
-        // Generate plan using AI service
+        UserProfile userProfile = context.userProfile();
+
+        // Generate plan using AI service, outside of any transaction
         long startTime = System.currentTimeMillis();
 
         AIServiceRequestDto aiRequest = createAIRequest(userProfile, requestDto.getPlanType());
@@ -96,28 +129,80 @@ public class PlanService {
         long endTime = System.currentTimeMillis();
         long generationTime = endTime - startTime;
 
-        // Create new plan
-        Plan plan = new Plan();
-        plan.setProfileHash(userProfile.getProfileHash());
-        plan.setPlanType(requestDto.getPlanType());
-        plan.setPlanData(aiResponse.getResponse());
-        plan.setAiModelUsed(aiResponse.getModelUsed());
-        plan.setGenerationTime(LocalDateTime.now());
-        plan.setExpiryTime(LocalDateTime.now().plusDays(30)); // Plans expire after 30 days
-        plan.setSimilarityScore(1.0f); // Perfect match
+        // Save plan (runs in its own short transaction)
+        Plan savedPlan = savePlan(userProfile, requestDto.getPlanType(), aiResponse, false);
 
-        // Save plan
-        Plan savedPlan = planRepository.save(plan);
+        return toGeneratedResult(savedPlan, generationTime);
+    }
 
-        // Return generation result
-        return PlanGenerationResultDto.builder()
-                .planId(savedPlan.getId())
-                .planType(savedPlan.getPlanType())
-                .fromCache(false)
-                .similarityScore(savedPlan.getSimilarityScore())
-                .aiModelUsed(savedPlan.getAiModelUsed())
-                .generationTimeMs(generationTime)
-                .build();
+    /**
+     * Generate a seed plan for the profile cluster around a profile. The plan is
+     * indexed for reuse by similar profiles, but is not listed as a plan of the
+     * profile's user.
+     *
+     * @param profileId the ID of the profile at the center of the cluster
+     * @param planType the plan type
+     * @return the estimated AI spend of the generation
+     */
+    public double generateSeedPlan(Long profileId, PlanType planType) {
+        UserProfile userProfile = loadGenerationContext(PlanGenerationRequestDto.builder()
+                .profileId(profileId)
+                .planType(planType)
+                .forceRegenerate(true)
+                .build()).userProfile();
+
+        AIServiceResponseDto aiResponse = aiService.generateContent(createAIRequest(userProfile, planType));
+        savePlan(userProfile, planType, aiResponse, true);
+
+        return aiResponse.getEstimatedCost() != null ? aiResponse.getEstimatedCost() : 0.0;
+    }
+
+    /**
+     * Generate a new plan, passing each daily meal plan and workout day to a
+     * listener as soon as the AI provider has streamed it. A reused plan has its
+     * days replayed to the listener. The complete plan is saved as usual.
+     *
+     * @param requestDto the plan generation request
+     * @param sectionListener the listener for each completed daily_plans or weekly_schedule entry
+     * @return the generation result DTO
+     */
+    @CacheEvict(value = "plans", allEntries = true)
+    public PlanGenerationResultDto streamPlan(PlanGenerationRequestDto requestDto,
+                                              BiConsumer<String, Map<String, Object>> sectionListener) {
+        // Load the profile and look for a reusable plan
+        GenerationContext context = loadGenerationContext(requestDto);
+
+        if (context.existingPlan() != null) {
+            Plan existingPlan = resolveExistingPlan(context);
+            IncrementalJsonSectionParser.emitSections(existingPlan.getPlanData(), PLAN_SECTIONS, sectionListener);
+            return toCachedResult(existingPlan, context.similarityScore());
+        }
+
+        UserProfile userProfile = context.userProfile();
+
+        // Stream plan from AI service, outside of any transaction
+        long startTime = System.currentTimeMillis();
+
+        AIServiceRequestDto aiRequest = createAIRequest(userProfile, requestDto.getPlanType());
+        AIServiceResponseDto aiResponse = aiService.streamContent(aiRequest, PLAN_SECTIONS, sectionListener);
+
+        long generationTime = System.currentTimeMillis() - startTime;
+
+        // Save plan (runs in its own short transaction)
+        Plan savedPlan = savePlan(userProfile, requestDto.getPlanType(), aiResponse, false);
+
+        return toGeneratedResult(savedPlan, generationTime);
+    }
+
+    /**
+     * Check whether an unexpired plan that generation would reuse exists for a profile
+     *
+     * @param userProfile the user profile
+     * @param planType the plan type
+     * @return true if a fresh similar plan exists
+     */
+    public boolean hasFreshSimilarPlan(UserProfile userProfile, PlanType planType) {
+        return !similarityIndex.findSimilar(userProfile, planType, 1).isEmpty();
     }
 
     /**
@@ -135,6 +220,36 @@ public class PlanService {
         return planMapper.toSummaryDto(plan);
     }
 
+    /**
+     * Get the version of a plan: its strong ETag, type, expiry and day counts. Plans
+     * never change once saved, so the tag is derived from the plan ID and the content
+     * hash stored when it was saved, and the version is cached until the plan is deleted.
+     *
+     * @param id the plan ID
+     * @return the plan version DTO
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(value = "planVersions", key = "#id")
+    public PlanVersionDto getPlanVersion(Long id) {
+        Object[] row = planRepository.findPlanVersion(id).stream().findFirst()
+                .orElseThrow(() -> new PlanNotFoundException("Plan not found with ID: " + id));
+
+        String contentHash = (String) row[0];
+        if (contentHash.isEmpty()) {
+            Plan plan = planRepository.findById(id)
+                    .orElseThrow(() -> new PlanNotFoundException("Plan not found with ID: " + id));
+            contentHash = planViewCodec.contentHash(plan.getPlanData());
+        }
+
+        return PlanVersionDto.builder()
+                .eTag("\"" + id + "-" + contentHash + "\"")
+                .planType(PlanType.valueOf((String) row[1]))
+                .expiryTime(row[2] != null ? ((Timestamp) row[2]).toLocalDateTime() : null)
+                .mealDays(((Number) row[3]).intValue())
+                .workoutDays(((Number) row[4]).intValue())
+                .build();
+    }
+
     /**
      * Get meal plan by ID
      *
@@ -144,15 +259,14 @@ public class PlanService {
     @Transactional(readOnly = true)
     @Cacheable(value = "mealPlans", key = "#id")
     public MealPlanDto getMealPlan(Long id) {
-        Plan plan = planRepository.findById(id)
+        PlanViewProjection plan = planRepository.findViewById(id)
                 .orElseThrow(() -> new PlanNotFoundException("Plan not found with ID: " + id));
 
         if (plan.getPlanType() != PlanType.MEAL_PLAN && plan.getPlanType() != PlanType.COMBINED_PLAN) {
             throw new PlanNotFoundException("No meal plan found with ID: " + id);
         }
 
-        MealPlanDto mealPlanDto = planMapper.toMealPlanDto(plan);
-        return planMapper.processMealPlanData(mealPlanDto, plan.getPlanData());
+        return planMapper.toMealPlanDto(plan, readPlanView(plan));
     }
 
     /**
@@ -164,15 +278,14 @@ public class PlanService {
     @Transactional(readOnly = true)
     @Cacheable(value = "workoutPlans", key = "#id")
     public WorkoutPlanDto getWorkoutPlan(Long id) {
-        Plan plan = planRepository.findById(id)
+        PlanViewProjection plan = planRepository.findViewById(id)
                 .orElseThrow(() -> new PlanNotFoundException("Plan not found with ID: " + id));
 
         if (plan.getPlanType() != PlanType.WORKOUT_PLAN && plan.getPlanType() != PlanType.COMBINED_PLAN) {
             throw new PlanNotFoundException("No workout plan found with ID: " + id);
         }
 
-        WorkoutPlanDto workoutPlanDto = planMapper.toWorkoutPlanDto(plan);
-        return planMapper.processWorkoutPlanData(workoutPlanDto, plan.getPlanData());
+        return planMapper.toWorkoutPlanDto(plan, readPlanView(plan));
     }
 
     /**
@@ -184,65 +297,116 @@ public class PlanService {
     @Transactional(readOnly = true)
     @Cacheable(value = "combinedPlans", key = "#id")
     public CombinedPlanDto getCombinedPlan(Long id) {
-        Plan plan = planRepository.findById(id)
+        PlanViewProjection plan = planRepository.findViewById(id)
                 .orElseThrow(() -> new PlanNotFoundException("Plan not found with ID: " + id));
 
         if (plan.getPlanType() != PlanType.COMBINED_PLAN) {
             throw new PlanNotFoundException("No combined plan found with ID: " + id);
         }
 
-        // Convert plan to DTOs
-        CombinedPlanDto combinedPlanDto = planMapper.toCombinedPlanDto(plan);
+        // Read the view once for the meal plan, workout plan and recommendations
+        PlanViewDto planView = readPlanView(plan);
 
-        // Process meal plan
-        MealPlanDto mealPlanDto = planMapper.toMealPlanDto(plan);
-        mealPlanDto = planMapper.processMealPlanData(mealPlanDto, plan.getPlanData());
+        CombinedPlanDto combinedPlanDto = planMapper.toCombinedPlanDto(plan, planView);
+        combinedPlanDto.setMealPlan(planMapper.toMealPlanDto(plan, planView));
+        combinedPlanDto.setWorkoutPlan(planMapper.toWorkoutPlanDto(plan, planView));
 
-        // Process workout plan
-        WorkoutPlanDto workoutPlanDto = planMapper.toWorkoutPlanDto(plan);
-        workoutPlanDto = planMapper.processWorkoutPlanData(workoutPlanDto, plan.getPlanData());
-
-        // Set meal and workout plans
-        combinedPlanDto.setMealPlan(mealPlanDto);
-        combinedPlanDto.setWorkoutPlan(workoutPlanDto);
+        return combinedPlanDto;
+    }
 
-        // Set recommendations
-        @SuppressWarnings("unchecked")
-        Map<String, Object> recommendations = (Map<String, Object>) plan.getPlanData().get("recommendations");
-        combinedPlanDto.setRecommendations(recommendations);
+    /**
+     * Get one day of a meal plan, reading only that day from the database
+     *
+     * @param id the plan ID
+     * @param day the day number
+     * @return the daily meal plan DTO
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(value = "mealPlanDays", key = "#id + ':' + #day")
+    public DailyMealPlanDto getMealPlanDay(Long id, int day) {
+        return planMapper.toDailyMealPlanDto(findPlanDay(id, "daily_plans", day, "meal plan"));
+    }
 
-        return combinedPlanDto;
+    /**
+     * Get one day of a workout plan, reading only that day from the database
+     *
+     * @param id the plan ID
+     * @param day the day number
+     * @return the daily workout DTO
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(value = "workoutPlanDays", key = "#id + ':' + #day")
+    public DailyWorkoutDto getWorkoutPlanDay(Long id, int day) {
+        return planMapper.toDailyWorkoutDto(findPlanDay(id, "weekly_schedule", day, "workout plan"));
     }
 
     /**
-     * Get user's active plans
+     * Get the meal plan day for a calendar date. Meal plan days repeat in order from
+     * the date the plan was generated.
      *
-     * @return list of plan summary DTOs
+     * @param id the plan ID
+     * @param date the calendar date
+     * @return the day number
      */
     @Transactional(readOnly = true)
-    public List<PlanSummaryDto> getUserActivePlans() {
-        // Get current user
-        userService.getCurrentUserEntity();
+    public int getMealPlanDayFor(Long id, LocalDate date) {
+        PlanCalendar calendar = findPlanCalendar(id, date);
+
+        if (calendar.planType() == PlanType.WORKOUT_PLAN || calendar.mealDays() == 0) {
+            throw new PlanNotFoundException("No meal plan found with ID: " + id);
+        }
 
-        // Get user's profiles
-        List<UserProfile> userProfiles = userProfileRepository.findByUser(userService.getCurrentUserEntity());
+        return calendar.daysSinceStart() % calendar.mealDays() + 1;
+    }
+
+    /**
+     * Get the workout day for a calendar date. Workout days fill the start of each
+     * week counted from the date the plan was generated; the rest of the week is rest.
+     *
+     * @param id the plan ID
+     * @param date the calendar date
+     * @return the day number, or null on a rest day
+     */
+    @Transactional(readOnly = true)
+    public Integer getWorkoutPlanDayFor(Long id, LocalDate date) {
+        PlanCalendar calendar = findPlanCalendar(id, date);
 
-        if (userProfiles.isEmpty()) {
-            return List.of();
+        if (calendar.planType() == PlanType.MEAL_PLAN || calendar.workoutDays() == 0) {
+            throw new PlanNotFoundException("No workout plan found with ID: " + id);
         }
 
-        // Get profile hashes
-        List<String> profileHashes = userProfiles.stream()
-                .map(UserProfile::getProfileHash)
-                .toList();
+        int dayOfWeek = calendar.daysSinceStart() % 7 + 1;
+        return dayOfWeek <= calendar.workoutDays() ? dayOfWeek : null;
+    }
 
-        // Get active plans for profiles
-        List<Plan> activePlans = profileHashes.stream()
-                .flatMap(hash -> planRepository.findByProfileHash(hash).stream())
-                .filter(plan -> plan.getExpiryTime() == null || plan.getExpiryTime().isAfter(LocalDateTime.now()))
+    /**
+     * Get user's active plans. The summaries of all the user's profiles are read in
+     * one query and cached per user until a plan is generated or deleted for them.
+     * No transaction is opened, so a cache hit does not take a database connection.
+     *
+     * @return list of plan summary DTOs
+     */
+    public List<PlanSummaryDto> getUserActivePlans() {
+        Long userId = userService.getCurrentUserId();
+
+        List<PlanSummaryDto> activePlans = getActivePlansCache().get(userId, () -> planMapper.toSummaryDtoList(
+                planRepository.findActiveSummariesByUserId(userId, LocalDateTime.now())));
+
+        // Drop plans that expired after the list was cached
+        LocalDateTime now = LocalDateTime.now();
+        return activePlans.stream()
+                .filter(plan -> plan.getExpiryTime() == null || plan.getExpiryTime().isAfter(now))
                 .toList();
+    }
 
-        return planMapper.toSummaryDtoList(activePlans);
+    /**
+     * Evict the cached active plans of the owner of a changed profile
+     *
+     * @param event the profile change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProfileChanged(UserProfileChangedEvent event) {
+        evictActivePlans(event.userId());
     }
 
     /**
@@ -252,45 +416,283 @@ public class PlanService {
      * @return true if plan was deleted successfully
      */
     @Transactional
-    @CacheEvict(value = {"plans", "mealPlans", "workoutPlans", "combinedPlans"}, key = "#id")
+    @Caching(evict = {
+            @CacheEvict(value = {"plans", "mealPlans", "workoutPlans", "combinedPlans", "planVersions"}, key = "#id"),
+            @CacheEvict(value = {"mealPlanDays", "workoutPlanDays"}, allEntries = true)
+    })
     public boolean deletePlan(Long id) {
         Plan plan = planRepository.findById(id)
                 .orElseThrow(() -> new PlanNotFoundException("Plan not found with ID: " + id));
 
         planRepository.delete(plan);
+        similarityIndex.remove(plan.getId());
+        userProfileRepository.findByProfileHash(plan.getProfileHash())
+                .ifPresent(profile -> evictActivePlans(profile.getUser().getId()));
 
         return true;
     }
 
     /**
-     * Find similar plans for a profile
+     * Run the read phase of plan generation in a short read-only transaction
      *
-     * @param userProfile the user profile
+     * @param requestDto the plan generation request
+     * @return the generation context
+     */
+    private GenerationContext loadGenerationContext(PlanGenerationRequestDto requestDto) {
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        return readOnlyTransaction.execute(status -> prepareGeneration(requestDto));
+    }
+
+    /**
+     * Load the profile for plan generation and return an existing or similar plan if one can be reused
+     *
+     * @param requestDto the plan generation request
+     * @return the generation context
+     */
+    private GenerationContext prepareGeneration(PlanGenerationRequestDto requestDto) {
+        // Get user profile
+        UserProfile userProfile = userProfileRepository.findById(requestDto.getProfileId())
+                .orElseThrow(() -> new ProfileNotFoundException("Profile not found with ID: " + requestDto.getProfileId()));
+
+        if (Boolean.TRUE.equals(requestDto.getForceRegenerate())) {
+            return new GenerationContext(userProfile, null, null, false);
+        }
+
+        // Check if a plan already exists for this profile
+        Optional<Plan> existingPlan = planRepository.findTopByProfileHashAndPlanTypeAndSeedFalseOrderByGenerationTimeDesc(
+                userProfile.getProfileHash(), requestDto.getPlanType());
+
+        if (existingPlan.isPresent()) {
+            // Return existing plan
+            recordReuse("profile");
+            return new GenerationContext(userProfile, existingPlan.get(), existingPlan.get().getSimilarityScore(), false);
+        }
+
+        // Check for a plan generated for the same cohort of profiles
+        Optional<Plan> cohortPlan = planRepository.findTopByCohortKeyAndPlanTypeAndExpiryTimeAfterOrderByGenerationTimeDesc(
+                cohortKeyGenerator.generateKey(userProfile), requestDto.getPlanType(), LocalDateTime.now());
+
+        if (cohortPlan.isPresent()) {
+            recordReuse("cohort");
+            return new GenerationContext(userProfile, cohortPlan.get(),
+                    similarityIndex.similarityScore(userProfile, cohortPlan.get().getId()), adaptationEnabled);
+        }
+
+        // Use the most similar plan that still exists. Candidates always share the profile's diet, allergies,
+        // medical conditions and equipment; adaptation only makes plans of more distant bodies usable
+        List<PlanSimilarityIndex.Match> matches = adaptationEnabled
+                ? similarityIndex.findSimilar(userProfile, requestDto.getPlanType(), SIMILAR_PLAN_CANDIDATES, adaptationMinScore)
+                : similarityIndex.findSimilar(userProfile, requestDto.getPlanType(), SIMILAR_PLAN_CANDIDATES);
+        for (PlanSimilarityIndex.Match match : matches) {
+            Optional<Plan> similarPlan = planRepository.findById(match.planId());
+            if (similarPlan.isPresent()) {
+                recordReuse("similar");
+                return new GenerationContext(userProfile, similarPlan.get(), match.similarityScore(), adaptationEnabled);
+            }
+            similarityIndex.remove(match.planId());
+        }
+
+        recordReuse("none");
+        return new GenerationContext(userProfile, null, null, false);
+    }
+
+    /**
+     * Get the plan to return for a reusable plan, adapting it to the profile first if required
+     *
+     * @param context the generation context holding the reusable plan
+     * @return the reused or adapted plan
+     */
+    private Plan resolveExistingPlan(GenerationContext context) {
+        if (!context.adapt()) {
+            return context.existingPlan();
+        }
+
+        long startTime = System.currentTimeMillis();
+        Plan sourcePlan = context.existingPlan();
+        UserProfile userProfile = context.userProfile();
+
+        // Store the adapted copy under this profile, so the next request finds it by profile hash
+        Plan plan = new Plan();
+        plan.setProfileHash(userProfile.getProfileHash());
+        plan.setPlanType(sourcePlan.getPlanType());
+        plan.setPlanData(adaptationService.adaptPlanData(sourcePlan.getPlanData(), sourcePlan.getPlanType(), userProfile));
+        plan.setPlanView(planViewCodec.materialize(plan.getPlanData(), plan.getPlanType()));
+        plan.setContentHash(planViewCodec.contentHash(plan.getPlanData()));
+        plan.setAiModelUsed(sourcePlan.getAiModelUsed());
+        plan.setGenerationTime(LocalDateTime.now());
+        plan.setExpiryTime(LocalDateTime.now().plusDays(30)); // Plans expire after 30 days
+        plan.setSimilarityScore(context.similarityScore());
+        plan.setSourcePlanId(sourcePlan.getId());
+
+        Plan savedPlan = planRepository.save(plan);
+        evictActivePlans(userProfile.getUser().getId());
+        log.debug("Adapted plan {} to profile {} as plan {} in {} ms", sourcePlan.getId(), userProfile.getId(),
+                savedPlan.getId(), System.currentTimeMillis() - startTime);
+
+        return savedPlan;
+    }
+
+    /**
+     * Read one day entry of a plan data array
+     *
+     * @param id the plan ID
+     * @param section the plan data array, daily_plans or weekly_schedule
+     * @param day the day number
+     * @param description the plan description for error messages
+     * @return the day entry
+     */
+    private Map<String, Object> findPlanDay(Long id, String section, int day, String description) {
+        String dayJson = planRepository.findPlanDataElement(id, "$." + section + "[*] ? (@.day == " + day + ")")
+                .orElseThrow(() -> new PlanNotFoundException(
+                        "No " + description + " day " + day + " found for plan ID: " + id));
+
+        try {
+            return objectMapper.readValue(dayJson, new TypeReference<>() {});
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to parse " + description + " day " + day + " of plan " + id, e);
+        }
+    }
+
+    /**
+     * Map a calendar date onto a plan's days
+     *
+     * @param id the plan ID
+     * @param date the calendar date
+     * @return the plan calendar
+     */
+    private PlanCalendar findPlanCalendar(Long id, LocalDate date) {
+        Object[] row = planRepository.findPlanCalendar(id, date).stream().findFirst()
+                .orElseThrow(() -> new PlanNotFoundException("Plan not found with ID: " + id));
+
+        // Dates before the plan was generated count as its first day
+        return new PlanCalendar(
+                PlanType.valueOf((String) row[0]),
+                Math.max(0, ((Number) row[1]).intValue()),
+                ((Number) row[2]).intValue(),
+                ((Number) row[3]).intValue());
+    }
+
+    /**
+     * Read the typed view of a plan, materializing it from the raw plan data for
+     * plans saved without one
+     *
+     * @param plan the plan
+     * @return the plan view
+     */
+    private PlanViewDto readPlanView(PlanViewProjection plan) {
+        if (plan.getPlanView() != null) {
+            return planViewCodec.read(plan.getPlanView());
+        }
+
+        Plan fullPlan = planRepository.findById(plan.getId())
+                .orElseThrow(() -> new PlanNotFoundException("Plan not found with ID: " + plan.getId()));
+        return planViewCodec.toView(fullPlan.getPlanData(), fullPlan.getPlanType());
+    }
+
+    /**
+     * Evict a user's cached active plans once the current transaction commits, so a
+     * concurrent read cannot cache the list as it was before the change
+     *
+     * @param userId the user ID
+     */
+    private void evictActivePlans(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    getActivePlansCache().evict(userId);
+                }
+            });
+        } else {
+            getActivePlansCache().evict(userId);
+        }
+    }
+
+    private Cache getActivePlansCache() {
+        return cacheManager.getCache("activePlans");
+    }
+
+    /**
+     * Count how a plan request was matched to an existing plan
+     *
+     * @param match profile, cohort, similar or none
+     */
+    private void recordReuse(String match) {
+        Counter.builder("fitplan.plan.reuse")
+                .description("Plan requests by how an existing plan was matched")
+                .tag("match", match)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Save a newly generated plan
+     *
+     * @param userProfile the profile the plan was generated for
      * @param planType the plan type
-     * @return list of similar plans
+     * @param aiResponse the AI service response
+     * @param seed whether the plan was pre-generated for the profile's cluster
+     * @return the saved plan
+     */
+    private Plan savePlan(UserProfile userProfile, PlanType planType, AIServiceResponseDto aiResponse, boolean seed) {
+        // Create new plan
+        Plan plan = new Plan();
+        plan.setProfileHash(userProfile.getProfileHash());
+        plan.setCohortKey(cohortKeyGenerator.generateKey(userProfile));
+        plan.setPlanType(planType);
+        plan.setPlanData(aiResponse.getResponse());
+        plan.setPlanView(planViewCodec.materialize(aiResponse.getResponse(), planType));
+        plan.setContentHash(planViewCodec.contentHash(aiResponse.getResponse()));
+        plan.setAiModelUsed(aiResponse.getModelUsed());
+        plan.setGenerationTime(LocalDateTime.now());
+        plan.setExpiryTime(LocalDateTime.now().plusDays(30)); // Plans expire after 30 days
+        plan.setSimilarityScore(1.0f); // Perfect match
+        plan.setSeed(seed);
+
+        Plan savedPlan = planRepository.save(plan);
+        similarityIndex.add(savedPlan, userProfile);
+        if (!seed) {
+            evictActivePlans(userProfile.getUser().getId());
+        }
+
+        return savedPlan;
+    }
+
+    /**
+     * Create a generation result for a newly generated plan
+     *
+     * @param plan the saved plan
+     * @param generationTime the generation time in milliseconds
+     * @return the generation result DTO
+     */
+    private PlanGenerationResultDto toGeneratedResult(Plan plan, long generationTime) {
+        return PlanGenerationResultDto.builder()
+                .planId(plan.getId())
+                .planType(plan.getPlanType())
+                .fromCache(false)
+                .similarityScore(plan.getSimilarityScore())
+                .aiModelUsed(plan.getAiModelUsed())
+                .generationTimeMs(generationTime)
+                .build();
+    }
+
+    /**
+     * Create a generation result for a reused plan
+     *
+     * @param plan the reused plan
+     * @param similarityScore the reused plan's similarity to the requesting profile
+     * @return the generation result DTO
      */
-    private List<Plan> findSimilarPlans(UserProfile userProfile, PlanType planType) {
-        // Calculate ranges for similarity search
-        int ageMin = userProfile.getAge() - 3;
-        int ageMax = userProfile.getAge() + 3;
-        float weightMin = userProfile.getCurrentWeight() - 8;
-        float weightMax = userProfile.getCurrentWeight() + 8;
-        float heightMin = userProfile.getHeight() - 8;
-        float heightMax = userProfile.getHeight() + 8;
-
-        // Find similar plans
-        return planRepository.findSimilarPlans(
-                userProfile.getGender().toString(),
-                ageMin,
-                ageMax,
-                userProfile.getGoalType().toString(),
-                weightMin,
-                weightMax,
-                heightMin,
-                heightMax,
-                planType.toString(),
-                userProfile.getCurrentWeight(),
-                userProfile.getAge());
+    private PlanGenerationResultDto toCachedResult(Plan plan, Float similarityScore) {
+        return PlanGenerationResultDto.builder()
+                .planId(plan.getId())
+                .planType(plan.getPlanType())
+                .fromCache(true)
+                .similarityScore(similarityScore)
+                .aiModelUsed(plan.getAiModelUsed())
+                .generationTimeMs(0L)
+                .build();
     }
 
     /**
@@ -338,4 +740,27 @@ public class PlanService {
                 .temperature(0.7)
                 .build();
     }
+
+    /**
+     * Result of the read phase of plan generation
+     *
+     * @param userProfile the profile to generate for
+     * @param existingPlan a reusable plan, or null if a new plan must be generated
+     * @param similarityScore the reusable plan's similarity to the profile, or null
+     * @param adapt whether the reusable plan must be adapted to the profile before it is returned
+     */
+    private record GenerationContext(UserProfile userProfile, Plan existingPlan, Float similarityScore,
+                                     boolean adapt) {
+    }
+
+    /**
+     * A plan's position relative to a calendar date
+     *
+     * @param planType the plan type
+     * @param daysSinceStart the days from the plan's generation date to the date, at least 0
+     * @param mealDays the number of daily_plans entries
+     * @param workoutDays the number of weekly_schedule entries
+     */
+    private record PlanCalendar(PlanType planType, int daysSinceStart, int mealDays, int workoutDays) {
+    }
 }
\ No newline at end of file
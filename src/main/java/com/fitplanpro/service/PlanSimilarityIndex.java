@@ -0,0 +1,318 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.entity.Plan;
+import com.fitplanpro.entity.UserProfile;
+import com.fitplanpro.enums.DietPreference;
+import com.fitplanpro.enums.Gender;
+import com.fitplanpro.enums.GoalType;
+import com.fitplanpro.enums.PlanType;
+import com.fitplanpro.repository.PlanRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory nearest-neighbour index of plans by the profile they were generated
+ * for, with one k-d tree per plan type, gender, goal type and safety constraints:
+ * diet preference, food allergies, medical conditions and available equipment,
+ * compared exactly after normalizing like the cohort key. A similar plan is
+ * therefore never one generated for different allergies or equipment. Profiles are
+ * compared as feature vectors of age, current weight, height, weight to gain or
+ * lose and training days per week, each divided by its tolerance
+ * (fitplan.plan.similarity.*-tolerance), so a distance of 1 is one tolerance.
+ * The similarity score is 1 / (1 + distance).
+ * <p>
+ * Plans adapted from another plan are not indexed, so adaptations always start
+ * from a generated plan. The index is loaded at startup, updated as plans are saved and deleted on this
+ * node, and picks up plans saved by other nodes every
+ * fitplan.plan.similarity.refresh-ms. Each refresh rescans the plan IDs allocated
+ * in the last fitplan.plan.similarity.refresh-overlap-ms, so a plan whose
+ * transaction commits after one with a higher ID is not skipped, and evicts
+ * expired plans.
+ */
+@Component
+@Slf4j
+public class PlanSimilarityIndex {
+
+    private static final int DIMENSIONS = 5;
+
+    private final PlanRepository planRepository;
+    private final Map<IndexKey, ProfileKdTree> trees = new ConcurrentHashMap<>();
+    private final Map<Long, IndexedPlan> indexedPlans = new ConcurrentHashMap<>();
+
+    // Highest plan ID loaded before each recent load started, oldest first
+    private final Deque<LoadMark> loadMarks = new ArrayDeque<>();
+
+    private volatile long lastLoadedPlanId;
+
+    @Value("${fitplan.plan.similarity.age-tolerance:5}")
+    private float ageTolerance;
+
+    @Value("${fitplan.plan.similarity.weight-tolerance:10}")
+    private float weightTolerance;
+
+    @Value("${fitplan.plan.similarity.height-tolerance:10}")
+    private float heightTolerance;
+
+    @Value("${fitplan.plan.similarity.weight-change-tolerance:10}")
+    private float weightChangeTolerance;
+
+    @Value("${fitplan.plan.similarity.days-per-week-tolerance:2}")
+    private float daysPerWeekTolerance;
+
+    @Value("${fitplan.plan.similarity.min-score:0.5}")
+    private double minScore;
+
+    @Value("${fitplan.plan.similarity.load-batch-size:5000}")
+    private int loadBatchSize;
+
+    @Value("${fitplan.plan.similarity.refresh-overlap-ms:300000}") // Default: 5 minutes
+    private long refreshOverlapMillis;
+
+    public PlanSimilarityIndex(PlanRepository planRepository) {
+        this.planRepository = planRepository;
+    }
+
+    /**
+     * Load all plans once the application has started
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        int loaded = loadNewPlans();
+        log.info("Plan similarity index loaded {} plans", loaded);
+    }
+
+    /**
+     * Load plans saved since the last load, including those saved by other nodes
+     */
+    @Scheduled(fixedDelayString = "${fitplan.plan.similarity.refresh-ms:60000}",
+            initialDelayString = "${fitplan.plan.similarity.refresh-ms:60000}")
+    public void refresh() {
+        int loaded = loadNewPlans();
+        int evicted = evictExpired();
+        if (loaded > 0 || evicted > 0) {
+            log.debug("Plan similarity index picked up {} new plans and evicted {} expired plans", loaded, evicted);
+        }
+    }
+
+    /**
+     * Find the plans generated for the profiles most similar to a profile
+     *
+     * @param userProfile the user profile
+     * @param planType the plan type
+     * @param limit the maximum number of matches
+     * @return the unexpired matches scoring at least fitplan.plan.similarity.min-score, best first
+     */
+    public List<Match> findSimilar(UserProfile userProfile, PlanType planType, int limit) {
+        return findSimilar(userProfile, planType, limit, minScore);
+    }
+
+    /**
+     * Find the plans generated for the profiles most similar to a profile, down to a given score
+     *
+     * @param userProfile the user profile
+     * @param planType the plan type
+     * @param limit the maximum number of matches
+     * @param minScore the minimum similarity score, greater than 0
+     * @return the unexpired matches scoring at least minScore, best first
+     */
+    public List<Match> findSimilar(UserProfile userProfile, PlanType planType, int limit, double minScore) {
+        ProfileKdTree tree = trees.get(indexKey(planType, userProfile.getGender(), userProfile.getGoalType(),
+                userProfile.getDietPreference(), userProfile.getFoodAllergies(), userProfile.getMedicalConditions(),
+                userProfile.getEquipmentAvailable()));
+        if (tree == null) {
+            return List.of();
+        }
+
+        // score >= minScore  <=>  distance <= 1 / minScore - 1
+        double maxDistance = 1 / minScore - 1;
+        List<Match> matches = new ArrayList<>(limit);
+        for (ProfileKdTree.Neighbour neighbour : tree.nearest(
+                toVector(userProfile), limit, maxDistance, System.currentTimeMillis())) {
+            matches.add(new Match(neighbour.entry().planId(), (float) (1 / (1 + neighbour.distance()))));
+        }
+        return matches;
+    }
+
+    /**
+     * Get the similarity score between a profile and the profile an indexed plan was generated for
+     *
+     * @param userProfile the user profile
+     * @param planId the plan ID
+     * @return the similarity score, or null if the plan is not indexed
+     */
+    public Float similarityScore(UserProfile userProfile, Long planId) {
+        IndexedPlan indexedPlan = indexedPlans.get(planId);
+        if (indexedPlan == null) {
+            return null;
+        }
+
+        float[] vector = toVector(userProfile);
+        double distanceSquared = 0;
+        for (int i = 0; i < DIMENSIONS; i++) {
+            double delta = vector[i] - indexedPlan.point()[i];
+            distanceSquared += delta * delta;
+        }
+        return (float) (1 / (1 + Math.sqrt(distanceSquared)));
+    }
+
+    /**
+     * Add a newly saved plan
+     *
+     * @param plan the saved plan
+     * @param userProfile the profile the plan was generated for
+     */
+    public void add(Plan plan, UserProfile userProfile) {
+        add(plan.getId(), plan.getExpiryTime(), indexKey(plan.getPlanType(), userProfile.getGender(),
+                        userProfile.getGoalType(), userProfile.getDietPreference(), userProfile.getFoodAllergies(),
+                        userProfile.getMedicalConditions(), userProfile.getEquipmentAvailable()),
+                toVector(userProfile));
+    }
+
+    /**
+     * Remove a plan once the current transaction, if any, has committed
+     *
+     * @param planId the plan ID
+     */
+    public void remove(Long planId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    removeNow(planId);
+                }
+            });
+        } else {
+            removeNow(planId);
+        }
+    }
+
+    private synchronized int loadNewPlans() {
+        long now = System.currentTimeMillis();
+        loadMarks.addLast(new LoadMark(now, lastLoadedPlanId));
+
+        // Start from the newest mark at least the overlap old, or the oldest mark if there is none yet
+        LoadMark start = loadMarks.pollFirst();
+        while (!loadMarks.isEmpty() && loadMarks.peekFirst().startedAt() <= now - refreshOverlapMillis) {
+            start = loadMarks.pollFirst();
+        }
+        loadMarks.addFirst(start);
+
+        int loaded = 0;
+        long afterId = start.lastLoadedPlanId();
+        List<Object[]> rows;
+        do {
+            rows = planRepository.findProfileFeaturesAfter(afterId, PageRequest.of(0, loadBatchSize));
+            for (Object[] row : rows) {
+                Long planId = (Long) row[0];
+                afterId = planId;
+                lastLoadedPlanId = Math.max(lastLoadedPlanId, planId);
+
+                // Plans within the overlap were usually indexed by the previous load
+                if (indexedPlans.containsKey(planId) || isExpired((LocalDateTime) row[2], now)) {
+                    continue;
+                }
+                add(planId, (LocalDateTime) row[2],
+                        indexKey((PlanType) row[1], (Gender) row[3], (GoalType) row[4], (DietPreference) row[10],
+                                (String) row[11], (String) row[12], (String) row[13]),
+                        toVector((Integer) row[5], (Float) row[6], (Float) row[7], (Float) row[8], (Integer) row[9]));
+                loaded++;
+            }
+        } while (rows.size() == loadBatchSize);
+        return loaded;
+    }
+
+    private int evictExpired() {
+        long now = System.currentTimeMillis();
+        int evicted = 0;
+        for (ProfileKdTree tree : trees.values()) {
+            for (Long planId : tree.removeExpired(now)) {
+                indexedPlans.remove(planId);
+                evicted++;
+            }
+        }
+        return evicted;
+    }
+
+    private static boolean isExpired(LocalDateTime expiryTime, long now) {
+        return expiryTime != null && toEpochMillis(expiryTime) <= now;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private void add(Long planId, LocalDateTime expiryTime, IndexKey key, float[] vector) {
+        long expiresAt = expiryTime != null ? toEpochMillis(expiryTime) : Long.MAX_VALUE;
+
+        trees.computeIfAbsent(key, k -> new ProfileKdTree(DIMENSIONS))
+                .add(new ProfileKdTree.Entry(planId, vector, expiresAt));
+        indexedPlans.put(planId, new IndexedPlan(key, vector));
+    }
+
+    private void removeNow(Long planId) {
+        IndexedPlan indexedPlan = indexedPlans.remove(planId);
+        if (indexedPlan != null) {
+            trees.get(indexedPlan.key()).remove(planId);
+        }
+    }
+
+    private static IndexKey indexKey(PlanType planType, Gender gender, GoalType goalType,
+                                     DietPreference dietPreference, String foodAllergies,
+                                     String medicalConditions, String equipmentAvailable) {
+        return new IndexKey(planType, gender, goalType, dietPreference,
+                ProfileCohortKeyGenerator.normalizeList(foodAllergies),
+                ProfileCohortKeyGenerator.normalizeList(medicalConditions),
+                ProfileCohortKeyGenerator.normalizeList(equipmentAvailable));
+    }
+
+    private float[] toVector(UserProfile userProfile) {
+        return toVector(userProfile.getAge(), userProfile.getCurrentWeight(), userProfile.getHeight(),
+                userProfile.getTargetWeight(), userProfile.getDaysPerWeek());
+    }
+
+    private float[] toVector(int age, float currentWeight, float height, Float targetWeight, int daysPerWeek) {
+        float weightChange = targetWeight != null ? targetWeight - currentWeight : 0;
+        return new float[] {
+                age / ageTolerance,
+                currentWeight / weightTolerance,
+                height / heightTolerance,
+                weightChange / weightChangeTolerance,
+                daysPerWeek / daysPerWeekTolerance
+        };
+    }
+
+    /**
+     * A similar plan
+     *
+     * @param planId the plan ID
+     * @param similarityScore the similarity score, between 0 and 1
+     */
+    public record Match(Long planId, float similarityScore) {
+    }
+
+    private record IndexKey(PlanType planType, Gender gender, GoalType goalType, DietPreference dietPreference,
+                            String foodAllergies, String medicalConditions, String equipmentAvailable) {
+    }
+
+    private record IndexedPlan(IndexKey key, float[] point) {
+    }
+
+    private record LoadMark(long startedAt, long lastLoadedPlanId) {
+    }
+}
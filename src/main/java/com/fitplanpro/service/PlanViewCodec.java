@@ -0,0 +1,123 @@
+package com.fitplanpro.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fitplanpro.dto.plan.MealPlanDto;
+import com.fitplanpro.dto.plan.PlanViewDto;
+import com.fitplanpro.dto.plan.WorkoutPlanDto;
+import com.fitplanpro.enums.PlanType;
+import com.fitplanpro.mapper.PlanMapper;
+import com.fitplanpro.util.HashUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+/**
+ * Converts raw plan data into the typed {@link PlanViewDto} and back and forth
+ * from its stored form: JSON bytes without null fields. The conversion walks the
+ * raw data once, when the plan is saved; reads deserialize the stored bytes
+ * straight into the typed DTOs.
+ */
+@Component
+@Slf4j
+public class PlanViewCodec {
+
+    private final PlanMapper planMapper;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    private final ObjectWriter dataWriter;
+
+    public PlanViewCodec(PlanMapper planMapper, ObjectMapper objectMapper) {
+        this.planMapper = planMapper;
+        ObjectMapper compactMapper = objectMapper.copy()
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        this.writer = compactMapper.writerFor(PlanViewDto.class);
+        this.reader = compactMapper.readerFor(PlanViewDto.class);
+        this.dataWriter = objectMapper.writer();
+    }
+
+    /**
+     * Validate raw plan data and convert it to its stored view
+     *
+     * @param planData the raw plan data
+     * @param planType the plan type
+     * @return the serialized view, or null if the plan data does not have the expected structure
+     */
+    public byte[] materialize(Map<String, Object> planData, PlanType planType) {
+        try {
+            return writer.writeValueAsBytes(toView(planData, planType));
+        } catch (ClassCastException | NullPointerException e) {
+            // Reads of this plan fall back to walking the raw data
+            log.warn("Plan data does not match the {} structure, not materializing a view", planType, e);
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to serialize plan view", e);
+        }
+    }
+
+    /**
+     * Convert raw plan data to a typed view
+     *
+     * @param planData the raw plan data
+     * @param planType the plan type
+     * @return the plan view
+     */
+    public PlanViewDto toView(Map<String, Object> planData, PlanType planType) {
+        PlanViewDto view = new PlanViewDto();
+
+        if (planType != PlanType.WORKOUT_PLAN) {
+            MealPlanDto mealPlan = planMapper.processMealPlanData(new MealPlanDto(), planData);
+            view.setDailyCalories(mealPlan.getDailyCalories());
+            view.setMacros(mealPlan.getMacros());
+            view.setDailyPlans(mealPlan.getDailyPlans());
+        }
+
+        if (planType != PlanType.MEAL_PLAN) {
+            WorkoutPlanDto workoutPlan = planMapper.processWorkoutPlanData(new WorkoutPlanDto(), planData);
+            view.setFocus(workoutPlan.getFocus());
+            view.setRecommendedEquipment(workoutPlan.getRecommendedEquipment());
+            view.setWeeklySchedule(workoutPlan.getWeeklySchedule());
+        }
+
+        if (planType == PlanType.COMBINED_PLAN && planData != null) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> recommendations = (Map<String, Object>) planData.get("recommendations");
+            view.setRecommendations(recommendations);
+        }
+
+        return view;
+    }
+
+    /**
+     * Hash raw plan data, for use as the version of an immutable plan
+     *
+     * @param planData the raw plan data
+     * @return the SHA-256 hex content hash
+     */
+    public String contentHash(Map<String, Object> planData) {
+        try {
+            return HashUtils.sha256Hex(dataWriter.writeValueAsBytes(planData));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to serialize plan data for hashing", e);
+        }
+    }
+
+    /**
+     * Deserialize a stored view
+     *
+     * @param planView the serialized view
+     * @return the plan view
+     */
+    public PlanViewDto read(byte[] planView) {
+        try {
+            return reader.readValue(planView);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to deserialize plan view", e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.entity.UserProfile;
+import com.fitplanpro.util.HashUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Builds user-independent cohort keys for plan reuse. Age, weight, height and
+ * weight to gain or lose are bucketed into fitplan.plan.cohort.*-band bands; every
+ * other field that goes into the plan prompt is kept exact, with free-text lists
+ * such as food allergies lower-cased and sorted. Profiles with the same cohort
+ * key can share a plan.
+ */
+@Component
+public class ProfileCohortKeyGenerator {
+
+    @Value("${fitplan.plan.cohort.age-band:5}")
+    private int ageBand;
+
+    @Value("${fitplan.plan.cohort.weight-band:5}")
+    private float weightBand;
+
+    @Value("${fitplan.plan.cohort.height-band:5}")
+    private float heightBand;
+
+    /**
+     * Create the cohort key for a profile
+     *
+     * @param userProfile the user profile
+     * @return the SHA-256 hex cohort key
+     */
+    public String generateKey(UserProfile userProfile) {
+        float weightChange = userProfile.getTargetWeight() != null
+                ? userProfile.getTargetWeight() - userProfile.getCurrentWeight()
+                : 0;
+
+        String canonical = String.join("|",
+                String.valueOf(userProfile.getGender()),
+                String.valueOf(Math.floorDiv(userProfile.getAge(), ageBand)),
+                String.valueOf((int) Math.floor(userProfile.getCurrentWeight() / weightBand)),
+                String.valueOf((int) Math.floor(userProfile.getHeight() / heightBand)),
+                String.valueOf((int) Math.floor(weightChange / weightBand)),
+                String.valueOf(userProfile.getGoalType()),
+                String.valueOf(userProfile.getTrainingExperience()),
+                String.valueOf(userProfile.getTrainingLocation()),
+                String.valueOf(userProfile.getDaysPerWeek()),
+                String.valueOf(userProfile.getTimePerWorkout()),
+                String.valueOf(userProfile.getPreferredWorkoutTime()),
+                String.valueOf(userProfile.getDietPreference()),
+                String.valueOf(userProfile.getMealsPerDay()),
+                String.valueOf(userProfile.getSnacksPerDay()),
+                String.valueOf(userProfile.getBudgetConstraints()),
+                normalize(userProfile.getLocationCulture()),
+                normalizeList(userProfile.getFoodAllergies()),
+                normalizeList(userProfile.getMedicalConditions()),
+                normalizeList(userProfile.getEquipmentAvailable()));
+
+        return HashUtils.sha256Hex(canonical);
+    }
+
+    static String normalize(String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * Normalize a free-text list such as food allergies: items lower-cased,
+     * de-duplicated and sorted, so equivalent lists compare equal
+     *
+     * @param value the comma- or semicolon-separated list
+     * @return the normalized list
+     */
+    static String normalizeList(String value) {
+        if (value == null) {
+            return "";
+        }
+        return Arrays.stream(value.split("[,;]"))
+                .map(ProfileCohortKeyGenerator::normalize)
+                .filter(item -> !item.isEmpty())
+                .distinct()
+                .sorted()
+                .collect(Collectors.joining(","));
+    }
+}
@@ -0,0 +1,257 @@
+package com.fitplanpro.service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * k-d tree over normalized profile feature vectors, one entry per plan.
+ * Inserts go into the existing tree; removals and replacements leave a tombstone
+ * and the tree is rebuilt balanced once tombstones outnumber live entries. Searches take a read
+ * lock, so lookups run concurrently with each other.
+ */
+final class ProfileKdTree {
+
+    private final int dimensions;
+    private final Map<Long, Node> nodesByPlanId = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Node root;
+    private int removedCount;
+
+    ProfileKdTree(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    /**
+     * Add or replace the entry for a plan
+     *
+     * @param entry the entry
+     */
+    void add(Entry entry) {
+        lock.writeLock().lock();
+        try {
+            removeNode(entry.planId());
+
+            Node node = new Node(entry);
+            nodesByPlanId.put(entry.planId(), node);
+            insert(node);
+            rebuildIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove the entry for a plan, if present
+     *
+     * @param planId the plan ID
+     */
+    void remove(Long planId) {
+        lock.writeLock().lock();
+        try {
+            removeNode(planId);
+            rebuildIfSparse();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove the entries that have expired
+     *
+     * @param now the current time in epoch milliseconds
+     * @return the plan IDs of the removed entries
+     */
+    List<Long> removeExpired(long now) {
+        lock.writeLock().lock();
+        try {
+            List<Long> expired = new ArrayList<>();
+            for (Node node : nodesByPlanId.values()) {
+                if (node.entry.expiresAt() <= now) {
+                    expired.add(node.entry.planId());
+                }
+            }
+            expired.forEach(this::removeNode);
+            rebuildIfSparse();
+            return expired;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Find the nearest unexpired entries to a point
+     *
+     * @param point the query point
+     * @param limit the maximum number of entries
+     * @param maxDistance the maximum Euclidean distance
+     * @param now the current time in epoch milliseconds, to skip expired entries
+     * @return the nearest entries, closest first
+     */
+    List<Neighbour> nearest(float[] point, int limit, double maxDistance, long now) {
+        PriorityQueue<Neighbour> best = new PriorityQueue<>(
+                Comparator.comparingDouble(Neighbour::distance).reversed());
+
+        lock.readLock().lock();
+        try {
+            search(root, 0, point, limit, maxDistance * maxDistance, now, best);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Neighbour> result = new ArrayList<>(best);
+        result.sort(Comparator.comparingDouble(Neighbour::distance));
+        return result;
+    }
+
+    /**
+     * Get the number of live entries
+     *
+     * @return the number of entries
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            return nodesByPlanId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void search(Node node, int depth, float[] point, int limit, double maxDistanceSquared, long now,
+                        PriorityQueue<Neighbour> best) {
+        if (node == null) {
+            return;
+        }
+
+        if (!node.removed && node.entry.expiresAt() > now) {
+            double distanceSquared = distanceSquared(point, node.entry.point());
+            if (distanceSquared <= maxDistanceSquared) {
+                best.add(new Neighbour(node.entry, Math.sqrt(distanceSquared)));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+        }
+
+        int axis = depth % dimensions;
+        double delta = point[axis] - node.entry.point()[axis];
+        Node near = delta < 0 ? node.left : node.right;
+        Node far = delta < 0 ? node.right : node.left;
+
+        search(near, depth + 1, point, limit, maxDistanceSquared, now, best);
+
+        // The far side can only hold closer entries if the splitting plane is within range
+        double bound = best.size() < limit
+                ? maxDistanceSquared
+                : Math.min(maxDistanceSquared, best.peek().distance() * best.peek().distance());
+        if (delta * delta <= bound) {
+            search(far, depth + 1, point, limit, maxDistanceSquared, now, best);
+        }
+    }
+
+    private void insert(Node node) {
+        if (root == null) {
+            root = node;
+            return;
+        }
+
+        Node parent = root;
+        for (int depth = 0; ; depth++) {
+            int axis = depth % dimensions;
+            if (node.entry.point()[axis] < parent.entry.point()[axis]) {
+                if (parent.left == null) {
+                    parent.left = node;
+                    return;
+                }
+                parent = parent.left;
+            } else {
+                if (parent.right == null) {
+                    parent.right = node;
+                    return;
+                }
+                parent = parent.right;
+            }
+        }
+    }
+
+    private void removeNode(Long planId) {
+        Node node = nodesByPlanId.remove(planId);
+        if (node != null) {
+            node.removed = true;
+            removedCount++;
+        }
+    }
+
+    private void rebuildIfSparse() {
+        if (removedCount > nodesByPlanId.size()) {
+            rebuild();
+        }
+    }
+
+    private void rebuild() {
+        List<Node> live = new ArrayList<>(nodesByPlanId.size());
+        for (Node node : nodesByPlanId.values()) {
+            node.left = null;
+            node.right = null;
+            live.add(node);
+        }
+        root = build(live, 0, live.size(), 0);
+        removedCount = 0;
+    }
+
+    private Node build(List<Node> nodes, int from, int to, int depth) {
+        if (from >= to) {
+            return null;
+        }
+
+        // Split on the median along this depth's axis
+        int axis = depth % dimensions;
+        nodes.subList(from, to).sort(Comparator.comparingDouble(node -> node.entry.point()[axis]));
+        int median = (from + to) >>> 1;
+        Node node = nodes.get(median);
+        node.left = build(nodes, from, median, depth + 1);
+        node.right = build(nodes, median + 1, to, depth + 1);
+        return node;
+    }
+
+    private static double distanceSquared(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            double delta = a[i] - b[i];
+            sum += delta * delta;
+        }
+        return sum;
+    }
+
+    /**
+     * An indexed plan
+     *
+     * @param planId the plan ID
+     * @param point the normalized feature vector of the profile the plan was generated for
+     * @param expiresAt the plan expiry in epoch milliseconds, or Long.MAX_VALUE
+     */
+    record Entry(Long planId, float[] point, long expiresAt) {
+    }
+
+    /**
+     * A search result
+     *
+     * @param entry the indexed plan
+     * @param distance the distance from the query point
+     */
+    record Neighbour(Entry entry, double distance) {
+    }
+
+    private static final class Node {
+        private final Entry entry;
+        private Node left;
+        private Node right;
+        private boolean removed;
+
+        private Node(Entry entry) {
+            this.entry = entry;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.entity.AIPromptTemplate;
+import com.fitplanpro.enums.PromptTemplateType;
+import com.fitplanpro.exception.AIServiceException;
+import com.fitplanpro.repository.AIPromptTemplateRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of compiled prompt templates. The active template per type is looked up
+ * once and compiled once per template ID and version. Changes to AIPromptTemplate
+ * rows made through JPA invalidate the cache after commit; entries also expire
+ * after fitplan.ai.templates.refresh-ms to pick up changes made directly in the
+ * database.
+ */
+@Component
+@Slf4j
+public class PromptTemplateCache {
+
+    private final AIPromptTemplateRepository promptTemplateRepository;
+    private final Map<PromptTemplateType, ActiveTemplate> activeTemplates = new ConcurrentHashMap<>();
+    private final Map<String, CompiledPromptTemplate> compiledTemplates = new ConcurrentHashMap<>();
+
+    @Value("${fitplan.ai.templates.refresh-ms:300000}")
+    private long refreshMillis;
+
+    public PromptTemplateCache(AIPromptTemplateRepository promptTemplateRepository) {
+        this.promptTemplateRepository = promptTemplateRepository;
+    }
+
+    /**
+     * Get the compiled active template for a type
+     *
+     * @param templateType the template type
+     * @return the compiled template
+     */
+    public CompiledPromptTemplate getActiveTemplate(PromptTemplateType templateType) {
+        long now = System.currentTimeMillis();
+        ActiveTemplate active = activeTemplates.get(templateType);
+        if (active != null && active.expiresAt() > now) {
+            return active.template();
+        }
+
+        AIPromptTemplate entity = promptTemplateRepository
+                .findTopByTemplateTypeAndIsActiveTrueOrderByVersionDesc(templateType)
+                .orElseThrow(() -> new AIServiceException("No active template found for type: " + templateType));
+
+        // Reuse the compiled form while the active row and version are unchanged
+        CompiledPromptTemplate template = compiledTemplates.computeIfAbsent(
+                entity.getId() + ":" + entity.getVersion(),
+                key -> CompiledPromptTemplate.compile(entity.getId(), entity.getTemplateType(),
+                        entity.getVersion(), entity.getTemplateContent()));
+
+        activeTemplates.put(templateType, new ActiveTemplate(template, now + refreshMillis));
+        return template;
+    }
+
+    /**
+     * Invalidate the cache once the current transaction, if any, has committed
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    clear();
+                }
+            });
+        } else {
+            clear();
+        }
+    }
+
+    private void clear() {
+        activeTemplates.clear();
+        compiledTemplates.clear();
+        log.debug("Prompt template cache invalidated");
+    }
+
+    private record ActiveTemplate(CompiledPromptTemplate template, long expiresAt) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.entity.AIPromptTemplate;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that invalidates compiled prompt templates whenever an
+ * AIPromptTemplate row is inserted, updated or deleted
+ */
+@Component
+public class PromptTemplateChangeListener {
+
+    // Resolved lazily: the cache depends on a repository, which depends on the entity manager
+    private final ObjectProvider<PromptTemplateCache> promptTemplateCache;
+
+    public PromptTemplateChangeListener(ObjectProvider<PromptTemplateCache> promptTemplateCache) {
+        this.promptTemplateCache = promptTemplateCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onTemplateChange(AIPromptTemplate template) {
+        promptTemplateCache.ifAvailable(PromptTemplateCache::invalidate);
+    }
+}
@@ -0,0 +1,48 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.dto.aiservice.AIProviderRequestDto;
+import com.fitplanpro.dto.aiservice.AIProviderResponseDto;
+import com.fitplanpro.enums.AIProvider;
+
+import java.util.function.Consumer;
+
+/**
+ * AI provider client that calls a live provider and records every response,
+ * with its latency, for later replay
+ */
+public class RecordingAIProviderClient implements AIProviderClient {
+
+    private final AIProviderClient delegate;
+    private final AIRecordingStore recordingStore;
+
+    public RecordingAIProviderClient(AIProviderClient delegate, AIRecordingStore recordingStore) {
+        this.delegate = delegate;
+        this.recordingStore = recordingStore;
+    }
+
+    @Override
+    public AIProvider getProvider() {
+        return delegate.getProvider();
+    }
+
+    @Override
+    public String getModelName() {
+        return delegate.getModelName();
+    }
+
+    @Override
+    public AIProviderResponseDto complete(AIProviderRequestDto request) {
+        long startTime = System.currentTimeMillis();
+        AIProviderResponseDto response = delegate.complete(request);
+        recordingStore.save(request, response, System.currentTimeMillis() - startTime);
+        return response;
+    }
+
+    @Override
+    public AIProviderResponseDto stream(AIProviderRequestDto request, Consumer<String> textListener) {
+        long startTime = System.currentTimeMillis();
+        AIProviderResponseDto response = delegate.stream(request, textListener);
+        recordingStore.save(request, response, System.currentTimeMillis() - startTime);
+        return response;
+    }
+}
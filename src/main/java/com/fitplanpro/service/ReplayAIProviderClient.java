@@ -0,0 +1,96 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.dto.aiservice.AIProviderRequestDto;
+import com.fitplanpro.dto.aiservice.AIProviderResponseDto;
+import com.fitplanpro.dto.aiservice.AIRecordingDto;
+import com.fitplanpro.enums.AIProvider;
+import com.fitplanpro.exception.AIServiceException;
+
+import java.util.function.Consumer;
+
+/**
+ * AI provider client that serves recorded responses without any network access,
+ * after a latency drawn from the {@link AILatencyModel}. Recordings are matched
+ * by a provider-independent fingerprint, so either provider can replay them.
+ */
+public class ReplayAIProviderClient implements AIProviderClient {
+
+    // Characters per streamed chunk; the sampled latency is spread across the chunks
+    private static final int STREAM_CHUNK_SIZE = 64;
+
+    private final AIProvider provider;
+    private final String model;
+    private final AIRecordingStore recordingStore;
+    private final AILatencyModel latencyModel;
+
+    public ReplayAIProviderClient(AIProvider provider, String model, AIRecordingStore recordingStore,
+                                  AILatencyModel latencyModel) {
+        this.provider = provider;
+        this.model = model;
+        this.recordingStore = recordingStore;
+        this.latencyModel = latencyModel;
+    }
+
+    @Override
+    public AIProvider getProvider() {
+        return provider;
+    }
+
+    @Override
+    public String getModelName() {
+        return model;
+    }
+
+    @Override
+    public AIProviderResponseDto complete(AIProviderRequestDto request) {
+        AIRecordingDto recording = findRecording(request);
+        sleep(latencyModel.sample(recording.getLatencyMs()));
+        return toResponse(recording);
+    }
+
+    @Override
+    public AIProviderResponseDto stream(AIProviderRequestDto request, Consumer<String> textListener) {
+        AIRecordingDto recording = findRecording(request);
+        String content = recording.getResponse().getContent();
+
+        int chunks = Math.max(1, (content.length() + STREAM_CHUNK_SIZE - 1) / STREAM_CHUNK_SIZE);
+        long chunkDelay = latencyModel.sample(recording.getLatencyMs()) / chunks;
+
+        for (int start = 0; start < content.length(); start += STREAM_CHUNK_SIZE) {
+            sleep(chunkDelay);
+            textListener.accept(content.substring(start, Math.min(content.length(), start + STREAM_CHUNK_SIZE)));
+        }
+
+        return toResponse(recording);
+    }
+
+    private AIRecordingDto findRecording(AIProviderRequestDto request) {
+        return recordingStore.find(request)
+                .orElseThrow(() -> new AIServiceException(
+                        "No recorded AI response for request " + recordingStore.getFingerprint(request)));
+    }
+
+    private AIProviderResponseDto toResponse(AIRecordingDto recording) {
+        // Attribute the replayed response to this client so routing and metrics stay consistent
+        return AIProviderResponseDto.builder()
+                .provider(provider)
+                .model(model)
+                .content(recording.getResponse().getContent())
+                .promptTokens(recording.getResponse().getPromptTokens())
+                .completionTokens(recording.getResponse().getCompletionTokens())
+                .build();
+    }
+
+    private void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            // Hedging cancels the losing call by interrupting it
+            Thread.currentThread().interrupt();
+            throw new AIServiceException("Interrupted while replaying AI response", e);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.dto.plan.PlanGenerationRequestDto;
+import com.fitplanpro.dto.plan.PlanGenerationResultDto;
+import com.fitplanpro.enums.PlanType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Starts generating a plan as soon as a profile is created or its profile hash
+ * changes, on a small pool of low-priority threads, so the plan is ready or under
+ * way when the user asks for it.
+ * <p>
+ * Rules:
+ * <ul>
+ * <li>At most one speculation runs per profile and plan type; further events for
+ * the same profile version are ignored.</li>
+ * <li>The plan type speculated on is the one most requested on this node, or
+ * fitplan.plan.speculative.default-plan-type before any requests.</li>
+ * <li>A generatePlan call for the same profile and plan type waits for the
+ * speculation instead of starting its own generation, up to
+ * fitplan.plan.speculative.attach-timeout-ms.</li>
+ * <li>A newer version of the profile, or a forced regeneration, cancels the
+ * speculation.</li>
+ * <li>When the pool is saturated, the speculation is skipped.</li>
+ * <li>A finished speculation that nobody claims within
+ * fitplan.plan.speculative.claim-window-ms is forgotten; its plan stays
+ * available for reuse.</li>
+ * </ul>
+ */
+@Service
+@Slf4j
+public class SpeculativePlanService {
+
+    private final ObjectProvider<PlanService> planService;
+    private final ThreadPoolExecutor executor;
+    private final Map<Key, Speculation> speculations = new ConcurrentHashMap<>();
+    private final Map<PlanType, LongAdder> planTypeRequests = new EnumMap<>(PlanType.class);
+
+    private final Timer timeSaved;
+    private final Counter started;
+    private final Counter attached;
+    private final Counter unclaimed;
+    private final Counter cancelled;
+    private final Counter failed;
+    private final Counter rejected;
+
+    @Value("${fitplan.plan.speculative.enabled:true}")
+    private boolean enabled;
+
+    @Value("${fitplan.plan.speculative.default-plan-type:COMBINED_PLAN}")
+    private PlanType defaultPlanType;
+
+    @Value("${fitplan.plan.speculative.attach-timeout-ms:120000}")
+    private long attachTimeoutMillis;
+
+    @Value("${fitplan.plan.speculative.claim-window-ms:600000}")
+    private long claimWindowMillis;
+
+    public SpeculativePlanService(
+            ObjectProvider<PlanService> planService,
+            MeterRegistry meterRegistry,
+            @Value("${fitplan.plan.speculative.concurrency:2}") int concurrency,
+            @Value("${fitplan.plan.speculative.queue-capacity:20}") int queueCapacity) {
+        // Resolved lazily: PlanService attaches to speculations through this service
+        this.planService = planService;
+
+        // Platform threads at minimum priority so speculative work yields to request handling
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("speculative-plan-", 1).priority(Thread.MIN_PRIORITY).daemon(true).factory());
+
+        for (PlanType planType : PlanType.values()) {
+            planTypeRequests.put(planType, new LongAdder());
+        }
+
+        this.timeSaved = Timer.builder("fitplan.plan.speculative.time.saved")
+                .description("Generation time already done by a speculation when the user requested the plan")
+                .publishPercentiles(0.5, 0.9)
+                .register(meterRegistry);
+        this.started = counter(meterRegistry, "started");
+        this.attached = counter(meterRegistry, "attached");
+        this.unclaimed = counter(meterRegistry, "unclaimed");
+        this.cancelled = counter(meterRegistry, "cancelled");
+        this.failed = counter(meterRegistry, "failed");
+        this.rejected = counter(meterRegistry, "rejected");
+        meterRegistry.gauge("fitplan.plan.speculative.in.flight", speculations, Map::size);
+    }
+
+    /**
+     * Start a speculation once a profile change has been committed
+     *
+     * @param event the profile change event
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProfileChanged(UserProfileChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        // Work for an outdated version of the profile is wasted
+        speculations.entrySet().removeIf(entry -> {
+            if (entry.getKey().profileId().equals(event.profileId())
+                    && !entry.getValue().profileHash.equals(event.profileHash())) {
+                cancel(entry.getValue());
+                return true;
+            }
+            return false;
+        });
+
+        PlanType planType = getMostLikelyPlanType();
+        Key key = new Key(event.profileId(), planType);
+        PlanGenerationRequestDto request = PlanGenerationRequestDto.builder()
+                .profileId(event.profileId())
+                .planType(planType)
+                .forceRegenerate(false)
+                .build();
+
+        Speculation speculation = new Speculation(event.profileHash());
+        speculation.task = new FutureTask<>(() -> run(speculation, request));
+        if (speculations.putIfAbsent(key, speculation) != null) {
+            return;
+        }
+
+        try {
+            executor.execute(speculation.task);
+            started.increment();
+            log.debug("Started speculative {} generation for profile {}", planType, event.profileId());
+        } catch (RejectedExecutionException e) {
+            speculations.remove(key, speculation);
+            speculation.task.cancel(false);
+            rejected.increment();
+        }
+    }
+
+    /**
+     * Wait for the speculation matching a plan request, if there is one
+     *
+     * @param requestDto the plan generation request
+     * @return the speculation's result, or null if the caller should generate the plan itself
+     */
+    public PlanGenerationResultDto attach(PlanGenerationRequestDto requestDto) {
+        planTypeRequests.get(requestDto.getPlanType()).increment();
+
+        Key key = new Key(requestDto.getProfileId(), requestDto.getPlanType());
+        Speculation speculation = speculations.get(key);
+        if (speculation == null) {
+            return null;
+        }
+
+        long requestedAt = System.nanoTime();
+        PlanGenerationResultDto result;
+        try {
+            result = speculation.task.get(attachTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | CancellationException | TimeoutException e) {
+            log.debug("Speculative plan for profile {} not usable, generating directly", key.profileId(), e);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+
+        speculations.remove(key, speculation);
+        if (speculation.claimed.compareAndSet(false, true)) {
+            // Count only the part of the generation that ran before the user asked for the plan
+            timeSaved.record(Math.min(requestedAt, speculation.completedAt) - speculation.startedAt,
+                    TimeUnit.NANOSECONDS);
+            attached.increment();
+        }
+
+        return PlanGenerationResultDto.builder()
+                .planId(result.getPlanId())
+                .planType(result.getPlanType())
+                .fromCache(result.getFromCache())
+                .similarityScore(result.getSimilarityScore())
+                .aiModelUsed(result.getAiModelUsed())
+                .generationTimeMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - requestedAt))
+                .build();
+    }
+
+    /**
+     * Cancel the speculation for a profile and plan type, e.g. before a forced regeneration
+     *
+     * @param profileId the profile ID
+     * @param planType the plan type
+     */
+    public void cancel(Long profileId, PlanType planType) {
+        Speculation speculation = speculations.remove(new Key(profileId, planType));
+        if (speculation != null) {
+            cancel(speculation);
+        }
+    }
+
+    /**
+     * Forget finished speculations that were not claimed within the claim window
+     */
+    @Scheduled(fixedDelayString = "${fitplan.plan.speculative.cleanup-interval-ms:60000}")
+    public void removeUnclaimedSpeculations() {
+        long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(claimWindowMillis);
+        speculations.values().removeIf(speculation -> {
+            if (speculation.task.isDone() && speculation.completedAt - cutoff < 0) {
+                unclaimed.increment();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Stop the speculation executor
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private PlanGenerationResultDto run(Speculation speculation, PlanGenerationRequestDto request) {
+        try {
+            return planService.getObject().generatePlanForBackgroundTask(request);
+        } catch (RuntimeException e) {
+            if (!speculation.task.isCancelled()) {
+                failed.increment();
+                log.warn("Speculative plan generation failed for profile {}", request.getProfileId(), e);
+            }
+            throw e;
+        } finally {
+            speculation.completedAt = System.nanoTime();
+        }
+    }
+
+    private void cancel(Speculation speculation) {
+        if (speculation.task.cancel(true)) {
+            cancelled.increment();
+        }
+    }
+
+    private PlanType getMostLikelyPlanType() {
+        PlanType mostRequested = defaultPlanType;
+        long mostRequests = 0;
+        for (Map.Entry<PlanType, LongAdder> entry : planTypeRequests.entrySet()) {
+            long requests = entry.getValue().sum();
+            if (requests > mostRequests) {
+                mostRequested = entry.getKey();
+                mostRequests = requests;
+            }
+        }
+        return mostRequested;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("fitplan.plan.speculative")
+                .description("Speculative plan generations by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Key(Long profileId, PlanType planType) {
+    }
+
+    private static final class Speculation {
+        private final String profileHash;
+        private final long startedAt = System.nanoTime();
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private FutureTask<PlanGenerationResultDto> task;
+        private volatile long completedAt = Long.MAX_VALUE;
+
+        private Speculation(String profileHash) {
+            this.profileHash = profileHash;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.fitplanpro.service;
+
+/**
+ * Published when a profile is created, or updated in a way that changes its profile hash
+ *
+ * @param profileId the profile ID
+ * @param userId the ID of the profile's owner
+ * @param profileHash the new profile hash
+ * @param created whether the profile was just created
+ */
+public record UserProfileChangedEvent(Long profileId, Long userId, String profileHash, boolean created) {
+}
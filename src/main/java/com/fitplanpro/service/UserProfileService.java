@@ -13,6 +13,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,6 +31,7 @@ public class UserProfileService {
     private final UserProfileRepository userProfileRepository;
     private final UserProfileMapper userProfileMapper;
     private final UserService userService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Create a new user profile
@@ -52,6 +54,9 @@ public class UserProfileService {
         // Save profile
         UserProfile savedProfile = userProfileRepository.save(userProfile);
 
+        eventPublisher.publishEvent(new UserProfileChangedEvent(
+                savedProfile.getId(), currentUser.getId(), savedProfile.getProfileHash(), true));
+
         return userProfileMapper.toDto(savedProfile);
     }
 
@@ -105,6 +110,7 @@ public class UserProfileService {
                 .orElseThrow(() -> new ProfileNotFoundException("Profile not found for current user"));
 
         // Update profile
+        String previousHash = userProfile.getProfileHash();
         userProfileMapper.updateEntity(updateDto, userProfile);
 
         // Re-generate profile hash if critical fields have changed
@@ -117,6 +123,11 @@ public class UserProfileService {
         // Save updated profile
         UserProfile updatedProfile = userProfileRepository.save(userProfile);
 
+        if (!updatedProfile.getProfileHash().equals(previousHash)) {
+            eventPublisher.publishEvent(new UserProfileChangedEvent(
+                    updatedProfile.getId(), currentUser.getId(), updatedProfile.getProfileHash(), false));
+        }
+
         return userProfileMapper.toDto(updatedProfile);
     }
 
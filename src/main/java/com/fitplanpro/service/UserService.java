@@ -8,8 +8,10 @@ import com.fitplanpro.exception.UserNotFoundException;
 import com.fitplanpro.mapper.UserMapper;
 import com.fitplanpro.entity.User;
 import com.fitplanpro.repository.UserRepository;
+import com.fitplanpro.security.JwtUserPrincipal;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -31,23 +33,54 @@ public class UserService {
     private final PasswordEncoder passwordEncoder;
 
     /**
-     * Get current authenticated user
+     * Get the ID of the current authenticated user without touching the users table
      *
-     * @return the current user entity
+     * @return the current user ID
      */
-    @Transactional(readOnly = true)
-    public User getCurrentUserEntity() {
+    public Long getCurrentUserId() {
         // Get authentication from security context
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
-        if (authentication == null || !authentication.isAuthenticated()) {
+        // Requests whose token was rejected reach public endpoints as anonymous
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
             throw new AuthenticationException("Not authenticated");
         }
 
+        // Claims-based principal carries the user ID
+        if (authentication.getPrincipal() instanceof JwtUserPrincipal principal) {
+            return principal.getUserId();
+        }
+
         // Get user by email
         String email = authentication.getName();
-        return userRepository.findByEmail(email)
+        User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
+
+        return user.getId();
+    }
+
+    /**
+     * Get current authenticated user. Within a transaction the user is loaded
+     * once and then served from the persistence context.
+     *
+     * @return the current user entity
+     */
+    @Transactional(readOnly = true)
+    public User getCurrentUserEntity() {
+        return getUserEntity(getCurrentUserId());
+    }
+
+    /**
+     * Get a user entity by ID
+     *
+     * @param id the user ID
+     * @return the user entity
+     */
+    @Transactional(readOnly = true)
+    public User getUserEntity(Long id) {
+        return userRepository.findById(id)
+                .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + id));
     }
 
     /**
@@ -57,7 +90,11 @@ public class UserService {
      */
     @Transactional(readOnly = true)
     public UserDto getCurrentUser() {
-        return userMapper.toDto(getCurrentUserEntity());
+        Long userId = getCurrentUserId();
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException("User not found with ID: " + userId));
+
+        return userMapper.toDto(user);
     }
 
     /**
@@ -0,0 +1,39 @@
+package com.fitplanpro.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Hashing helpers for cache keys, token digests and content hashes
+ */
+public final class HashUtils {
+
+    private HashUtils() {
+    }
+
+    /**
+     * Hash a string with SHA-256
+     *
+     * @param value the value to hash, encoded as UTF-8
+     * @return the lower-case hex digest
+     */
+    public static String sha256Hex(String value) {
+        return sha256Hex(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Hash bytes with SHA-256
+     *
+     * @param value the bytes to hash
+     * @return the lower-case hex digest
+     */
+    public static String sha256Hex(byte[] value) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
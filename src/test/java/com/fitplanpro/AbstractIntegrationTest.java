@@ -0,0 +1,220 @@
+package com.fitplanpro;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitplanpro.dto.aiservice.AIProviderResponseDto;
+import com.fitplanpro.dto.aiservice.AIRecordingDto;
+import com.fitplanpro.entity.AIPromptTemplate;
+import com.fitplanpro.enums.PromptTemplateType;
+import com.fitplanpro.repository.AIPromptTemplateRepository;
+import com.fitplanpro.service.AIRecordingStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Base class for integration tests: the full application against a PostgreSQL
+ * container migrated by Liquibase, driven through MockMvc. The container is
+ * started once and shared by every test class; tests are skipped when Docker
+ * is not available. AI providers run in REPLAY mode against a mocked recording
+ * store, so tests choose the AI response and its latency.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
+public abstract class AbstractIntegrationTest {
+
+    protected static final String PASSWORD = "Password123!";
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    @Autowired
+    private AIPromptTemplateRepository promptTemplateRepository;
+
+    @MockitoBean
+    protected AIRecordingStore recordingStore;
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        POSTGRES.start();
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    /**
+     * Answer every AI request with a response read from a test resource, and
+     * make sure an active prompt template exists for every plan type
+     *
+     * @param resource the classpath resource holding the response JSON
+     * @param latencyMillis the replayed latency of each response
+     */
+    protected void stubAIResponse(String resource, long latencyMillis) throws Exception {
+        for (PromptTemplateType templateType : PromptTemplateType.values()) {
+            String templateName = "test-" + templateType;
+            if (promptTemplateRepository.findByTemplateName(templateName).isEmpty()) {
+                promptTemplateRepository.save(AIPromptTemplate.builder()
+                        .templateName(templateName)
+                        .templateType(templateType)
+                        .templateContent("{\"system_prompt\": \"Create a plan\", "
+                                + "\"user_context\": {\"age\": \"{{age}}\", \"goal\": \"{{goal_type}}\"}}")
+                        .version("1")
+                        .isActive(true)
+                        .createdAt(LocalDateTime.now())
+                        .updatedAt(LocalDateTime.now())
+                        .build());
+            }
+        }
+
+        String content;
+        try (InputStream input = new ClassPathResource(resource).getInputStream()) {
+            content = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        AIRecordingDto recording = AIRecordingDto.builder()
+                .response(AIProviderResponseDto.builder()
+                        .content(content)
+                        .promptTokens(500L)
+                        .completionTokens(2000L)
+                        .build())
+                .latencyMs(latencyMillis)
+                .build();
+        when(recordingStore.find(any())).thenReturn(Optional.of(recording));
+        when(recordingStore.getFingerprint(any())).thenReturn("test");
+    }
+
+    /**
+     * Perform a request, following it through async dispatch if the handler went async
+     *
+     * @param request the request
+     * @return the result of the completed request
+     */
+    protected ResultActions perform(RequestBuilder request) throws Exception {
+        ResultActions actions = mockMvc.perform(request);
+        MvcResult result = actions.andReturn();
+        return result.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(result)) : actions;
+    }
+
+    /**
+     * Register a new user with a unique email
+     *
+     * @return the tokens issued at registration
+     */
+    protected TestUser registerUser() throws Exception {
+        return registerUser("user-" + UUID.randomUUID() + "@example.com");
+    }
+
+    /**
+     * Register a user with a given email
+     *
+     * @param email the email
+     * @return the registered user and their tokens
+     */
+    protected TestUser registerUser(String email) throws Exception {
+        MvcResult result = perform(post("/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("email", email, "password", PASSWORD))))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        JsonNode data = readData(result);
+        return new TestUser(data.path("user").path("id").asLong(), email,
+                data.path("token").asText(), data.path("refreshToken").asText());
+    }
+
+    /**
+     * Create a profile for a user
+     *
+     * @param user the user
+     * @param profile the profile fields, overriding the defaults
+     * @return the created profile ID
+     */
+    protected Long createProfile(TestUser user, Map<String, Object> profile) throws Exception {
+        Map<String, Object> body = new HashMap<>(Map.of(
+                "gender", "MALE",
+                "age", 30,
+                "height", 180,
+                "currentWeight", 80,
+                "goalType", "WEIGHT_LOSS",
+                "trainingExperience", "BEGINNER",
+                "trainingLocation", "GYM",
+                "daysPerWeek", 3,
+                "dietPreference", "NORMAL",
+                "mealsPerDay", 3));
+        body.put("snacksPerDay", 1);
+        body.put("locationCulture", "Western");
+        body.put("targetWeight", 75);
+        body.put("medicalConditions", "");
+        body.put("foodAllergies", "");
+        body.put("timePerWorkout", 60);
+        body.put("equipmentAvailable", "");
+        body.put("budgetConstraints", "MEDIUM");
+        body.put("preferredWorkoutTime", "MORNING");
+        body.putAll(profile);
+
+        MvcResult result = perform(post("/profiles")
+                .header("Authorization", user.bearer())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(body)))
+                .andExpect(status().is2xxSuccessful())
+                .andReturn();
+        return readData(result).path("id").asLong();
+    }
+
+    /**
+     * Read the data field of an API response
+     *
+     * @param result the request result
+     * @return the data node
+     */
+    protected JsonNode readData(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsString()).path("data");
+    }
+
+    /**
+     * A registered user
+     *
+     * @param id the user ID
+     * @param email the email
+     * @param accessToken the access token
+     * @param refreshToken the refresh token
+     */
+    protected record TestUser(Long id, String email, String accessToken, String refreshToken) {
+
+        public String bearer() {
+            return "Bearer " + accessToken;
+        }
+    }
+}
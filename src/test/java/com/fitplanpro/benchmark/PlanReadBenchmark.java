@@ -0,0 +1,150 @@
+package com.fitplanpro.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fitplanpro.dto.plan.PlanViewDto;
+import com.fitplanpro.enums.PlanType;
+import com.fitplanpro.mapper.PlanMapperImpl;
+import com.fitplanpro.service.PlanViewCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plan reads on a large 7-day plan: parsing the stored plan_data JSON into a Map
+ * and walking it into DTOs, as every read did before plan views were materialized,
+ * against deserializing the stored plan_view directly.
+ * Run with {@code mvn test-compile} and then {@link #main} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class PlanReadBenchmark {
+
+    private static final int DAYS = 7;
+    private static final int MEALS_PER_DAY = 6;
+    private static final int EXERCISES_PER_DAY = 10;
+
+    private static final TypeReference<Map<String, Object>> PLAN_DATA = new TypeReference<>() {
+    };
+
+    @Param({"MEAL_PLAN", "WORKOUT_PLAN", "COMBINED_PLAN"})
+    private PlanType planType;
+
+    private ObjectMapper objectMapper;
+    private PlanViewCodec codec;
+    private byte[] planData;
+    private byte[] planView;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper();
+        codec = new PlanViewCodec(new PlanMapperImpl(), objectMapper);
+
+        Map<String, Object> data = createPlanData(planType);
+        planData = objectMapper.writeValueAsBytes(data);
+        planView = codec.materialize(data, planType);
+    }
+
+    @Benchmark
+    public PlanViewDto walkPlanData() throws IOException {
+        return codec.toView(objectMapper.readValue(planData, PLAN_DATA), planType);
+    }
+
+    @Benchmark
+    public PlanViewDto readPlanView() {
+        return codec.read(planView);
+    }
+
+    private static Map<String, Object> createPlanData(PlanType planType) {
+        Map<String, Object> data = new LinkedHashMap<>();
+
+        if (planType != PlanType.WORKOUT_PLAN) {
+            data.put("daily_calories", 2400);
+            data.put("macros", macros());
+            List<Map<String, Object>> dailyPlans = new ArrayList<>();
+            for (int day = 1; day <= DAYS; day++) {
+                List<Map<String, Object>> meals = new ArrayList<>();
+                for (int meal = 1; meal <= MEALS_PER_DAY; meal++) {
+                    meals.add(Map.of(
+                            "meal_number", meal,
+                            "name", "Meal " + meal + " of day " + day,
+                            "ingredients", List.of("150g chicken breast", "100g brown rice", "80g broccoli",
+                                    "1 tbsp olive oil", "50g spinach", "1 clove garlic"),
+                            "preparation", "Season and grill the chicken, cook the rice, steam the vegetables "
+                                    + "and finish with olive oil and garlic",
+                            "calories", 400,
+                            "macros", Map.of("protein", 30, "carbs", 45, "fats", 11)));
+                }
+                dailyPlans.add(Map.of("day", day, "total_calories", 2400, "meals", meals, "total_macros", macros()));
+            }
+            data.put("daily_plans", dailyPlans);
+        }
+
+        if (planType != PlanType.MEAL_PLAN) {
+            data.put("focus", "Hypertrophy with conditioning");
+            data.put("recommended_equipment", "Barbell, dumbbells, pull-up bar, bench");
+            List<Map<String, Object>> weeklySchedule = new ArrayList<>();
+            for (int day = 1; day <= DAYS; day++) {
+                List<Map<String, Object>> exercises = new ArrayList<>();
+                for (int exercise = 1; exercise <= EXERCISES_PER_DAY; exercise++) {
+                    exercises.add(Map.of(
+                            "name", "Exercise " + exercise,
+                            "sets", 4,
+                            "reps", "8-12",
+                            "rest_seconds", 90,
+                            "notes", "Control the eccentric and keep a neutral spine",
+                            "alternative_exercise", "Machine variation of exercise " + exercise));
+                }
+                weeklySchedule.add(Map.of(
+                        "day", day,
+                        "focus", "Day " + day + " focus",
+                        "exercises", exercises,
+                        "estimated_duration", 60,
+                        "warmup", "5 minutes of light cardio and dynamic stretches",
+                        "cooldown", "5 minutes of static stretching"));
+            }
+            data.put("weekly_schedule", weeklySchedule);
+        }
+
+        if (planType == PlanType.COMBINED_PLAN) {
+            data.put("recommendations", Map.of("hydration", "Drink 3 litres of water a day",
+                    "sleep", "Aim for 8 hours of sleep"));
+        }
+
+        return data;
+    }
+
+    private static Map<String, Object> macros() {
+        return Map.of("protein_percentage", 30, "carbs_percentage", 45, "fats_percentage", 25,
+                "protein_grams", 180, "carbs_grams", 270, "fats_grams", 67);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PlanReadBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,104 @@
+package com.fitplanpro.benchmark;
+
+import com.fitplanpro.enums.PromptTemplateType;
+import com.fitplanpro.service.CompiledPromptTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prompt rendering: one String.replace pass per parameter, as AIService did before
+ * templates were compiled, against a single pass over a compiled template.
+ * Run with {@code mvn test-compile} and then {@link #main} from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromptRenderBenchmark {
+
+    private static final String[] PARAMETER_NAMES = {
+            "gender", "age", "height", "current_weight", "target_weight", "goal_type", "training_experience",
+            "training_location", "days_per_week", "diet_preference", "meals_per_day", "snacks_per_day",
+            "location_culture", "medical_conditions", "food_allergies", "time_per_workout", "equipment_available",
+            "budget_constraints", "preferred_workout_time"};
+
+    private String templateContent;
+    private CompiledPromptTemplate compiledTemplate;
+    private Map<String, Object> parameters;
+
+    @Setup
+    public void setUp() {
+        // A meal plan prompt of realistic size, with every profile parameter in a JSON context
+        StringBuilder content = new StringBuilder("{\"system_prompt\": \"You are a certified nutritionist. ")
+                .append("Create a 7 day meal plan with daily calories, macros and per-meal ingredients. ".repeat(8))
+                .append("\", \"user_context\": {");
+        for (String name : PARAMETER_NAMES) {
+            content.append("\"").append(name).append("\": \"{{").append(name).append("}}\", ");
+        }
+        content.append("\"instructions\": \"")
+                .append("Respect allergies, medical conditions, budget and cultural preferences. ".repeat(6))
+                .append("\"}}");
+        templateContent = content.toString();
+        compiledTemplate = CompiledPromptTemplate.compile(1L, PromptTemplateType.MEAL_PLAN, "1", templateContent);
+
+        parameters = new LinkedHashMap<>();
+        parameters.put("gender", "FEMALE");
+        parameters.put("age", 34);
+        parameters.put("height", 168.0f);
+        parameters.put("current_weight", 72.5f);
+        parameters.put("target_weight", 65.0f);
+        parameters.put("goal_type", "WEIGHT_LOSS");
+        parameters.put("training_experience", "INTERMEDIATE");
+        parameters.put("training_location", "HOME");
+        parameters.put("days_per_week", 4);
+        parameters.put("diet_preference", "VEGETARIAN");
+        parameters.put("meals_per_day", 3);
+        parameters.put("snacks_per_day", 2);
+        parameters.put("location_culture", "Mediterranean");
+        parameters.put("medical_conditions", "mild \"exercise-induced\" asthma");
+        parameters.put("food_allergies", "peanuts, shellfish");
+        parameters.put("time_per_workout", 45);
+        parameters.put("equipment_available", "dumbbells, resistance bands, yoga mat");
+        parameters.put("budget_constraints", "MEDIUM");
+        parameters.put("preferred_workout_time", "EVENING");
+    }
+
+    @Benchmark
+    public String replacePerParameter() {
+        String prompt = templateContent;
+        for (Map.Entry<String, Object> entry : parameters.entrySet()) {
+            String placeholder = "{{" + entry.getKey() + "}}";
+            prompt = prompt.replace(placeholder, entry.getValue() != null ? entry.getValue().toString() : "");
+        }
+        return prompt;
+    }
+
+    @Benchmark
+    public String compiledRender() {
+        return compiledTemplate.render(parameters);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PromptRenderBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,91 @@
+package com.fitplanpro.controller;
+
+import com.fitplanpro.AbstractIntegrationTest;
+import com.fitplanpro.enums.PlanType;
+import com.fitplanpro.support.QueryCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Conditional plan reads with ETags
+ */
+class PlanHttpCacheIT extends AbstractIntegrationTest {
+
+    private TestUser user;
+    private long planId;
+    private String eTag;
+
+    @BeforeEach
+    void generateMealPlan() throws Exception {
+        stubAIResponse("ai/meal-plan.json", 0);
+        user = registerUser();
+        Long profileId = createProfile(user, Map.of("age", 57));
+        planId = readData(perform(post("/plans/generate")
+                .header("Authorization", user.bearer())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of(
+                        "planType", PlanType.MEAL_PLAN,
+                        "profileId", profileId,
+                        "forceRegenerate", true))))
+                .andExpect(status().isOk())
+                .andReturn())
+                .path("planId").asLong();
+
+        eTag = perform(get("/plans/" + planId + "/meal")
+                .header("Authorization", user.bearer()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL,
+                        matchesPattern("max-age=\\d+, private, immutable")))
+                .andReturn()
+                .getResponse()
+                .getHeader(HttpHeaders.ETAG);
+    }
+
+    @Test
+    void unchangedPlanIsNotModifiedWithoutReadingIt() throws Exception {
+        QueryCounter.reset();
+        perform(get("/plans/" + planId + "/meal")
+                .header("Authorization", user.bearer())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag));
+
+        assertThat(QueryCounter.countSelectsFrom("plans"))
+                .as("plan reads in %s", QueryCounter.getStatements())
+                .isZero();
+    }
+
+    @Test
+    void missingResourcesAreNotFoundEvenWithAMatchingETag() throws Exception {
+        perform(get("/plans/" + planId + "/workout")
+                .header("Authorization", user.bearer())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotFound());
+
+        perform(get("/plans/" + planId + "/meal/days/99")
+                .header("Authorization", user.bearer())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotFound());
+
+        perform(get("/plans/" + planId + "/combined")
+                .header("Authorization", user.bearer())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotFound());
+
+        perform(get("/plans/" + (planId + 1_000_000))
+                .header("Authorization", user.bearer())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,64 @@
+package com.fitplanpro.controller;
+
+import com.fitplanpro.AbstractIntegrationTest;
+import com.fitplanpro.enums.PlanType;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+/**
+ * Streaming plan generation over Server-Sent Events
+ */
+class PlanStreamingIT extends AbstractIntegrationTest {
+
+    @Test
+    void streamEndsWithTheSavedPlan() throws Exception {
+        stubAIResponse("ai/meal-plan.json", 100);
+        TestUser user = registerUser();
+        Long profileId = createProfile(user, Map.of("age", 52));
+
+        String events = stream(user, profileId);
+
+        assertThat(events).contains("event:daily_plans").contains("event:complete");
+    }
+
+    @Test
+    void failuresAreReportedWithoutInternalDetails() throws Exception {
+        stubAIResponse("ai/meal-plan.json", 0);
+        when(recordingStore.find(any())).thenReturn(Optional.empty());
+        when(recordingStore.getFingerprint(any())).thenReturn("internal-fingerprint");
+        TestUser user = registerUser();
+        Long profileId = createProfile(user, Map.of("age", 53));
+
+        String events = stream(user, profileId);
+
+        assertThat(events).contains("event:error").contains("Plan generation failed")
+                .doesNotContain("internal-fingerprint");
+    }
+
+    private String stream(TestUser user, Long profileId) throws Exception {
+        MvcResult result = mockMvc.perform(post("/plans/generate/stream")
+                        .header("Authorization", user.bearer())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "planType", PlanType.MEAL_PLAN,
+                                "profileId", profileId,
+                                "forceRegenerate", true))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Completes when the stream does
+        result.getAsyncResult(30_000);
+        return result.getResponse().getContentAsString();
+    }
+}
@@ -0,0 +1,36 @@
+package com.fitplanpro.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private final ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest("POST", "/auth/login"));
+
+    @Test
+    void saturatedHashingPoolWrappedByAuthenticationIsTooManyRequests() {
+        var response = handler.handleInternalAuthenticationServiceException(
+                new InternalAuthenticationServiceException("busy",
+                        new TooManyRequestsException("Authentication service is busy, please retry shortly")),
+                request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    }
+
+    @Test
+    void otherInternalAuthenticationFailuresAreUnauthorized() {
+        var response = handler.handleInternalAuthenticationServiceException(
+                new InternalAuthenticationServiceException("lookup failed", new IllegalStateException()),
+                request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+    }
+}
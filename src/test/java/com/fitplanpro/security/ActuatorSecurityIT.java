@@ -0,0 +1,69 @@
+package com.fitplanpro.security;
+
+import com.fitplanpro.AbstractIntegrationTest;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Actuator endpoints other than health are restricted to admins
+ */
+class ActuatorSecurityIT extends AbstractIntegrationTest {
+
+    private static final String ADMIN_EMAIL = "admin@example.com";
+
+    private static TestUser admin;
+
+    @Test
+    void healthIsPublic() throws Exception {
+        // The status reflects the health of dependencies; only access is asserted here
+        perform(get("/actuator/health"))
+                .andExpect(result -> assertThat(result.getResponse().getStatus()).isNotIn(401, 403));
+    }
+
+    @Test
+    void providerStateRequiresAnAdmin() throws Exception {
+        perform(get("/actuator/aiproviders")).andExpect(status().isForbidden());
+        perform(get("/actuator/aiproviders")
+                .header("Authorization", registerUser().bearer()))
+                .andExpect(status().isForbidden());
+
+        perform(get("/actuator/aiproviders")
+                .header("Authorization", admin().bearer()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void usageRequiresAnAdmin() throws Exception {
+        perform(get("/actuator/aiusage")).andExpect(status().isForbidden());
+        perform(get("/actuator/aiusage")
+                .header("Authorization", registerUser().bearer()))
+                .andExpect(status().isForbidden());
+
+        perform(get("/actuator/aiusage")
+                .header("Authorization", admin().bearer()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRequests").isNumber());
+    }
+
+    @Test
+    void metricsRequireAnAdmin() throws Exception {
+        perform(get("/actuator/metrics")
+                .header("Authorization", registerUser().bearer()))
+                .andExpect(status().isForbidden());
+
+        perform(get("/actuator/metrics")
+                .header("Authorization", admin().bearer()))
+                .andExpect(status().isOk());
+    }
+
+    private TestUser admin() throws Exception {
+        if (admin == null) {
+            admin = registerUser(ADMIN_EMAIL);
+        }
+        return admin;
+    }
+}
@@ -0,0 +1,106 @@
+package com.fitplanpro.security;
+
+import com.fitplanpro.AbstractIntegrationTest;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Registration and login through the asynchronous auth endpoints
+ */
+class AuthIT extends AbstractIntegrationTest {
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Value("${security.jwt.token.secret-key}")
+    private String secretKey;
+
+    @Test
+    void loginHashesOffTheRequestThreadAndIssuesUsableTokens() throws Exception {
+        TestUser user = registerUser();
+
+        // The handler returns before the password is verified
+        MvcResult started = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Map.of("emailOrPhone", user.email(), "password", PASSWORD))))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+        String token = readData(result).path("token").asText();
+        assertThat(token).isNotBlank();
+        assertThat(readData(result).path("refreshToken").asText()).isNotBlank();
+
+        perform(get("/auth/check").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void loginWithWrongPasswordIsUnauthorized() throws Exception {
+        TestUser user = registerUser();
+
+        perform(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                        Map.of("emailOrPhone", user.email(), "password", "WrongPassword1!"))))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void loginForUnknownUserIsUnauthorized() throws Exception {
+        perform(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                        Map.of("emailOrPhone", "nobody@example.com", "password", PASSWORD))))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void legacyTokenWithoutTokenIdIsRejectedAfterTheRollout() throws Exception {
+        TestUser user = registerUser();
+
+        // Issued before user ID and token ID claims existed, so it could never be revoked
+        Instant now = Instant.now();
+        String legacyToken = Jwts.builder()
+                .setSubject(user.email())
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(now.plus(Duration.ofMinutes(15))))
+                .signWith(Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        perform(get("/users/me").header("Authorization", "Bearer " + legacyToken))
+                .andExpect(status().isUnauthorized());
+
+        Object cutoff = ReflectionTestUtils.getField(jwtTokenProvider, "legacyTokensAcceptedUntil");
+        ReflectionTestUtils.setField(jwtTokenProvider, "legacyTokensAcceptedUntil", now.plus(Duration.ofHours(1)));
+        try {
+            perform(get("/users/me").header("Authorization", "Bearer " + legacyToken))
+                    .andExpect(status().isOk());
+        } finally {
+            ReflectionTestUtils.setField(jwtTokenProvider, "legacyTokensAcceptedUntil", cutoff);
+        }
+    }
+}
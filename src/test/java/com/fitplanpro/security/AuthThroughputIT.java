@@ -0,0 +1,150 @@
+package com.fitplanpro.security;
+
+import com.fitplanpro.AbstractIntegrationTest;
+import com.fitplanpro.entity.User;
+import com.fitplanpro.repository.UserRepository;
+import com.fitplanpro.support.QueryCounter;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Requests per second of an ordinary authenticated read, authenticated from token
+ * claims compared with the per-request user lookup every request made before: a
+ * SELECT by email and an UPDATE of the last login time. Tokens without a user ID
+ * claim still take the lookup path, which this test restores to that baseline.
+ */
+@Slf4j
+@Import(AuthThroughputIT.BaselineLookupConfig.class)
+class AuthThroughputIT extends AbstractIntegrationTest {
+
+    private static final int WARMUP_REQUESTS = 500;
+    private static final int MEASURED_REQUESTS = 500;
+    private static final int ROUNDS = 3;
+
+    @Value("${security.jwt.token.secret-key}")
+    private String secretKey;
+
+    @Test
+    void claimsAuthenticationSkipsTheUserLookup() throws Exception {
+        TestUser user = registerUser();
+        // Track today, so every read of /tracking/today finds data
+        perform(post("/tracking/daily")
+                .header("Authorization", user.bearer())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("trackingDate", LocalDate.now().toString()))))
+                .andExpect(status().isOk());
+        String claimsBearer = user.bearer();
+        String lookupBearer = "Bearer " + createTokenWithoutUserId(user.email());
+
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            readToday(claimsBearer);
+            readToday(lookupBearer);
+        }
+
+        // Alternate the modes so JIT warm-up and caches favour neither, and keep each mode's best round
+        double claimsRps = 0;
+        double lookupRps = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            claimsRps = Math.max(claimsRps, measure(claimsBearer));
+            lookupRps = Math.max(lookupRps, measure(lookupBearer));
+        }
+        int claimsStatements = statementsPerRequest(claimsBearer);
+        int lookupStatements = statementsPerRequest(lookupBearer);
+        log.info("GET /tracking/today: {} req/s and {} statements authenticated from claims, "
+                        + "{} req/s and {} statements with a user lookup",
+                Math.round(claimsRps), claimsStatements, Math.round(lookupRps), lookupStatements);
+
+        assertThat(claimsStatements).isLessThan(lookupStatements);
+        QueryCounter.reset();
+        readToday(lookupBearer);
+        assertThat(QueryCounter.getStatements())
+                .as("the baseline lookup updates the last login time")
+                .anyMatch(sql -> sql.toLowerCase(Locale.ROOT).startsWith("update users"));
+    }
+
+    private double measure(String bearer) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_REQUESTS; i++) {
+            readToday(bearer);
+        }
+        return MEASURED_REQUESTS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private int statementsPerRequest(String bearer) throws Exception {
+        QueryCounter.reset();
+        readToday(bearer);
+        return QueryCounter.getStatements().size();
+    }
+
+    private void readToday(String bearer) throws Exception {
+        perform(get("/tracking/today")
+                .header("Authorization", bearer))
+                .andExpect(status().isOk());
+    }
+
+    // A token as issued before user ID and role claims were added
+    private String createTokenWithoutUserId(String email) {
+        Date now = new Date();
+        return Jwts.builder()
+                .setSubject(email)
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + 3_600_000))
+                .signWith(Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    /**
+     * The user lookup as it was before authentication from claims: every request loads
+     * the user by email and saves a new last login time
+     */
+    @TestConfiguration
+    static class BaselineLookupConfig {
+
+        @Bean
+        @Primary
+        UserDetailsService baselineUserDetailsService(UserRepository userRepository,
+                                                      TransactionTemplate transactionTemplate) {
+            return username -> transactionTemplate.execute(status -> {
+                User user = userRepository.findByEmail(username)
+                        .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + username));
+
+                user.setLastLogin(LocalDateTime.now());
+                userRepository.save(user);
+
+                return org.springframework.security.core.userdetails.User
+                        .withUsername(user.getEmail())
+                        .password(user.getPasswordHash())
+                        .authorities(Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")))
+                        .build();
+            });
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.fitplanpro.security;
+
+import com.fitplanpro.AbstractIntegrationTest;
+import com.fitplanpro.dto.user.RefreshTokenRequestDto;
+import com.fitplanpro.exception.AuthenticationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Refresh token rotation, reuse detection and logout ownership
+ */
+class RefreshTokenRotationIT extends AbstractIntegrationTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Test
+    void refreshRotatesTheToken() throws Exception {
+        TestUser user = registerUser();
+
+        MvcResult result = refresh(user.refreshToken())
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String rotated = readData(result).path("refreshToken").asText();
+        assertThat(rotated).isNotBlank().isNotEqualTo(user.refreshToken());
+        refresh(rotated).andExpect(status().isOk());
+    }
+
+    @Test
+    void reusingARotatedTokenRevokesTheWholeFamily() throws Exception {
+        TestUser user = registerUser();
+        String rotated = readData(refresh(user.refreshToken()).andExpect(status().isOk()).andReturn())
+                .path("refreshToken").asText();
+
+        refresh(user.refreshToken()).andExpect(status().isUnauthorized());
+
+        // The replacement issued before the reuse is revoked too
+        refresh(rotated).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void concurrentRotationsOfOneTokenHaveOneWinner() throws Exception {
+        TestUser user = registerUser();
+        int callers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        authService.refresh(new RefreshTokenRequestDto(user.refreshToken()));
+                        return true;
+                    } catch (AuthenticationException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    succeeded++;
+                }
+            }
+            assertThat(succeeded).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void logoutRevokesOnlyTheCallersOwnRefreshToken() throws Exception {
+        TestUser owner = registerUser();
+        TestUser other = registerUser();
+
+        perform(post("/auth/logout")
+                .header("Authorization", other.bearer())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("refreshToken", owner.refreshToken()))))
+                .andExpect(status().isUnauthorized());
+        refresh(owner.refreshToken()).andExpect(status().isOk());
+    }
+
+    @Test
+    void logoutRequiresAnAccessToken() throws Exception {
+        TestUser user = registerUser();
+
+        perform(post("/auth/logout")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("refreshToken", user.refreshToken()))))
+                .andExpect(status().isUnauthorized());
+        refresh(user.refreshToken()).andExpect(status().isOk());
+    }
+
+    @Test
+    void logoutRevokesTheRefreshToken() throws Exception {
+        TestUser user = registerUser();
+
+        perform(post("/auth/logout")
+                .header("Authorization", user.bearer())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("refreshToken", user.refreshToken()))))
+                .andExpect(status().isOk());
+        refresh(user.refreshToken()).andExpect(status().isUnauthorized());
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return perform(post("/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("refreshToken", refreshToken))));
+    }
+}
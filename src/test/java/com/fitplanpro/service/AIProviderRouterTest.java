@@ -0,0 +1,45 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.enums.AIProvider;
+import com.fitplanpro.enums.CircuitState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AIProviderRouterTest {
+
+    private AIProviderMonitor monitor;
+    private AIProviderRouter router;
+
+    @BeforeEach
+    void setUp() {
+        // The circuit opens on the first failure and half-opens on the next call
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        monitor = new AIProviderMonitor(100, 20, 20, 1, 0.5, 0.8, 25_000, 0, meterRegistry);
+        router = new AIProviderRouter(monitor, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        router.shutdown();
+    }
+
+    @Test
+    void errorFromTheHalfOpenProbeReleasesThePermit() {
+        assertThat(monitor.tryAcquirePermission(AIProvider.OPENAI)).isTrue();
+        monitor.recordFailure(AIProvider.OPENAI, 1);
+        assertThat(monitor.getCircuitState(AIProvider.OPENAI)).isEqualTo(CircuitState.OPEN);
+
+        assertThatThrownBy(() -> router.executeWithoutHedging(AIProvider.OPENAI, provider -> {
+            throw new AssertionError("provider call failed with an Error");
+        })).isInstanceOf(AssertionError.class);
+
+        // The probe failed, so the circuit reopened rather than staying half-open with its permit held
+        assertThat(monitor.getCircuitState(AIProvider.OPENAI)).isEqualTo(CircuitState.OPEN);
+        assertThat(monitor.tryAcquirePermission(AIProvider.OPENAI)).isTrue();
+    }
+}
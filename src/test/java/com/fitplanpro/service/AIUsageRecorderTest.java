@@ -0,0 +1,22 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.enums.PromptTemplateType;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+
+class AIUsageRecorderTest {
+
+    @Test
+    void providersMayShareAModelName() {
+        AIUsageRecorder recorder = new AIUsageRecorder(mock(AIUsageRollupWriter.class),
+                "replay", 0.01, 0.03, "replay", 0.003, 0.015);
+
+        recorder.recordTokens("replay", PromptTemplateType.MEAL_PLAN, 1000, 1000);
+
+        // Priced with the rates configured first
+        assertThat(recorder.getMetrics().getEstimatedCost()).isCloseTo(0.04, within(1e-9));
+    }
+}
@@ -0,0 +1,69 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.AbstractIntegrationTest;
+import com.fitplanpro.entity.AIUsageRollup;
+import com.fitplanpro.enums.PromptTemplateType;
+import com.fitplanpro.repository.AIUsageRollupRepository;
+import com.fitplanpro.support.QueryCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * AI usage rollup inserts, as the rollup writer saves them
+ */
+class AIUsageRollupBatchIT extends AbstractIntegrationTest {
+
+    private static final int ROLLUPS = 20;
+
+    @Autowired
+    private AIUsageRollupRepository rollupRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void rollupIdsAreAllocatedInBlocks() {
+        List<AIUsageRollup> rollups = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ROLLUPS; i++) {
+            rollups.add(AIUsageRollup.builder()
+                    .periodStart(now.minusMinutes(1))
+                    .periodEnd(now)
+                    .modelName("batch-test")
+                    .templateType(PromptTemplateType.MEAL_PLAN)
+                    .requestCount((long) i)
+                    .cacheHits(0L)
+                    .fallbacks(0L)
+                    .errors(0L)
+                    .promptTokens(0L)
+                    .completionTokens(0L)
+                    .totalLatencyMs(0L)
+                    .estimatedCost(0.0)
+                    .build());
+        }
+
+        QueryCounter.reset();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> rollupRepository.saveAll(rollups));
+
+        // A block of sequence values covers the batch (the first allocation reads the sequence twice),
+        // and the insert is prepared once and sent as a JDBC batch
+        assertThat(QueryCounter.getStatements())
+                .filteredOn(sql -> sql.toLowerCase(Locale.ROOT).contains("nextval"))
+                .hasSizeLessThanOrEqualTo(2);
+        assertThat(QueryCounter.getStatements())
+                .filteredOn(sql -> sql.toLowerCase(Locale.ROOT).startsWith("insert into ai_usage_rollups"))
+                .hasSize(1);
+        assertThat(rollups).extracting(AIUsageRollup::getId).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(rollupRepository.findAllById(rollups.stream().map(AIUsageRollup::getId).toList()))
+                .hasSize(ROLLUPS);
+    }
+}
@@ -0,0 +1,77 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.AbstractIntegrationTest;
+import com.fitplanpro.exception.UserNotFoundException;
+import com.fitplanpro.support.QueryCounter;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Verifies that a request resolves the current user with at most one users-table lookup
+ */
+class CurrentUserQueryCountIT extends AbstractIntegrationTest {
+
+    @Test
+    void savingDailyTrackingLoadsTheUserAtMostOnce() throws Exception {
+        TestUser user = registerUser();
+
+        QueryCounter.reset();
+        perform(post("/tracking/daily")
+                .header("Authorization", user.bearer())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of(
+                        "trackingDate", LocalDate.now().toString(),
+                        "weight", 79.5,
+                        "waterIntake", 1500))))
+                .andExpect(status().isOk());
+
+        assertThat(QueryCounter.getStatements()).isNotEmpty();
+        assertThat(QueryCounter.countSelectsFrom("users"))
+                .as("users lookups in %s", QueryCounter.getStatements())
+                .isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void readingDailyTrackingLoadsTheUserAtMostOnce() throws Exception {
+        TestUser user = registerUser();
+        perform(post("/tracking/daily")
+                .header("Authorization", user.bearer())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("trackingDate", LocalDate.now().toString()))))
+                .andExpect(status().isOk());
+
+        QueryCounter.reset();
+        perform(get("/tracking/daily")
+                .header("Authorization", user.bearer())
+                .param("date", LocalDate.now().toString()))
+                .andExpect(status().isOk());
+
+        assertThat(QueryCounter.getStatements()).isNotEmpty();
+        assertThat(QueryCounter.countSelectsFrom("users"))
+                .as("users lookups in %s", QueryCounter.getStatements())
+                .isLessThanOrEqualTo(1);
+    }
+
+    @Test
+    void deletedUserIsReportedAsNotFound() throws Exception {
+        TestUser user = registerUser();
+        perform(delete("/users/me").header("Authorization", user.bearer()))
+                .andExpect(status().isOk());
+
+        // The access token is still valid, but the user behind it is gone
+        assertThatThrownBy(() -> perform(get("/tracking/daily")
+                .header("Authorization", user.bearer())
+                .param("date", LocalDate.now().toString())))
+                .hasRootCauseInstanceOf(UserNotFoundException.class);
+    }
+}
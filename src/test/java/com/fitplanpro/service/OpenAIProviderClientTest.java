@@ -0,0 +1,57 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.dto.aiservice.AIProviderRequestDto;
+import com.fitplanpro.dto.aiservice.AIProviderResponseDto;
+import com.fitplanpro.enums.PromptTemplateType;
+import com.knuddels.jtokkit.api.EncodingType;
+import com.theokanning.openai.completion.chat.ChatCompletionChoice;
+import com.theokanning.openai.completion.chat.ChatCompletionChunk;
+import com.theokanning.openai.completion.chat.ChatMessage;
+import com.theokanning.openai.completion.chat.ChatMessageRole;
+import com.theokanning.openai.service.OpenAiService;
+import com.theokanning.openai.utils.TikTokensUtil;
+import io.reactivex.Flowable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OpenAIProviderClientTest {
+
+    @Test
+    void streamedCallsReportEstimatedTokenUsage() {
+        OpenAiService openAiService = mock(OpenAiService.class);
+        when(openAiService.streamChatCompletion(any()))
+                .thenReturn(Flowable.just(chunk("{\"daily_calories\": "), chunk("2400}")));
+        OpenAIProviderClient client = new OpenAIProviderClient(openAiService, "gpt-4-turbo");
+
+        List<String> deltas = new ArrayList<>();
+        AIProviderResponseDto response = client.stream(AIProviderRequestDto.builder()
+                .templateType(PromptTemplateType.MEAL_PLAN)
+                .systemPrompt("You are a certified nutritionist.")
+                .userPrompt("{\"age\": 34, \"goal_type\": \"WEIGHT_LOSS\"}")
+                .maxTokens(1000)
+                .temperature(0.7)
+                .build(), deltas::add);
+
+        assertThat(deltas).containsExactly("{\"daily_calories\": ", "2400}");
+        assertThat(response.getContent()).isEqualTo("{\"daily_calories\": 2400}");
+        assertThat(response.getCompletionTokens())
+                .isEqualTo(TikTokensUtil.tokens(EncodingType.CL100K_BASE, response.getContent()));
+        assertThat(response.getPromptTokens())
+                .isGreaterThan((long) TikTokensUtil.tokens(EncodingType.CL100K_BASE, "You are a certified nutritionist."));
+    }
+
+    private static ChatCompletionChunk chunk(String delta) {
+        ChatCompletionChoice choice = new ChatCompletionChoice();
+        choice.setMessage(new ChatMessage(ChatMessageRole.ASSISTANT.value(), delta));
+        ChatCompletionChunk chunk = new ChatCompletionChunk();
+        chunk.setChoices(List.of(choice));
+        return chunk;
+    }
+}
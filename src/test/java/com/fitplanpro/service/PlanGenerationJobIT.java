@@ -0,0 +1,119 @@
+package com.fitplanpro.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fitplanpro.AbstractIntegrationTest;
+import com.fitplanpro.entity.PlanGenerationJob;
+import com.fitplanpro.enums.PlanJobStatus;
+import com.fitplanpro.enums.PlanType;
+import com.fitplanpro.repository.PlanGenerationJobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Plan generation jobs: ownership, completion and recovery of stale jobs
+ */
+class PlanGenerationJobIT extends AbstractIntegrationTest {
+
+    @Autowired
+    private PlanGenerationJobService jobService;
+
+    @Autowired
+    private PlanGenerationJobRepository jobRepository;
+
+    @Test
+    void submittingAJobForAnotherUsersProfileIsRejected() throws Exception {
+        TestUser owner = registerUser();
+        TestUser other = registerUser();
+        Long profileId = createProfile(owner, Map.of());
+
+        perform(post("/plans/jobs")
+                .header("Authorization", other.bearer())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of(
+                        "planType", PlanType.MEAL_PLAN,
+                        "profileId", profileId,
+                        "forceRegenerate", false))))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void submittedJobCompletes() throws Exception {
+        stubAIResponse("ai/meal-plan.json", 200);
+        TestUser user = registerUser();
+        Long profileId = createProfile(user, Map.of("age", 41));
+
+        String jobId = submitJob(user, profileId).path("jobId").asText();
+
+        JsonNode job = null;
+        for (int i = 0; i < 100; i++) {
+            job = readData(perform(get("/plans/jobs/" + jobId)
+                    .header("Authorization", user.bearer()))
+                    .andExpect(status().isOk())
+                    .andReturn());
+            if (PlanJobStatus.valueOf(job.path("status").asText()).isTerminal()) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+
+        assertThat(job.path("status").asText()).isEqualTo(PlanJobStatus.COMPLETED.name());
+        assertThat(job.path("result").path("planId").asLong()).isPositive();
+    }
+
+    @Test
+    void recoveryLeavesHeartbeatingJobsRunning() throws Exception {
+        TestUser user = registerUser();
+        Long profileId = createProfile(user, Map.of());
+        LocalDateTime longAgo = LocalDateTime.now().minusHours(1);
+
+        // Started long ago, but its worker is still alive
+        PlanGenerationJob alive = saveRunningJob(user, profileId, longAgo, LocalDateTime.now(), 1);
+        // Its worker stopped heartbeating and it has no attempts left
+        PlanGenerationJob abandoned = saveRunningJob(user, profileId, longAgo, longAgo, 3);
+
+        jobService.recoverJobs();
+
+        assertThat(jobRepository.findById(alive.getId()).orElseThrow().getStatus())
+                .isEqualTo(PlanJobStatus.RUNNING);
+        assertThat(jobRepository.findById(abandoned.getId()).orElseThrow().getStatus())
+                .isEqualTo(PlanJobStatus.FAILED);
+    }
+
+    private JsonNode submitJob(TestUser user, Long profileId) throws Exception {
+        return readData(perform(post("/plans/jobs")
+                .header("Authorization", user.bearer())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of(
+                        "planType", PlanType.MEAL_PLAN,
+                        "profileId", profileId,
+                        "forceRegenerate", false))))
+                .andExpect(status().isAccepted())
+                .andReturn());
+    }
+
+    private PlanGenerationJob saveRunningJob(TestUser user, Long profileId, LocalDateTime startedAt,
+                                             LocalDateTime heartbeatAt, int attempts) {
+        return jobRepository.save(PlanGenerationJob.builder()
+                .id(UUID.randomUUID().toString())
+                .userId(user.id())
+                .profileId(profileId)
+                .planType(PlanType.MEAL_PLAN)
+                .forceRegenerate(false)
+                .status(PlanJobStatus.RUNNING)
+                .attempts(attempts)
+                .createdAt(startedAt)
+                .startedAt(startedAt)
+                .heartbeatAt(heartbeatAt)
+                .build());
+    }
+}
@@ -0,0 +1,120 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.AbstractIntegrationTest;
+import com.fitplanpro.enums.PlanType;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Load test: database connections in use while concurrent plan generations wait
+ * on increasingly slow AI responses
+ */
+@Slf4j
+class PlanGenerationPoolIT extends AbstractIntegrationTest {
+
+    private static final int CONCURRENT_GENERATIONS = 6;
+    private static final long[] AI_LATENCIES_MILLIS = {0, 500, 2000};
+    private static final long SAMPLE_INTERVAL_MILLIS = 5;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private int nextAge = 20;
+
+    @Test
+    void connectionsInUseStayFlatAsAILatencyRises() throws Exception {
+        HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+
+        List<PoolUsage> usages = new ArrayList<>();
+        for (long latency : AI_LATENCIES_MILLIS) {
+            PoolUsage usage = generateConcurrently(pool, latency);
+            usages.add(usage);
+            log.info("AI latency {} ms: {} connections active on average, {} at peak",
+                    latency, String.format("%.2f", usage.averageActive()), usage.peakActive());
+        }
+
+        // Holding a connection through the AI call would keep one busy per generation for the whole wait
+        PoolUsage slowest = usages.get(usages.size() - 1);
+        assertThat(slowest.averageActive()).isLessThan(CONCURRENT_GENERATIONS / 4.0);
+        assertThat(slowest.averageActive()).isLessThanOrEqualTo(usages.get(0).averageActive());
+    }
+
+    private PoolUsage generateConcurrently(HikariPoolMXBean pool, long latencyMillis) throws Exception {
+        stubAIResponse("ai/meal-plan.json", latencyMillis);
+        List<GenerationRequest> requests = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_GENERATIONS; i++) {
+            TestUser user = registerUser();
+            // A distinct profile per generation, so none is served from a cache
+            requests.add(new GenerationRequest(user, createProfile(user, Map.of(
+                    "gender", "FEMALE", "goalType", "BODY_RECOMPOSITION", "age", nextAge++))));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_GENERATIONS + 1);
+        try {
+            AtomicBoolean running = new AtomicBoolean(true);
+            Future<PoolUsage> sampler = executor.submit(() -> sample(pool, running));
+
+            List<Future<?>> generations = new ArrayList<>();
+            for (GenerationRequest request : requests) {
+                generations.add(executor.submit(() -> generate(request)));
+            }
+            for (Future<?> generation : generations) {
+                generation.get();
+            }
+
+            running.set(false);
+            return sampler.get();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private PoolUsage sample(HikariPoolMXBean pool, AtomicBoolean running) throws InterruptedException {
+        long samples = 0;
+        long totalActive = 0;
+        int peakActive = 0;
+        while (running.get()) {
+            int active = pool.getActiveConnections();
+            samples++;
+            totalActive += active;
+            peakActive = Math.max(peakActive, active);
+            Thread.sleep(SAMPLE_INTERVAL_MILLIS);
+        }
+        return new PoolUsage(samples == 0 ? 0 : (double) totalActive / samples, peakActive);
+    }
+
+    private Void generate(GenerationRequest request) throws Exception {
+        perform(post("/plans/generate")
+                .header("Authorization", request.user().bearer())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of(
+                        "planType", PlanType.MEAL_PLAN,
+                        "profileId", request.profileId(),
+                        "forceRegenerate", true))))
+                .andExpect(status().isOk());
+        return null;
+    }
+
+    private record GenerationRequest(TestUser user, Long profileId) {
+    }
+
+    private record PoolUsage(double averageActive, int peakActive) {
+    }
+}
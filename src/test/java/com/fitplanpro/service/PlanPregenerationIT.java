@@ -0,0 +1,127 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.AbstractIntegrationTest;
+import com.fitplanpro.entity.Plan;
+import com.fitplanpro.enums.PlanType;
+import com.fitplanpro.repository.PlanRepository;
+import com.fitplanpro.repository.UserProfileRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Off-peak plan pre-generation for dense profile clusters
+ */
+class PlanPregenerationIT extends AbstractIntegrationTest {
+
+    // At the default estimated token rates, each stubbed response costs more than this
+    private static final double BUDGET_BELOW_ONE_PLAN = 0.01;
+
+    @Autowired
+    private PlanPregenerationService pregenerationService;
+
+    @Autowired
+    private PlanRepository planRepository;
+
+    @Autowired
+    private UserProfileRepository userProfileRepository;
+
+    @Test
+    void seedPlansAreReusableButNotListedAsTheUsersOwn() throws Exception {
+        stubAIResponse("ai/meal-plan.json", 0);
+        List<TestUser> users = new ArrayList<>();
+        Set<String> profileHashes = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            TestUser user = registerUser();
+            users.add(user);
+            Long profileId = createProfile(user, Map.of("gender", "FEMALE", "goalType", "FLEXIBILITY",
+                    "age", 61 + i, "currentWeight", 55 + i, "height", 162 + i));
+            profileHashes.add(userProfileRepository.findById(profileId).orElseThrow().getProfileHash());
+        }
+
+        pregenerationService.pregeneratePlans();
+
+        assertThat(planRepository.findAll())
+                .filteredOn(plan -> profileHashes.contains(plan.getProfileHash()))
+                .filteredOn(plan -> plan.getPlanType() == PlanType.MEAL_PLAN)
+                .isNotEmpty()
+                .allMatch(Plan::isSeed);
+
+        for (TestUser user : users) {
+            assertThat(readData(perform(get("/plans/active")
+                    .header("Authorization", user.bearer()))
+                    .andExpect(status().isOk())
+                    .andReturn()))
+                    .isEmpty();
+        }
+    }
+
+    @Test
+    void clustersAreSplitByNormalizedConstraints() throws Exception {
+        stubAIResponse("ai/meal-plan.json", 0);
+        Set<String> equivalentAllergyHashes = new HashSet<>();
+        List<String> equivalentAllergies = List.of("gluten, lactose", "Lactose;gluten", " GLUTEN ,lactose, gluten",
+                "lactose, gluten", "gluten;LACTOSE");
+        for (int i = 0; i < 5; i++) {
+            Long profileId = createProfile(registerUser(), Map.of("gender", "FEMALE", "goalType", "STRENGTH",
+                    "age", 72 + i, "currentWeight", 40 + i, "height", 200 + i,
+                    "foodAllergies", equivalentAllergies.get(i)));
+            equivalentAllergyHashes.add(userProfileRepository.findById(profileId).orElseThrow().getProfileHash());
+        }
+
+        // Five profiles in the same bands, but too few share an allergy list to form a cluster
+        Set<String> mixedAllergyHashes = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            Long profileId = createProfile(registerUser(), Map.of("gender", "MALE", "goalType", "GENERAL_FITNESS",
+                    "age", 84 + i, "currentWeight", 48 + i, "height", 145 + i,
+                    "foodAllergies", i < 3 ? "gluten" : "lactose"));
+            mixedAllergyHashes.add(userProfileRepository.findById(profileId).orElseThrow().getProfileHash());
+        }
+
+        pregenerationService.pregeneratePlans();
+
+        assertThat(planRepository.findAll())
+                .filteredOn(plan -> equivalentAllergyHashes.contains(plan.getProfileHash()))
+                .filteredOn(plan -> plan.getPlanType() == PlanType.MEAL_PLAN)
+                .isNotEmpty();
+        assertThat(planRepository.findAll())
+                .filteredOn(plan -> mixedAllergyHashes.contains(plan.getProfileHash()))
+                .isEmpty();
+    }
+
+    @Test
+    void runStopsAtItsOwnBudget() throws Exception {
+        stubAIResponse("ai/meal-plan.json", 0);
+        for (int i = 0; i < 5; i++) {
+            createProfile(registerUser(), Map.of("gender", "FEMALE", "goalType", "ENDURANCE",
+                    "age", 43 + i, "currentWeight", 66 + i, "height", 170 + i));
+        }
+        long seedsBefore = countSeedPlans();
+
+        Object budget = ReflectionTestUtils.getField(pregenerationService, "budget");
+        ReflectionTestUtils.setField(pregenerationService, "budget", BUDGET_BELOW_ONE_PLAN);
+        try {
+            pregenerationService.pregeneratePlans();
+        } finally {
+            ReflectionTestUtils.setField(pregenerationService, "budget", budget);
+        }
+
+        // Only the generations already in flight when the budget ran out, at most one per worker
+        int concurrency = (int) ReflectionTestUtils.getField(pregenerationService, "concurrency");
+        assertThat(countSeedPlans() - seedsBefore).isBetween(1L, (long) concurrency);
+    }
+
+    private long countSeedPlans() {
+        return planRepository.findAll().stream().filter(Plan::isSeed).count();
+    }
+}
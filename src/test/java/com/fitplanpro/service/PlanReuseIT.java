@@ -0,0 +1,76 @@
+package com.fitplanpro.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fitplanpro.AbstractIntegrationTest;
+import com.fitplanpro.enums.PlanType;
+import com.fitplanpro.repository.PlanRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Reuse and local adaptation of plans generated for similar profiles
+ */
+class PlanReuseIT extends AbstractIntegrationTest {
+
+    @Autowired
+    private PlanRepository planRepository;
+
+    @Test
+    void similarPlanIsAdaptedForTheSameSafetyConstraints() throws Exception {
+        stubAIResponse("ai/meal-plan.json", 0);
+        JsonNode source = generate(registerUser(), profile(34, "sesame"));
+        assertThat(source.path("fromCache").asBoolean()).isFalse();
+
+        // Same allergies written differently, a year older and a little heavier
+        JsonNode adapted = generate(registerUser(), profile(35, "Sesame "));
+
+        assertThat(adapted.path("fromCache").asBoolean()).isTrue();
+        assertThat(adapted.path("planId").asLong()).isNotEqualTo(source.path("planId").asLong());
+        assertThat(planRepository.findById(adapted.path("planId").asLong()).orElseThrow().getSourcePlanId())
+                .isEqualTo(source.path("planId").asLong());
+    }
+
+    @Test
+    void similarPlanIsNotReusedAcrossAllergies() throws Exception {
+        stubAIResponse("ai/meal-plan.json", 0);
+        generate(registerUser(), profile(34, "kiwi"));
+
+        // Same body, but allergic to something the existing plan may contain
+        JsonNode generated = generate(registerUser(), profile(35, "shellfish"));
+
+        assertThat(generated.path("fromCache").asBoolean()).isFalse();
+        assertThat(planRepository.findById(generated.path("planId").asLong()).orElseThrow().getSourcePlanId())
+                .isNull();
+    }
+
+    private Map<String, Object> profile(int age, String foodAllergies) {
+        Map<String, Object> profile = new HashMap<>();
+        profile.put("gender", "MALE");
+        profile.put("goalType", "STRENGTH");
+        profile.put("age", age);
+        profile.put("currentWeight", 70 + age - 34);
+        profile.put("foodAllergies", foodAllergies);
+        return profile;
+    }
+
+    private JsonNode generate(TestUser user, Map<String, Object> profile) throws Exception {
+        Long profileId = createProfile(user, profile);
+        return readData(perform(post("/plans/generate")
+                .header("Authorization", user.bearer())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of(
+                        "planType", PlanType.MEAL_PLAN,
+                        "profileId", profileId,
+                        "forceRegenerate", false))))
+                .andExpect(status().isOk())
+                .andReturn());
+    }
+}
@@ -0,0 +1,184 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.entity.Plan;
+import com.fitplanpro.entity.UserProfile;
+import com.fitplanpro.enums.DietPreference;
+import com.fitplanpro.enums.Gender;
+import com.fitplanpro.enums.GoalType;
+import com.fitplanpro.enums.PlanType;
+import com.fitplanpro.repository.PlanRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Slf4j
+class PlanSimilarityIndexTest {
+
+    private final PlanRepository planRepository = mock(PlanRepository.class);
+    private final PlanSimilarityIndex index = new PlanSimilarityIndex(planRepository);
+    private final List<Object[]> committedRows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(index, "ageTolerance", 5f);
+        ReflectionTestUtils.setField(index, "weightTolerance", 10f);
+        ReflectionTestUtils.setField(index, "heightTolerance", 10f);
+        ReflectionTestUtils.setField(index, "weightChangeTolerance", 10f);
+        ReflectionTestUtils.setField(index, "daysPerWeekTolerance", 2f);
+        ReflectionTestUtils.setField(index, "minScore", 0.5);
+        ReflectionTestUtils.setField(index, "loadBatchSize", 2);
+        ReflectionTestUtils.setField(index, "refreshOverlapMillis", 300_000L);
+
+        when(planRepository.findProfileFeaturesAfter(anyLong(), any())).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            Pageable page = invocation.getArgument(1);
+            return committedRows.stream()
+                    .filter(row -> (Long) row[0] > afterId)
+                    .sorted(Comparator.comparingLong(row -> (Long) row[0]))
+                    .limit(page.getPageSize())
+                    .toList();
+        });
+    }
+
+    @Test
+    void refreshPicksUpPlansCommittedAfterAHigherId() {
+        commit(1L, null);
+        commit(3L, null);
+        index.load();
+
+        // Plan 2 was allocated before plan 3 but its transaction committed later
+        commit(2L, null);
+        index.refresh();
+
+        assertThat(index.findSimilar(profile(), PlanType.MEAL_PLAN, 10))
+                .extracting(PlanSimilarityIndex.Match::planId)
+                .containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    void refreshStartsFromTheHighWaterMarkOnceTheOverlapHasPassed() {
+        ReflectionTestUtils.setField(index, "refreshOverlapMillis", 0L);
+        commit(1L, null);
+        commit(3L, null);
+        index.load();
+
+        index.refresh();
+
+        verify(planRepository, atLeastOnce()).findProfileFeaturesAfter(eq(3L), any());
+    }
+
+    @Test
+    void expiredPlansAreNotReturned() {
+        commit(1L, LocalDateTime.now().minusDays(1));
+        commit(2L, LocalDateTime.now().plusDays(1));
+        index.load();
+        index.refresh();
+
+        assertThat(index.findSimilar(profile(), PlanType.MEAL_PLAN, 10))
+                .extracting(PlanSimilarityIndex.Match::planId)
+                .containsExactly(2L);
+        assertThat(index.similarityScore(profile(), 1L)).isNull();
+    }
+
+    @Test
+    void syntheticPopulationHitRateReport() {
+        // Profiles with a realistic share of diets, allergies, conditions and equipment
+        Random random = new Random(42);
+        Map<Long, UserProfile> planProfiles = new HashMap<>();
+        for (long planId = 1; planId <= 2000; planId++) {
+            UserProfile profile = randomProfile(random);
+            planProfiles.put(planId, profile);
+            index.add(Plan.builder().id(planId).planType(PlanType.MEAL_PLAN).build(), profile);
+        }
+
+        int queries = 2000;
+        int hits = 0;
+        int adaptableHits = 0;
+        for (int i = 0; i < queries; i++) {
+            UserProfile query = randomProfile(random);
+
+            List<PlanSimilarityIndex.Match> matches = index.findSimilar(query, PlanType.MEAL_PLAN, 5);
+            List<PlanSimilarityIndex.Match> adaptable = index.findSimilar(query, PlanType.MEAL_PLAN, 5, 0.3);
+            hits += matches.isEmpty() ? 0 : 1;
+            adaptableHits += adaptable.isEmpty() ? 0 : 1;
+
+            for (PlanSimilarityIndex.Match match : adaptable) {
+                assertThat(safetyConstraints(planProfiles.get(match.planId())))
+                        .as("constraints of plan %d reused for query %d", match.planId(), i)
+                        .isEqualTo(safetyConstraints(query));
+            }
+        }
+
+        log.info("Synthetic plan reuse over {} plans and {} queries: hit rate {}% at score 0.5, {}% at score 0.3",
+                planProfiles.size(), queries, hits * 100 / queries, adaptableHits * 100 / queries);
+        assertThat(hits).isPositive();
+        assertThat(adaptableHits).isGreaterThanOrEqualTo(hits);
+    }
+
+    private static UserProfile randomProfile(Random random) {
+        float weight = 55 + random.nextInt(55);
+        return UserProfile.builder()
+                .gender(random.nextBoolean() ? Gender.MALE : Gender.FEMALE)
+                .goalType(pick(random, GoalType.WEIGHT_LOSS, GoalType.MUSCLE_GAIN, GoalType.GENERAL_FITNESS))
+                .age(18 + random.nextInt(48))
+                .currentWeight(weight)
+                .height(155f + random.nextInt(40))
+                .targetWeight(weight - 10 + random.nextInt(21))
+                .daysPerWeek(2 + random.nextInt(5))
+                .dietPreference(random.nextInt(10) < 7 ? DietPreference.NORMAL
+                        : pick(random, DietPreference.VEGETARIAN, DietPreference.VEGAN))
+                .foodAllergies(random.nextInt(10) < 8 ? "" : pick(random, "peanuts", "Shellfish", "gluten, lactose"))
+                .medicalConditions(random.nextInt(10) < 9 ? "" : "diabetes")
+                .equipmentAvailable(pick(random, "", "dumbbells", "Barbell; dumbbells"))
+                .build();
+    }
+
+    @SafeVarargs
+    private static <T> T pick(Random random, T... values) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static List<Object> safetyConstraints(UserProfile profile) {
+        return List.of(profile.getDietPreference(),
+                ProfileCohortKeyGenerator.normalizeList(profile.getFoodAllergies()),
+                ProfileCohortKeyGenerator.normalizeList(profile.getMedicalConditions()),
+                ProfileCohortKeyGenerator.normalizeList(profile.getEquipmentAvailable()));
+    }
+
+    private void commit(Long planId, LocalDateTime expiryTime) {
+        committedRows.add(new Object[] {planId, PlanType.MEAL_PLAN, expiryTime, Gender.MALE, GoalType.WEIGHT_LOSS,
+                30, 80f, 180f, 75f, 3, DietPreference.NORMAL, null, null, null});
+    }
+
+    private static UserProfile profile() {
+        return UserProfile.builder()
+                .gender(Gender.MALE)
+                .goalType(GoalType.WEIGHT_LOSS)
+                .age(30)
+                .currentWeight(80f)
+                .height(180f)
+                .targetWeight(75f)
+                .daysPerWeek(3)
+                .dietPreference(DietPreference.NORMAL)
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package com.fitplanpro.service;
+
+import com.fitplanpro.entity.UserProfile;
+import com.fitplanpro.enums.BudgetConstraint;
+import com.fitplanpro.enums.DietPreference;
+import com.fitplanpro.enums.Gender;
+import com.fitplanpro.enums.GoalType;
+import com.fitplanpro.enums.TrainingExperience;
+import com.fitplanpro.enums.TrainingLocation;
+import com.fitplanpro.enums.WorkoutTime;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class ProfileCohortKeyGeneratorTest {
+
+    private static final int[] PLAN_COUNTS = {10_000, 100_000};
+    private static final int[] BANDS = {3, 5, 10};
+    private static final int QUERIES = 10_000;
+
+    @Test
+    void equivalentFreeTextListsShareAKey() {
+        ProfileCohortKeyGenerator generator = generator(5);
+        UserProfile profile = randomProfile(new Random(1));
+        String key = generator.generateKey(profile);
+
+        profile.setFoodAllergies(" Shellfish;PEANUTS, shellfish ");
+        String reordered = generator.generateKey(profile);
+        profile.setFoodAllergies("peanuts, shellfish");
+
+        assertThat(generator.generateKey(profile)).isEqualTo(reordered);
+        profile.setFoodAllergies("peanuts");
+        assertThat(generator.generateKey(profile)).isNotEqualTo(reordered).isNotEqualTo(key);
+    }
+
+    @Test
+    void syntheticPopulationCohortHitRateReport() {
+        // The share of new profiles whose cohort key matches an existing plan, per population and band width
+        double hitRate = 0;
+        for (int plans : PLAN_COUNTS) {
+            double previousHitRate = 0;
+            for (int band : BANDS) {
+                hitRate = cohortHitRate(generator(band), plans);
+                assertThat(hitRate).isGreaterThanOrEqualTo(previousHitRate);
+                previousHitRate = hitRate;
+            }
+        }
+        assertThat(hitRate).isPositive();
+    }
+
+    private static double cohortHitRate(ProfileCohortKeyGenerator generator, int plans) {
+        Random random = new Random(42);
+        Set<String> planKeys = new HashSet<>();
+        for (int i = 0; i < plans; i++) {
+            planKeys.add(generator.generateKey(randomProfile(random)));
+        }
+
+        int hits = 0;
+        for (int i = 0; i < QUERIES; i++) {
+            hits += planKeys.contains(generator.generateKey(randomProfile(random))) ? 1 : 0;
+        }
+
+        double hitRate = (double) hits / QUERIES;
+        log.info("Cohort keys with {}-unit age, weight and height bands: {} distinct keys over {} plans, "
+                        + "{}% of {} queries match a plan",
+                ReflectionTestUtils.getField(generator, "ageBand"), planKeys.size(), plans,
+                String.format("%.1f", hitRate * 100), QUERIES);
+        return hitRate;
+    }
+
+    private static ProfileCohortKeyGenerator generator(int band) {
+        ProfileCohortKeyGenerator generator = new ProfileCohortKeyGenerator();
+        ReflectionTestUtils.setField(generator, "ageBand", band);
+        ReflectionTestUtils.setField(generator, "weightBand", (float) band);
+        ReflectionTestUtils.setField(generator, "heightBand", (float) band);
+        return generator;
+    }
+
+    // Every field in the key, with the most common answers most likely
+    private static UserProfile randomProfile(Random random) {
+        float weight = 55 + random.nextInt(55);
+        return UserProfile.builder()
+                .gender(random.nextBoolean() ? Gender.MALE : Gender.FEMALE)
+                .goalType(pick(random, GoalType.WEIGHT_LOSS, GoalType.WEIGHT_LOSS, GoalType.MUSCLE_GAIN,
+                        GoalType.GENERAL_FITNESS))
+                .age(18 + random.nextInt(48))
+                .currentWeight(weight)
+                .height(155f + random.nextInt(40))
+                .targetWeight(weight - 10 + random.nextInt(21))
+                .trainingExperience(pick(random, TrainingExperience.BEGINNER, TrainingExperience.BEGINNER,
+                        TrainingExperience.INTERMEDIATE))
+                .trainingLocation(pick(random, TrainingLocation.GYM, TrainingLocation.HOME))
+                .daysPerWeek(pick(random, 3, 3, 4, 5))
+                .timePerWorkout(pick(random, 45, 60, 60))
+                .preferredWorkoutTime(pick(random, WorkoutTime.MORNING, WorkoutTime.EVENING, WorkoutTime.FLEXIBLE))
+                .dietPreference(random.nextInt(10) < 7 ? DietPreference.NORMAL
+                        : pick(random, DietPreference.VEGETARIAN, DietPreference.VEGAN))
+                .mealsPerDay(random.nextInt(10) < 8 ? 3 : 4)
+                .snacksPerDay(pick(random, 1, 1, 2))
+                .budgetConstraints(random.nextInt(10) < 7 ? BudgetConstraint.MEDIUM : BudgetConstraint.LOW)
+                .locationCulture(random.nextInt(10) < 8 ? "Western" : "Mediterranean")
+                .foodAllergies(random.nextInt(10) < 8 ? "" : pick(random, "peanuts", "Shellfish", "gluten, lactose"))
+                .medicalConditions(random.nextInt(10) < 9 ? "" : "diabetes")
+                .equipmentAvailable(pick(random, "", "dumbbells", "Barbell; dumbbells"))
+                .build();
+    }
+
+    @SafeVarargs
+    private static <T> T pick(Random random, T... values) {
+        return values[random.nextInt(values.length)];
+    }
+}
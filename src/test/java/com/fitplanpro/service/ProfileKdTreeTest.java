@@ -0,0 +1,38 @@
+package com.fitplanpro.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProfileKdTreeTest {
+
+    private static final long NOW = 1_000_000L;
+
+    @Test
+    void replacingAnEntryMovesIt() {
+        ProfileKdTree tree = new ProfileKdTree(2);
+        for (int i = 0; i < 100; i++) {
+            tree.add(new ProfileKdTree.Entry(1L, new float[] {i, i}, Long.MAX_VALUE));
+        }
+        tree.add(new ProfileKdTree.Entry(2L, new float[] {50, 50}, Long.MAX_VALUE));
+
+        assertThat(tree.size()).isEqualTo(2);
+        assertThat(tree.nearest(new float[] {99, 99}, 2, 1, NOW))
+                .extracting(neighbour -> neighbour.entry().planId())
+                .containsExactly(1L);
+    }
+
+    @Test
+    void expiredEntriesAreRemoved() {
+        ProfileKdTree tree = new ProfileKdTree(2);
+        tree.add(new ProfileKdTree.Entry(1L, new float[] {0, 0}, NOW - 1));
+        tree.add(new ProfileKdTree.Entry(2L, new float[] {1, 1}, NOW + 1));
+        tree.add(new ProfileKdTree.Entry(3L, new float[] {2, 2}, Long.MAX_VALUE));
+
+        assertThat(tree.removeExpired(NOW)).containsExactly(1L);
+        assertThat(tree.size()).isEqualTo(2);
+        assertThat(tree.nearest(new float[] {0, 0}, 3, 10, NOW))
+                .extracting(neighbour -> neighbour.entry().planId())
+                .containsExactly(2L, 3L);
+    }
+}
@@ -0,0 +1,53 @@
+package com.fitplanpro.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Hibernate statement inspector that records the SQL issued on the current
+ * thread, so tests can assert how many queries a request runs. MockMvc
+ * requests execute on the test thread, so everything they run is captured.
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.get().add(sql);
+        return sql;
+    }
+
+    /**
+     * Forget the statements recorded on this thread
+     */
+    public static void reset() {
+        STATEMENTS.get().clear();
+    }
+
+    /**
+     * Count the statements recorded on this thread that select from a table
+     *
+     * @param table the table name
+     * @return the number of matching SELECT statements
+     */
+    public static long countSelectsFrom(String table) {
+        String from = " from " + table.toLowerCase(Locale.ROOT) + " ";
+        return STATEMENTS.get().stream()
+                .map(sql -> sql.toLowerCase(Locale.ROOT).replaceAll("\\s+", " ") + " ")
+                .filter(sql -> sql.startsWith("select") && sql.contains(from))
+                .count();
+    }
+
+    /**
+     * Get the statements recorded on this thread
+     *
+     * @return a copy of the recorded SQL
+     */
+    public static List<String> getStatements() {
+        return List.copyOf(STATEMENTS.get());
+    }
+}